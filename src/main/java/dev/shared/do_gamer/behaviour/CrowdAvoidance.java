@@ -1,19 +1,22 @@
 package dev.shared.do_gamer.behaviour;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.function.Predicate;
 
 import dev.shared.do_gamer.config.CrowdAvoidanceConfig;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.do_gamer.utils.RadiusQuery;
 import dev.shared.utils.CaptchaBoxDetector;
+import dev.shared.utils.ItemCooldowns;
 import dev.shared.utils.TemporalModuleDetector;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
 import eu.darkbot.api.extensions.Configurable;
 import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.game.entities.Entity;
+import eu.darkbot.api.game.entities.Npc;
+import eu.darkbot.api.game.entities.Player;
 import eu.darkbot.api.game.entities.Portal;
 import eu.darkbot.api.game.entities.Ship;
 import eu.darkbot.api.game.entities.Station;
@@ -40,7 +43,13 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
     private final AttackAPI attacker;
     private final GroupAPI groupAPI;
     private final PetGearHelper petGearHelper;
+    private final ItemCooldowns cooldowns;
+    private final RadiusQuery<Npc> npcQuery = new RadiusQuery<>(1);
+    private final RadiusQuery<Player> playerQuery = new RadiusQuery<>(1);
+    private final Predicate<Npc> npcFilter = this::isConsideredNpc;
+    private final Predicate<Player> playerFilter = this::isConsideredPlayer;
     private CrowdAvoidanceConfig config;
+    private boolean drawFireSeen; // Draw Fire seen on a counted ship during the last query
     private static final double MIN_DISTANCE_TO_PORTAL = 500.0;
     private static final double MIN_DISTANCE_TO_STATION = 1000.0;
     private static final double AVOIDANCE_DISTANCE = 1500.0;
@@ -50,6 +59,7 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
     private static final int USE_RETRY_DELAY_MS = 250;
 
     public CrowdAvoidance(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "CrowdAvoidance");
         this.bot = api.requireAPI(BotAPI.class);
         this.hero = api.requireAPI(HeroAPI.class);
         this.entities = api.requireAPI(EntitiesAPI.class);
@@ -58,6 +68,7 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
         this.attacker = api.requireAPI(AttackAPI.class);
         this.groupAPI = api.requireAPI(GroupAPI.class);
         this.petGearHelper = new PetGearHelper(api);
+        this.cooldowns = api.requireInstance(ItemCooldowns.class);
     }
 
     @Override
@@ -71,19 +82,19 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
             return;
         }
 
-        List<Ship> ships = this.getShips();
-        if (ships.isEmpty()) {
+        int count = this.queryShips();
+        if (count == 0) {
             return; // No ships to consider
         }
 
         // Handle Draw Fire avoidance if enabled and affected
-        if (this.config.avoidDrawFire.enabled && this.isDrawFireActive(ships)) {
+        if (this.config.avoidDrawFire.enabled && this.drawFireSeen) {
             this.handleDrawFireAvoidance();
         }
 
         // Move away if crowded and not near safe points
-        if (ships.size() >= this.config.numb && !this.isNearSafePoints()) {
-            this.moveAway(ships);
+        if (count >= this.config.numb && !this.isNearSafePoints()) {
+            this.moveAway(this.getClosestShip());
         }
     }
 
@@ -123,10 +134,6 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
                 || this.entities.getStations().stream().anyMatch(this::checkStation);
     }
 
-    private boolean checkRadius(Ship ship) {
-        return ship.distanceTo(this.hero) <= this.config.radius;
-    }
-
     private boolean isSameClan(Ship player) {
         int heroClanId = this.hero.getEntityInfo().getClanId();
         int playerClanId = player.getEntityInfo().getClanId();
@@ -138,37 +145,70 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
     }
 
     private boolean isValidAlly(Ship player) {
-        return !player.getEntityInfo().isEnemy() && !player.isBlacklisted() && this.checkRadius(player)
+        return !player.getEntityInfo().isEnemy() && !player.isBlacklisted()
                 && !(this.isSameClan(player) || this.isSameGroup(player));
     }
 
     private boolean isValidEnemy(Ship player) {
-        return (player.getEntityInfo().isEnemy() || player.isBlacklisted()) && this.checkRadius(player)
-                && !this.isSameGroup(player);
+        return (player.getEntityInfo().isEnemy() || player.isBlacklisted()) && !this.isSameGroup(player);
     }
 
-    private List<Ship> getShips() {
-        List<Ship> ships = new ArrayList<>();
-
-        // Collect NPC ships
+    /**
+     * Counts NPCs and players inside the radius in a single pass per entity type.
+     */
+    private int queryShips() {
+        double x = this.hero.getX();
+        double y = this.hero.getY();
+        double radius = this.config.radius;
+        this.drawFireSeen = false;
+
+        int count = 0;
+        this.npcQuery.clear();
         if (this.config.consider.npcs) {
-            this.entities.getNpcs().stream().filter(this::checkRadius).forEach(ships::add);
+            count += this.npcQuery.run(this.entities.getNpcs(), x, y, radius, this.npcFilter).count();
         }
 
-        // Collect player ships
+        this.playerQuery.clear();
         if (this.config.consider.enemies || this.config.consider.allies) {
-            this.entities.getPlayers().stream()
-                    .filter(p -> (this.config.consider.enemies && this.isValidEnemy(p)) ||
-                            (this.config.consider.allies && this.isValidAlly(p)))
-                    .forEach(ships::add);
+            count += this.playerQuery.run(this.entities.getPlayers(), x, y, radius, this.playerFilter).count();
         }
+        return count;
+    }
 
-        return ships;
+    private boolean isConsideredNpc(Npc npc) {
+        this.checkDrawFire(npc);
+        return true;
     }
 
-    private void moveAway(List<Ship> ships) {
-        // Find the closest ship
-        Ship closest = ships.stream().min(Comparator.comparingDouble(this.hero::distanceTo)).orElse(null);
+    private boolean isConsideredPlayer(Player player) {
+        boolean considered = (this.config.consider.enemies && this.isValidEnemy(player))
+                || (this.config.consider.allies && this.isValidAlly(player));
+        if (considered) {
+            this.checkDrawFire(player);
+        }
+        return considered;
+    }
+
+    // Check Draw Fire effect while counting, only if the avoidance is enabled
+    private void checkDrawFire(Ship ship) {
+        if (!this.drawFireSeen && this.config.avoidDrawFire.enabled) {
+            this.drawFireSeen = ship.hasEffect(EntityEffect.DRAW_FIRE);
+        }
+    }
+
+    private Ship getClosestShip() {
+        Npc npc = this.npcQuery.nearest();
+        Player player = this.playerQuery.nearest();
+        if (npc == null) {
+            return player;
+        }
+        if (player == null) {
+            return npc;
+        }
+        return this.npcQuery.nearestDistance() <= this.playerQuery.nearestDistance() ? npc : player;
+    }
+
+    private void moveAway(Ship closest) {
         if (closest == null) {
             return;
         }
@@ -196,13 +236,11 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
         this.movement.moveTo(targetX, targetY);
     }
 
-    // Check if any ship has Draw Fire effect active
-    private boolean isDrawFireActive(List<Ship> ships) {
-        return ships.stream().anyMatch(ship -> ship.hasEffect(EntityEffect.DRAW_FIRE));
-    }
-
     // Check if EMP can be used
     private boolean canUseEmp() {
+        if (!this.cooldowns.isReady(Special.EMP_01)) {
+            return false; // Cooling down
+        }
         return this.items.getItem(Special.EMP_01, ItemFlag.AVAILABLE, ItemFlag.READY, ItemFlag.USABLE)
                 .filter(item -> item.getQuantity() > 0).isPresent();
     }
@@ -221,9 +259,10 @@ public class CrowdAvoidance implements Behavior, Configurable<CrowdAvoidanceConf
         }
 
         // Optionally use EMP if configured
-        if (this.config.avoidDrawFire.useEmp && this.canUseEmp()) {
-            this.items.useItem(Special.EMP_01, USE_RETRY_DELAY_MS,
-                    ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE, ItemFlag.NOT_SELECTED);
+        if (this.config.avoidDrawFire.useEmp && this.canUseEmp()
+                && this.items.useItem(Special.EMP_01, USE_RETRY_DELAY_MS,
+                        ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE, ItemFlag.NOT_SELECTED).isSuccessful()) {
+            this.cooldowns.markUsed(Special.EMP_01);
         }
     }
 
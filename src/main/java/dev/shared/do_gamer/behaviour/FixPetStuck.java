@@ -1,43 +1,85 @@
 package dev.shared.do_gamer.behaviour;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import dev.shared.do_gamer.config.FixPetStuckConfig;
+import dev.shared.do_gamer.utils.HealthTrend;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.do_gamer.utils.PetHeartbeat;
+import dev.shared.do_gamer.utils.PetRecoveryLadder;
+import dev.shared.do_gamer.utils.PetRecoveryLadder.Tier;
+import dev.shared.utils.Clock;
+import dev.shared.utils.RefreshCoordinator;
+import dev.shared.utils.TickScheduler;
+import dev.shared.utils.jfr.ActionTrace;
+import dev.shared.utils.jfr.StateTrace;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
 import eu.darkbot.api.extensions.Configurable;
 import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.game.enums.EntityEffect;
+import eu.darkbot.api.game.enums.PetGear;
 import eu.darkbot.api.game.other.GameMap;
+import eu.darkbot.api.game.other.Gui;
 import eu.darkbot.api.managers.AttackAPI;
-import eu.darkbot.api.managers.BotAPI;
 import eu.darkbot.api.managers.EntitiesAPI;
+import eu.darkbot.api.managers.GameScreenAPI;
 import eu.darkbot.api.managers.HeroAPI;
+import eu.darkbot.api.managers.PetAPI;
 import eu.darkbot.api.managers.StarSystemAPI;
 
-@Feature(name = "Fix PET stuck", description = "Reloads the game when the PET window gets stuck")
+@Feature(name = "Fix PET stuck", description = "Recovers the PET when it gets stuck, reloading the game as a last resort")
 public class FixPetStuck implements Behavior, Configurable<FixPetStuckConfig> {
 
-    private final BotAPI bot;
     private final HeroAPI hero;
     private final AttackAPI attacker;
     private final EntitiesAPI entities;
     private final StarSystemAPI starSystem;
+    private final GameScreenAPI gameScreen;
+    private final PetAPI pet;
     private final PetGearHelper petGearHelper;
+    private final PetHeartbeat heartbeat;
+    private final Clock clock;
+    private final HealthTrend healthTrend;
+    private final TickScheduler ticks;
+    private final TickScheduler.Slot monitorSlot;
+    private final RefreshCoordinator refresh;
+    private final PetRecoveryLadder ladder = new PetRecoveryLadder();
+    private final StateTrace recoveryTrace = new StateTrace("FixPetStuck", "recovery");
 
     private FixPetStuckConfig config;
     private long stuckSince = -1L;
-    private long lastReloadAt = 0L;
     private boolean reload = false;
+    private PetGear lastGear; // Last gear seen while the PET was active
+
+    // Recovery in progress
+    private List<Tier> tiers; // Null while not recovering
+    private int tierIndex;
+    private long tierStart;
+    private boolean restorePending; // Second half of a toggle or reopen
+    private boolean heartbeatTriggered; // Started by the heartbeat, the PET looked active
+    private static final String PET_WINDOW = "pet";
     private static final long POST_RELOAD_GRACE_MS = 60_000L;
+    private static final long MONITOR_CADENCE_MS = 500L;
 
     public FixPetStuck(PluginAPI api) {
-        this.bot = api.requireAPI(BotAPI.class);
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "FixPetStuck");
         this.hero = api.requireAPI(HeroAPI.class);
         this.attacker = api.requireAPI(AttackAPI.class);
         this.entities = api.requireAPI(EntitiesAPI.class);
         this.starSystem = api.requireAPI(StarSystemAPI.class);
+        this.gameScreen = api.requireAPI(GameScreenAPI.class);
+        this.pet = api.requireAPI(PetAPI.class);
         this.petGearHelper = new PetGearHelper(api);
+        this.clock = api.requireInstance(Clock.class);
+        this.heartbeat = api.requireInstance(PetHeartbeat.class);
+        this.healthTrend = api.requireInstance(HealthTrend.class);
+        this.ticks = api.requireInstance(TickScheduler.class);
+        this.monitorSlot = this.ticks.register("Fix PET stuck", MONITOR_CADENCE_MS, 1, null);
+        this.refresh = api.requireInstance(RefreshCoordinator.class);
     }
 
     @Override
@@ -47,46 +89,197 @@ public class FixPetStuck implements Behavior, Configurable<FixPetStuckConfig> {
 
     @Override
     public void onTickBehavior() {
+        this.refresh.tick();
         if (this.config == null || !this.config.enabled || this.isInGracePeriod()) {
+            if (this.tiers != null) {
+                this.finishRecovery("paused");
+            }
             return;
         }
 
+        this.healthTrend.sample();
+        this.sampleHeartbeat();
+
         if (this.reload) {
-            this.triggerReload();
+            // The monitor does not run while waiting for the reload, check here
+            if (this.isRecovered()) {
+                this.finishRecovery("recovered before reload");
+            } else {
+                this.triggerReload();
+            }
             return;
         }
 
-        this.monitorPet();
+        // The stuck timeout is in seconds, no need to check on every tick
+        this.ticks.run(this.monitorSlot, this::monitorPet);
+    }
+
+    // Cheap reads on every tick, so a stuck PET shows within seconds
+    private void sampleHeartbeat() {
+        if (this.petGearHelper.isActive()) {
+            this.heartbeat.sample(this.hero, this.pet);
+        } else {
+            this.heartbeat.clear();
+        }
     }
 
     /**
-     * Monitors the PET status and triggers a reload if it gets stuck.
+     * Monitors the PET status and starts the recovery if it gets stuck.
      */
     private void monitorPet() {
+        if (this.tiers != null) {
+            this.stepRecovery();
+            return;
+        }
+
         if (!this.petGearHelper.isEnabled()) {
             return; // PET is disabled, nothing to monitor
         }
 
+        if (this.petGearHelper.isActive() && this.heartbeat.isStuck()) {
+            // Active but frozen, no need to wait for stuckSeconds
+            this.stuckSince = this.clock.millis() - PetHeartbeat.WINDOW_MS;
+            this.startRecovery("PET heartbeat lost", true);
+            return;
+        }
+
         if (!this.isInCombat() && !this.isCollecting()) {
             return; // Not in combat or collecting, no need to monitor PET
         }
 
         if (this.petGearHelper.isActive()) {
             // PET is functioning properly, reset the timer
+            this.lastGear = this.petGearHelper.getGear();
             this.reset();
             return;
         }
 
         if (this.stuckSince < 0) {
-            this.stuckSince = System.currentTimeMillis();
+            this.stuckSince = this.clock.millis();
         }
 
-        long elapsed = System.currentTimeMillis() - this.stuckSince;
+        long elapsed = this.clock.millis() - this.stuckSince;
         if (elapsed >= (this.config.stuckSeconds * 1_000L)) {
-            this.reload = true;
+            this.startRecovery("PET inactive for " + (elapsed / 1_000L) + "s", false);
+        }
+    }
+
+    private void startRecovery(String cause, boolean heartbeatTriggered) {
+        this.tiers = this.ladder.order(this.enabledTiers(), this.config.ladder.adaptive);
+        this.tierIndex = -1;
+        this.heartbeatTriggered = heartbeatTriggered;
+        this.nextTier(cause);
+    }
+
+    private List<Tier> enabledTiers() {
+        List<Tier> enabled = new ArrayList<>();
+        if (this.config.ladder.togglePet) {
+            enabled.add(Tier.TOGGLE_PET);
+        }
+        if (this.config.ladder.reissueGear) {
+            enabled.add(Tier.REISSUE_GEAR);
+        }
+        if (this.config.ladder.reopenWindow) {
+            enabled.add(Tier.REOPEN_WINDOW);
+        }
+        return enabled;
+    }
+
+    /**
+     * Moves to the next tier of the ladder and runs its action.
+     */
+    private void nextTier(String cause) {
+        this.tierIndex++;
+        Tier tier = this.tiers.get(this.tierIndex);
+        this.recoveryTrace.enter(tier, cause);
+        System.out.printf("Fix PET stuck: trying %s (%d/%d), %s.%n", tier, this.tierIndex + 1, this.tiers.size(),
+                cause);
+        this.tierStart = this.clock.millis();
+        this.heartbeat.clear(); // Signs of life are counted from this tier on
+
+        switch (tier) {
+            case TOGGLE_PET:
+                this.petGearHelper.setEnabled(false);
+                this.restorePending = true;
+                break;
+            case REISSUE_GEAR:
+                if (this.lastGear == null || !this.petGearHelper.tryUse(this.lastGear)) {
+                    this.nextTier("no gear to re-issue");
+                }
+                break;
+            case REOPEN_WINDOW: {
+                Gui window = this.gameScreen.getGui(PET_WINDOW);
+                if (window == null) {
+                    this.nextTier("no PET window");
+                    break;
+                }
+                window.setVisible(false);
+                this.restorePending = true;
+                break;
+            }
+            default:
+                this.reload = true; // Last resort, once the reload is safe
         }
     }
 
+    /**
+     * Checks the outcome of the current tier, on each monitor run.
+     */
+    private void stepRecovery() {
+        Tier tier = this.tiers.get(this.tierIndex);
+        if (tier == Tier.RELOAD) {
+            if (this.isRecovered()) {
+                this.finishRecovery("recovered before reload");
+            }
+            return; // Waiting for a safe reload
+        }
+        if (this.restorePending) {
+            this.restore(tier);
+            return;
+        }
+        if (!this.heartbeatTriggered && !this.isInCombat() && !this.isCollecting()) {
+            this.finishRecovery("fight over");
+            return;
+        }
+
+        long elapsed = this.clock.millis() - this.tierStart;
+        if (this.isRecovered()) {
+            this.ladder.record(tier, true);
+            System.out.printf("Fix PET stuck: PET recovered by %s after %.1fs (%s).%n", tier, elapsed / 1e3,
+                    this.ladder.describe());
+            ActionTrace.record("FixPetStuck", "recovered", tier.toString(), this.clock.millis() - this.stuckSince);
+            this.finishRecovery("recovered");
+        } else if (elapsed >= this.config.ladder.tierSeconds * 1_000L) {
+            this.ladder.record(tier, false);
+            this.nextTier(tier + " failed");
+        }
+    }
+
+    // An active PET, that also showed signs of life when it looked frozen
+    private boolean isRecovered() {
+        return this.petGearHelper.isActive() && (!this.heartbeatTriggered || this.heartbeat.isAlive());
+    }
+
+    private void restore(Tier tier) {
+        this.restorePending = false;
+        if (tier == Tier.TOGGLE_PET) {
+            this.petGearHelper.setEnabled(true);
+        } else if (tier == Tier.REOPEN_WINDOW) {
+            Gui window = this.gameScreen.getGui(PET_WINDOW);
+            if (window != null) {
+                window.setVisible(true);
+            }
+        }
+    }
+
+    private void finishRecovery(String cause) {
+        if (this.restorePending) {
+            this.restore(this.tiers.get(this.tierIndex));
+        }
+        this.recoveryTrace.enter(null, cause);
+        this.reset();
+    }
+
     private boolean shouldSkipReload() {
         GameMap currentMap = this.starSystem.getCurrentMap();
         // Skip reload in GG maps with active NPCs
@@ -94,6 +287,11 @@ public class FixPetStuck implements Behavior, Configurable<FixPetStuckConfig> {
             return true;
         }
 
+        // Skip reload while taking damage, the ship would stay defenseless during reload
+        if (this.healthTrend.isTakingDamage()) {
+            return true;
+        }
+
         // Skip reload if currently attacking
         return this.attacker.hasTarget() && this.attacker.isAttacking();
     }
@@ -103,7 +301,7 @@ public class FixPetStuck implements Behavior, Configurable<FixPetStuckConfig> {
     }
 
     private boolean isInGracePeriod() {
-        return this.lastReloadAt > 0 && (System.currentTimeMillis() - this.lastReloadAt) < POST_RELOAD_GRACE_MS;
+        return this.refresh.isRecent(POST_RELOAD_GRACE_MS); // Any refresh, not only ours
     }
 
     private boolean isInCombat() {
@@ -119,15 +317,18 @@ public class FixPetStuck implements Behavior, Configurable<FixPetStuckConfig> {
             return;
         }
 
-        System.out.println("PET was stuck, reloading the game.");
-        this.bot.handleRefresh();
-        this.lastReloadAt = System.currentTimeMillis();
-        this.reset();
+        System.out.println("PET was stuck, requesting a game refresh.");
+        ActionTrace.record("FixPetStuck", "reload", "PET stuck", this.clock.millis() - this.stuckSince);
+        // The reload tier succeeded once the refresh actually runs
+        this.refresh.request("PET stuck", () -> this.ladder.record(Tier.RELOAD, true));
+        this.finishRecovery("reload requested");
     }
 
     private void reset() {
         this.stuckSince = -1L;
         this.reload = false;
+        this.tiers = null;
+        this.restorePending = false;
     }
 
 }
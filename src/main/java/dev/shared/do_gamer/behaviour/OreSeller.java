@@ -1,23 +1,42 @@
 package dev.shared.do_gamer.behaviour;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import dev.shared.do_gamer.config.OreSellerConfig;
+import dev.shared.do_gamer.config.OreSellerConfig.FallbackOptions;
 import dev.shared.do_gamer.config.OreSellerConfig.SellModeOptions;
 import dev.shared.do_gamer.config.OreSellerConfig.TradeMapOptions;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.do_gamer.utils.RadiusQuery;
+import dev.shared.do_gamer.utils.SellPacer;
 import dev.shared.utils.CaptchaBoxDetector;
+import dev.shared.utils.CargoManager;
+import dev.shared.utils.CargoManager.SellMode;
+import dev.shared.utils.Clock;
+import dev.shared.utils.ClockTimer;
 import dev.shared.utils.CustomSafetyFinder;
+import dev.shared.utils.IdleWindows;
+import dev.shared.utils.ItemCooldowns;
+import dev.shared.utils.MapGraph;
+import dev.shared.utils.OreStock;
+import dev.shared.utils.RefreshCoordinator;
 import dev.shared.utils.TemporalModuleDetector;
+import dev.shared.utils.TickScheduler;
+import dev.shared.utils.jfr.StateTrace;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
 import eu.darkbot.api.extensions.Configurable;
 import eu.darkbot.api.extensions.Feature;
+import eu.darkbot.api.game.entities.Npc;
 import eu.darkbot.api.game.entities.Portal;
 import eu.darkbot.api.game.entities.Station;
 import eu.darkbot.api.game.enums.PetGear;
@@ -27,6 +46,7 @@ import eu.darkbot.api.game.other.EntityInfo;
 import eu.darkbot.api.game.other.GameMap;
 import eu.darkbot.api.managers.AttackAPI;
 import eu.darkbot.api.managers.BotAPI;
+import eu.darkbot.api.managers.ConfigAPI;
 import eu.darkbot.api.managers.EntitiesAPI;
 import eu.darkbot.api.managers.HeroAPI;
 import eu.darkbot.api.managers.HeroItemsAPI;
@@ -36,7 +56,6 @@ import eu.darkbot.api.managers.StarSystemAPI;
 import eu.darkbot.api.managers.StatsAPI;
 import eu.darkbot.shared.modules.TemporalModule;
 import eu.darkbot.shared.utils.MapTraveler;
-import eu.darkbot.util.Timer;
 
 @Feature(name = "Ore Seller", description = "Sells ores at base, via PET trader gear, or using the HM7 trade drone when cargo is full")
 public class OreSeller extends TemporalModule implements Behavior, Configurable<OreSellerConfig> {
@@ -47,28 +66,52 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
     private final OreAPI oreApi;
     private final StatsAPI stats;
     private final StarSystemAPI starSystem;
+    private final ConfigAPI configApi;
     private final HeroItemsAPI items;
     private final AttackAPI attacker;
     private final CustomSafetyFinder safetyFinder;
     private final PetGearHelper petGearHelper;
+    private final ItemCooldowns cooldowns;
+    private final CargoManager cargoManager;
+    private final OreStock oreStock;
+    private final TickScheduler ticks;
+    private final Clock clock;
+    private final IdleWindows idleWindows;
+    private final TickScheduler.Slot triggerSlot;
     private final MapTraveler traveler;
+    private final RadiusQuery<Npc> npcQuery = new RadiusQuery<>(1);
+    private final SellPacer sellPacer;
+    private final StateTrace stateTrace = new StateTrace("OreSeller", "state");
+    private final StateTrace modeTrace = new StateTrace("OreSeller", "mode");
 
     private OreSellerConfig config;
     private ActiveMode activeMode = ActiveMode.NONE;
     private State state = State.IDLE;
     private State postSafetyState;
     private Station.Refinery targetRefinery;
-    private List<OreAPI.Ore> sellPlan = Collections.emptyList();
-    private int sellIndex;
-    private final EnumMap<TimerSlot, Timer> timers = new EnumMap<>(TimerSlot.class);
+    private int sellPlan; // Bitmask of the ores to sell (by ordinal)
+    private int sellIndex; // Ordinal of the next ore to check
+    private int configSellMask; // Sellable ores enabled in the config, palladium excluded
+    private final EnumMap<TimerSlot, ClockTimer> timers = new EnumMap<>(TimerSlot.class);
     private Boolean previousPetEnabled;
     private boolean setPetToPassive;
     private GameMap desiredBaseMap;
     private String desiredBaseMapName;
     private Boolean cachedTriggerResult; // Caches the result of selling trigger checks
+    private double runTrigger; // Trigger used to start the current run
+    private String planNote; // Why the current run was started
+    private long travelStart;
+    private long travelEstimateMs; // Smoothed duration of the trips to base, 0 until measured
+    private int runAckSamples; // Sell acks recorded before the current run
+    private boolean lastSellSkipped;
+    private String nearestFrom; // Current and working map of the cached nearest base
+    private String nearestBase;
+    private boolean droneActivated; // HM7 used in this run, waiting for the trade window
+    private final EnumSet<SellMode> failedModes = EnumSet.noneOf(SellMode.class);
+    private final long[] modeWait = new long[SellMode.values().length]; // Until the mode can start
+    private final long[] modeEta = new long[SellMode.values().length]; // Until the mode frees cargo
     private static final int BASE_DOCKING_DISTANCE = 300;
     private static final int MIN_PALLADIUM_STACK = 15;
-    private static final int SELL_INTERVAL_MS = 750;
     private static final double NPC_DISTANCE_THRESHOLD = 3000.0;
     private static final double MIN_TRIGGER_PERCENT = 0.05;
     private static final long MIN_ACTIVATION_DELAY_MS = 250L;
@@ -77,6 +120,18 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
     private static final long TRADE_WINDOW_POPULATE_DELAY_MS = 1_000L;
     private static final long CLOSE_TRADE_DELAY_MS = 1_000L;
     private static final long TRIGGER_STATE_CACHE_DELAY_MS = 2_000L; // Duration between re-evaluating selling trigger
+    private static final long TRIGGER_CADENCE_MS = 500L; // Scheduler cadence of the trigger check while idle
+    private static final double MAX_EARLY_TRIGGER = 0.2; // Max fill removed from the trigger for an early start
+    private static final double TRAVEL_ESTIMATE_ALPHA = 0.3;
+    private static final int UNKNOWN_JUMPS = 99;
+    private static final long DEFAULT_TRAVEL_ESTIMATE_MS = 60_000L; // Until a trip to base was measured
+    private static final long TRADE_ESTIMATE_MS = 5_000L; // Opening the trade window and selling
+    private static final String IDLE_WINDOW = "Ore selling";
+
+    private static final List<SellMode> DRONE_PET_BASE = Arrays.asList(SellMode.DRONE, SellMode.PET, SellMode.BASE);
+    private static final List<SellMode> PET_DRONE_BASE = Arrays.asList(SellMode.PET, SellMode.DRONE, SellMode.BASE);
+    private static final List<SellMode> DRONE_BASE = Arrays.asList(SellMode.DRONE, SellMode.BASE);
+    private static final List<SellMode> PET_BASE = Arrays.asList(SellMode.PET, SellMode.BASE);
 
     private enum ActiveMode {
         NONE,
@@ -108,6 +163,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
 
     public OreSeller(PluginAPI api) {
         super(api.requireAPI(BotAPI.class));
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "OreSeller");
         this.hero = api.requireAPI(HeroAPI.class);
         this.movement = api.requireAPI(MovementAPI.class);
         this.attacker = api.requireAPI(AttackAPI.class);
@@ -115,24 +171,40 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         this.oreApi = api.requireAPI(OreAPI.class);
         this.stats = api.requireAPI(StatsAPI.class);
         this.starSystem = api.requireAPI(StarSystemAPI.class);
+        this.configApi = api.requireAPI(ConfigAPI.class);
         this.items = api.requireAPI(HeroItemsAPI.class);
         this.traveler = api.requireInstance(MapTraveler.class);
+        this.cargoManager = api.requireInstance(CargoManager.class);
+        this.oreStock = api.requireInstance(OreStock.class);
+        this.ticks = api.requireInstance(TickScheduler.class);
+        this.clock = api.requireInstance(Clock.class);
+        this.idleWindows = api.requireInstance(IdleWindows.class);
+        this.sellPacer = new SellPacer(this.clock);
+        // Skipped while the cargo is unchanged, cost 2 for the ore and map reads
+        this.triggerSlot = this.ticks.register("Ore seller trigger", TRIGGER_CADENCE_MS, 2, this.stats::getCargo);
 
         this.safetyFinder = CustomSafetyFinder.create(api);
         this.petGearHelper = new PetGearHelper(api);
+        this.cooldowns = api.requireInstance(ItemCooldowns.class);
+        api.requireInstance(RefreshCoordinator.class).setBlocker("ore selling", () -> this.state != State.IDLE);
 
         for (TimerSlot slot : TimerSlot.values()) {
-            this.timers.put(slot, Timer.get());
+            this.timers.put(slot, this.clock.timer());
         }
     }
 
     @Override
     public void setConfig(ConfigSetting<OreSellerConfig> setting) {
         this.config = setting.getValue();
+        this.configSellMask = this.buildConfigSellMask();
     }
 
     @Override
     public void onTickBehavior() {
+        if (this.config != null && this.config.enabled) {
+            this.cargoManager.sample();
+        }
+
         if (!this.isReadyForBehavior()) {
             this.finish();
             return;
@@ -143,16 +215,38 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             return;
         }
 
+        this.ticks.run(this.triggerSlot, this::checkTrigger);
+    }
+
+    /**
+     * Checks the selling trigger and starts a run when it is reached.
+     */
+    private void checkTrigger() {
+        if (!this.shouldTriggerSelling()) {
+            return;
+        }
+
+        // Let refining free the cargo first when it is enough on its own
+        double trigger = this.effectiveTriggerThreshold();
+        if (this.cargoManager.decide(trigger) != CargoManager.Action.SELL) {
+            return;
+        }
+
         ActiveMode desiredMode = this.pickMode();
-        if (desiredMode == ActiveMode.NONE || !this.shouldTriggerSelling()) {
+        if (desiredMode == ActiveMode.NONE) {
             return;
         }
 
-        List<OreAPI.Ore> plan = this.buildSellPlan(desiredMode);
-        if (plan.isEmpty() || !this.hasOreStock(plan)) {
+        this.oreStock.refresh();
+        int plan = this.buildSellPlan(desiredMode);
+        if (!this.oreStock.hasAny(plan)) {
             return;
         }
 
+        this.runTrigger = trigger;
+        this.planNote = trigger < this.normalizeTriggerThreshold()
+                ? "early start, travel ~" + this.formatDuration(this.travelEstimateMs)
+                : null;
         this.startSequence(desiredMode, plan);
     }
 
@@ -164,7 +258,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
 
     @Override
     public void onTickModule() {
-        Timer failSafe = this.timer(TimerSlot.FAIL_SAFE);
+        ClockTimer failSafe = this.timer(TimerSlot.FAIL_SAFE);
         if (failSafe.isArmed()) {
             if (this.isFailSafeExemptState()) {
                 // Recheck selling trigger in exempt states
@@ -177,8 +271,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
                 long timeout = this.resolveFailSafeMillis(this.activeMode);
                 failSafe.activate(timeout);
             } else if (failSafe.isInactive()) {
-                System.out.println("Ore seller timed out");
-                this.finish();
+                this.switchMode("timed out");
                 return;
             }
         }
@@ -227,6 +320,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         if (extra != null && !extra.isEmpty()) {
             parts.add(extra);
         }
+        parts.add(this.describePlan());
 
         return "Ore Seller: " + String.join(" | ", parts);
     }
@@ -292,6 +386,10 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
                 }
                 return "PET ready";
             case DRONE:
+                String cooldown = this.cooldowns.describe(SelectableItem.Cpu.HMD_07);
+                if (!cooldown.isEmpty()) {
+                    return "cooldown " + cooldown;
+                }
                 return this.timer(TimerSlot.LOAD).isActive() ? "waiting on drone" : "drone ready";
             default:
                 break;
@@ -299,6 +397,24 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         return null;
     }
 
+    /**
+     * Describes the predicted time to full cargo and why the run was started.
+     */
+    private String describePlan() {
+        long eta = this.cargoManager.timeToFill(1.0);
+        String full = eta == 0L ? "cargo full"
+                : eta == Long.MAX_VALUE ? "not filling" : "full in " + this.formatDuration(eta);
+        return this.planNote == null ? full : full + ", " + this.planNote;
+    }
+
+    private String formatDuration(long ms) {
+        long seconds = (ms + 999) / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        return (seconds / 60) + "m " + (seconds % 60) + "s";
+    }
+
     private String humanizeEnum(Enum<?> value) {
         if (value == null) {
             return "";
@@ -322,7 +438,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
 
         // Keep inactive in GG maps when in base mode or any NPCs are nearby
-        if (this.isGGMap() && (SellModeOptions.BASE.equals(this.config.mode) || this.hasNearbyNpc())) {
+        if (this.isGGMap() && (this.isBaseOnly() || this.hasNearbyNpc())) {
             return false;
         }
 
@@ -332,7 +448,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
 
         // Keep inactive if jumping through portal (not applicable in base mode)
-        if (!SellModeOptions.BASE.equals(this.config.mode)
+        if (!this.isBaseOnly()
                 && this.entities.getPortals().stream().anyMatch(Portal::isJumping)) {
             return false;
         }
@@ -345,7 +461,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      * Checks whether the cooldown timer is active before starting a new run.
      */
     private boolean isCooldownActive() {
-        Timer cooldown = this.timer(TimerSlot.COOL_DOWN);
+        ClockTimer cooldown = this.timer(TimerSlot.COOL_DOWN);
         return cooldown.isArmed() && cooldown.isActive();
     }
 
@@ -365,20 +481,57 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             return false; // Safety check
         }
 
-        return this.entities.getNpcs().stream().anyMatch(npc -> this.hero.distanceTo(npc) <= NPC_DISTANCE_THRESHOLD);
+        return !this.npcQuery.run(this.entities.getNpcs(), this.hero.getX(), this.hero.getY(), NPC_DISTANCE_THRESHOLD)
+                .isEmpty();
     }
 
     /**
-     * Selects the appropriate selling mode based on config and availability.
+     * Selects the mode of the chain that frees cargo soonest. A mode that is
+     * still cooling down can win, the run then waits until it is ready.
      */
     private ActiveMode pickMode() {
-        String mode = this.config.mode;
+        this.estimateModes();
+        SellMode mode = this.cargoManager.soonest(this.modeChain(), this.modeEta);
+        if (mode == null || this.modeWait[mode.ordinal()] > 0L) {
+            return ActiveMode.NONE; // Nothing available, or waiting for the fastest one
+        }
+        return this.toActiveMode(mode);
+    }
 
-        switch (mode) {
+    /**
+     * Modes to consider, in priority order.
+     */
+    private List<SellMode> modeChain() {
+        String fallback = this.config.fallback != null ? this.config.fallback : FallbackOptions.NONE;
+        switch (fallback) {
+            case FallbackOptions.DRONE_PET_BASE:
+                return DRONE_PET_BASE;
+            case FallbackOptions.PET_DRONE_BASE:
+                return PET_DRONE_BASE;
+            case FallbackOptions.DRONE_BASE:
+                return DRONE_BASE;
+            case FallbackOptions.PET_BASE:
+                return PET_BASE;
+            default:
+                SellMode configured = this.toSellMode(this.configuredMode());
+                return configured == null ? Collections.emptyList() : Collections.singletonList(configured);
+        }
+    }
+
+    /**
+     * Checks if base selling is the only mode that can be used.
+     */
+    private boolean isBaseOnly() {
+        List<SellMode> chain = this.modeChain();
+        return chain.size() == 1 && chain.get(0) == SellMode.BASE;
+    }
+
+    private ActiveMode configuredMode() {
+        switch (this.config.mode) {
             case SellModeOptions.PET:
-                return this.canUsePetTrader() ? ActiveMode.PET : ActiveMode.NONE;
+                return ActiveMode.PET;
             case SellModeOptions.DRONE:
-                return this.canUseTradeDrone() ? ActiveMode.DRONE : ActiveMode.NONE;
+                return ActiveMode.DRONE;
             case SellModeOptions.BASE:
                 return ActiveMode.BASE;
             default:
@@ -386,6 +539,123 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
     }
 
+    /**
+     * Estimates for each mode the wait until it can start and the time until it
+     * frees cargo, skipping the modes that failed in this run.
+     */
+    private void estimateModes() {
+        Arrays.fill(this.modeWait, Long.MAX_VALUE);
+        Arrays.fill(this.modeEta, Long.MAX_VALUE);
+
+        for (SellMode mode : this.modeChain()) {
+            if (this.failedModes.contains(mode)) {
+                continue;
+            }
+            long wait;
+            long duration;
+            switch (mode) {
+                case PET:
+                    wait = this.canUsePetTrader() ? 0L : Long.MAX_VALUE;
+                    duration = this.config.pet.activationDelayMs + TRADE_ESTIMATE_MS;
+                    break;
+                case DRONE:
+                    wait = this.tradeDroneWait();
+                    duration = this.config.drone.activationDelayMs + TRADE_ESTIMATE_MS;
+                    break;
+                case BASE:
+                default:
+                    wait = this.isGGMap() ? Long.MAX_VALUE : 0L; // No base trips out of GG maps
+                    duration = this.baseTravelEstimate() + TRADE_ESTIMATE_MS;
+                    break;
+            }
+            this.modeWait[mode.ordinal()] = wait;
+            this.modeEta[mode.ordinal()] = wait == Long.MAX_VALUE ? Long.MAX_VALUE : wait + duration;
+        }
+    }
+
+    /**
+     * Milliseconds until the HM7 trade drone can be used, from its item timer.
+     */
+    private long tradeDroneWait() {
+        if (this.canUseTradeDrone()) {
+            return 0L;
+        }
+        if (this.cooldowns.isMissing(SelectableItem.Cpu.HMD_07)) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = this.cooldowns.remainingMs(SelectableItem.Cpu.HMD_07);
+        return remaining > 0L ? remaining : Long.MAX_VALUE; // Ready but not usable (none left)
+    }
+
+    private long baseTravelEstimate() {
+        if (this.isOnConfiguredBaseMap()) {
+            return 0L;
+        }
+        return this.travelEstimateMs > 0L ? this.travelEstimateMs : DEFAULT_TRAVEL_ESTIMATE_MS;
+    }
+
+    /**
+     * Switches a failed run to the next usable mode of the chain, or finishes.
+     */
+    private void switchMode(String reason) {
+        SellMode failed = this.toSellMode(this.activeMode);
+        if (failed != null) {
+            this.failedModes.add(failed);
+        }
+
+        this.estimateModes();
+        SellMode next = this.cargoManager.soonest(this.modeChain(), this.modeEta);
+        if (next == null || this.modeWait[next.ordinal()] > 0L) {
+            System.out.println("Ore seller " + reason);
+            this.finish();
+            return;
+        }
+
+        ActiveMode nextMode = this.toActiveMode(next);
+        this.oreStock.refresh();
+        int plan = this.buildSellPlan(nextMode);
+        if (!this.oreStock.hasAny(plan)) {
+            this.finish();
+            return;
+        }
+
+        System.out.printf("Ore seller %s, switching to %s%n", reason, nextMode);
+        this.oreApi.showTrade(false, null);
+        if (this.previousPetEnabled != null) {
+            this.restorePetSettings();
+        }
+        this.beginRun(nextMode, plan, reason);
+    }
+
+    private SellMode toSellMode(ActiveMode mode) {
+        switch (mode) {
+            case PET:
+                return SellMode.PET;
+            case DRONE:
+                return SellMode.DRONE;
+            case BASE:
+                return SellMode.BASE;
+            default:
+                return null;
+        }
+    }
+
+    private ActiveMode toActiveMode(SellMode mode) {
+        if (mode == null) {
+            return ActiveMode.NONE;
+        }
+        switch (mode) {
+            case PET:
+                return ActiveMode.PET;
+            case DRONE:
+                return ActiveMode.DRONE;
+            case BASE:
+                return ActiveMode.BASE;
+            default:
+                return ActiveMode.NONE;
+        }
+    }
+
     /**
      * Confirms the PET trader gear is equipped and ready for use.
      */
@@ -397,6 +667,9 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      * Confirms the HM7 trade drone item is ready for use.
      */
     private boolean canUseTradeDrone() {
+        if (!this.cooldowns.isReady(SelectableItem.Cpu.HMD_07)) {
+            return false; // Cooling down, skip item lookup
+        }
         return this.items.getItem(SelectableItem.Cpu.HMD_07,
                 ItemFlag.AVAILABLE, ItemFlag.READY, ItemFlag.USABLE)
                 .filter(item -> item.getQuantity() > 0).isPresent();
@@ -405,19 +678,32 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
     /**
      * Initializes transient state to begin a selling run.
      */
-    private void startSequence(ActiveMode mode, List<OreAPI.Ore> plan) {
+    private void startSequence(ActiveMode mode, int plan) {
         if (TemporalModuleDetector.using(this.bot).isTemporal()) {
             this.finish();
             return; // Avoid conflicts with other temporal modules
         }
 
-        this.activeMode = mode;
-        this.sellPlan = plan == null ? Collections.emptyList() : plan;
+        this.runAckSamples = this.sellPacer.getSamples();
+        this.configSellMask = this.buildConfigSellMask(); // Picks up config edits made in place for the next run
+        this.beginRun(mode, plan, this.planNote != null ? this.planNote : "cargo trigger");
+    }
+
+    /**
+     * Resets the per-mode state and starts (or switches) the run.
+     */
+    private void beginRun(ActiveMode mode, int plan, String cause) {
+        this.setActiveMode(mode, cause);
+        this.sellPlan = plan;
         this.sellIndex = 0;
         this.targetRefinery = null;
         this.desiredBaseMap = null;
         this.desiredBaseMapName = null;
         this.postSafetyState = null;
+        this.travelStart = 0L;
+        this.sellPacer.clear();
+        this.lastSellSkipped = false;
+        this.droneActivated = false;
         long failSafe = this.resolveFailSafeMillis(mode);
         this.timer(TimerSlot.FAIL_SAFE).activate(failSafe);
         this.timer(TimerSlot.SELL_DELAY).disarm();
@@ -481,9 +767,9 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      */
     private void prepareBaseModeState() {
         if (this.isOnBaseMap()) {
-            this.state = State.MOVE_TO_REFINERY;
+            this.setState(State.MOVE_TO_REFINERY, "on base map");
         } else {
-            this.state = State.TRAVEL_TO_BASE;
+            this.setState(State.TRAVEL_TO_BASE, "off base map");
         }
     }
 
@@ -492,38 +778,61 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      */
     private void prepareNonBaseSellingState(State nextState) {
         if (this.isGGMap()) {
-            this.state = nextState;
+            this.setState(nextState, "GG map, no safety needed");
             this.movement.stop(false);
             return; // No need for safety finder in GG maps
         }
         this.safetyFinder.setRefreshing(true);
         this.postSafetyState = nextState;
-        this.state = State.SAFE_POSITIONING;
+        this.setState(State.SAFE_POSITIONING, "run started");
     }
 
     /**
      * Handles traveling to the configured base map.
      */
     private void handleTravelToBase() {
-        this.desiredBaseMap = this.resolveDesiredBaseMap();
+        if (this.desiredBaseMap == null) {
+            // Resolved once per run, the nearest base must not change while traveling
+            this.desiredBaseMap = this.resolveDesiredBaseMap();
+        }
         if (this.desiredBaseMap == null) {
             return;
         }
         this.traveler.setTarget(this.desiredBaseMap);
 
         if (this.isOnBaseMap()) {
+            this.recordTravelTime();
             if (this.wait(this.timer(TimerSlot.LOAD), TRAVEL_LOAD_DELAY_MS)) {
                 return;
             }
-            this.state = State.MOVE_TO_REFINERY;
+            this.setState(State.MOVE_TO_REFINERY, "base map loaded");
             return;
         }
 
         this.timer(TimerSlot.LOAD).disarm();
 
+        if (this.travelStart == 0L) {
+            this.travelStart = this.clock.millis();
+        }
         this.traveler.tick();
     }
 
+    /**
+     * Updates the smoothed trip duration once the base map is reached.
+     */
+    private void recordTravelTime() {
+        if (this.travelStart == 0L) {
+            return; // Already on the base map, nothing traveled
+        }
+        long duration = this.clock.millis() - this.travelStart;
+        this.travelStart = 0L;
+        if (this.travelEstimateMs == 0L) {
+            this.travelEstimateMs = duration;
+        } else {
+            this.travelEstimateMs += (long) (TRAVEL_ESTIMATE_ALPHA * (duration - this.travelEstimateMs));
+        }
+    }
+
     /**
      * Moves the hero to the refinery station on the current map.
      */
@@ -545,7 +854,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         if (this.wait(this.timer(TimerSlot.LOAD), DOCKING_LOAD_DELAY_MS)) {
             return;
         }
-        this.state = State.OPEN_TRADE;
+        this.setState(State.OPEN_TRADE, "docked");
     }
 
     /**
@@ -562,7 +871,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
 
         this.movement.stop(false);
-        this.state = this.postSafetyState;
+        this.setState(this.postSafetyState, "safety reached");
         this.postSafetyState = null;
     }
 
@@ -580,10 +889,52 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
     }
 
+    /**
+     * Moves the state machine, each state is traced as a JFR event.
+     */
+    private void setState(State next, String cause) {
+        if (next != this.state) {
+            this.stateTrace.enter(next, cause);
+            this.state = next;
+            this.announceIdleWindow();
+        }
+    }
+
+    /**
+     * Announces base runs as an idle window, the PET has nothing to do until
+     * the ores are sold.
+     */
+    private void announceIdleWindow() {
+        if (this.activeMode != ActiveMode.BASE) {
+            this.idleWindows.close(IDLE_WINDOW);
+            return;
+        }
+        switch (this.state) {
+            case TRAVEL_TO_BASE:
+                this.idleWindows.open(IDLE_WINDOW, this.baseTravelEstimate() + TRADE_ESTIMATE_MS);
+                break;
+            case MOVE_TO_REFINERY:
+            case OPEN_TRADE:
+            case SELLING:
+                this.idleWindows.open(IDLE_WINDOW, TRADE_ESTIMATE_MS);
+                break;
+            default:
+                this.idleWindows.close(IDLE_WINDOW);
+                break;
+        }
+    }
+
+    private void setActiveMode(ActiveMode next, String cause) {
+        if (next != this.activeMode) {
+            this.modeTrace.enter(next, cause);
+            this.activeMode = next;
+        }
+    }
+
     /**
      * Convenience accessor for slot-based timers.
      */
-    private Timer timer(TimerSlot slot) {
+    private ClockTimer timer(TimerSlot slot) {
         return this.timers.get(slot);
     }
 
@@ -591,7 +942,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      * Simple helper that arms a timer and reports whether the caller should keep
      * waiting.
      */
-    private boolean wait(Timer timer, long durationMs) {
+    private boolean wait(ClockTimer timer, long durationMs) {
         if (timer == null) {
             return false;
         }
@@ -660,29 +1011,73 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             this.movement.stop(false);
         }
 
-        if (this.sellIndex >= this.sellPlan.size()) {
-            if (this.wait(this.timer(TimerSlot.CLOSE_TRADE), CLOSE_TRADE_DELAY_MS)) {
+        if (this.timer(TimerSlot.SELL_DELAY).isActive()) {
+            return;
+        }
+
+        if (this.sellPacer.isPending()) {
+            this.checkPendingSell();
+            return;
+        }
+
+        OreAPI.Ore ore = OreStock.first(this.sellPlan, this.sellIndex);
+        if (ore == null) {
+            // Every sell was acknowledged, only wait when the last one was skipped
+            if (this.lastSellSkipped && this.wait(this.timer(TimerSlot.CLOSE_TRADE), CLOSE_TRADE_DELAY_MS)) {
                 return;
             }
-            this.state = State.CLOSE_TRADE;
+            this.setState(State.CLOSE_TRADE, this.lastSellSkipped ? "last sell skipped" : "plan sold");
             return;
         }
 
         this.timer(TimerSlot.CLOSE_TRADE).disarm();
 
-        if (this.timer(TimerSlot.SELL_DELAY).isActive()) {
+        this.oreStock.refresh();
+        int amount = this.oreStock.amount(ore);
+        if (!this.hasSellableAmount(ore, amount)) {
+            this.sellIndex = ore.ordinal() + 1; // Move to next ore
             return;
         }
 
-        OreAPI.Ore ore = this.sellPlan.get(this.sellIndex);
-        int amount = this.oreApi.getAmount(ore);
-        if (amount == 0 || (ore == OreAPI.Ore.PALLADIUM && amount < MIN_PALLADIUM_STACK)) {
-            this.sellIndex++; // Move to next ore
+        this.oreApi.sellOre(ore);
+        this.sellPacer.sent(ore, amount);
+    }
+
+    /**
+     * Waits for the pending sell to be acknowledged by a drop of its amount,
+     * retrying or skipping it when stuck.
+     */
+    private void checkPendingSell() {
+        OreAPI.Ore ore = (OreAPI.Ore) this.sellPacer.getPending();
+        this.oreStock.refresh();
+        int amount = this.oreStock.amount(ore);
+
+        if (this.sellPacer.acknowledge(amount)) {
+            this.lastSellSkipped = false;
+            if (!this.hasSellableAmount(ore, amount)) {
+                this.sellIndex = ore.ordinal() + 1;
+            }
+            this.timer(TimerSlot.SELL_DELAY).activate(this.sellPacer.gap());
             return;
         }
 
-        this.oreApi.sellOre(ore);
-        this.timer(TimerSlot.SELL_DELAY).activate(SELL_INTERVAL_MS);
+        if (!this.sellPacer.isStuck()) {
+            return;
+        }
+
+        if (this.sellPacer.retry()) {
+            this.oreApi.sellOre(ore);
+            this.sellPacer.sent(ore, amount);
+            return;
+        }
+
+        System.out.printf("Ore seller: no acknowledgement for %s, skipping%n", ore);
+        this.lastSellSkipped = true;
+        this.sellIndex = ore.ordinal() + 1;
+    }
+
+    private boolean hasSellableAmount(OreAPI.Ore ore, int amount) {
+        return amount > 0 && (ore != OreAPI.Ore.PALLADIUM || amount >= MIN_PALLADIUM_STACK);
     }
 
     /**
@@ -701,15 +1096,16 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      */
     private void handleCannotSellOres() {
         if (this.activeMode == ActiveMode.BASE) {
-            this.state = State.OPEN_TRADE;
+            this.setState(State.OPEN_TRADE, "trade window lost");
         } else if (this.activeMode == ActiveMode.PET) {
-            this.state = State.PET_PREPARING;
+            this.setState(State.PET_PREPARING, "trade window lost");
         } else if (this.activeMode == ActiveMode.DRONE) {
-            this.state = State.DRONE_PREPARING;
+            this.setState(State.DRONE_PREPARING, "trade window lost");
         } else {
             this.finish();
         }
         this.timer(TimerSlot.CLOSE_TRADE).disarm();
+        this.sellPacer.clear(); // Window lost, the pending sell is re-evaluated on reopen
     }
 
     /**
@@ -717,7 +1113,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      */
     private void handlePetPreparing() {
         if (!this.canUsePetTrader()) {
-            this.finish();
+            this.switchMode("PET trader not available");
             return;
         }
 
@@ -730,7 +1126,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         }
 
         long delay = Math.max(MIN_ACTIVATION_DELAY_MS, this.config.pet.activationDelayMs);
-        Timer loadTimer = this.timer(TimerSlot.LOAD);
+        ClockTimer loadTimer = this.timer(TimerSlot.LOAD);
         if (loadTimer.isActive()) {
             return;
         }
@@ -760,27 +1156,33 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             return; // Wait for PET to switch to trader gear
         }
 
-        System.out.println("Failed to equip PET trader gear for ore selling");
-        this.finish();
+        this.switchMode("failed to equip PET trader gear");
     }
 
     /**
      * Prepares the HM7 trade drone for selling by activating it.
      */
     private void handleDronePreparing() {
-        if (!this.canUseTradeDrone()) {
-            this.finish();
+        if (this.oreApi.canSellOres()) {
+            this.beginSellingAfterTradeWindow();
             return;
         }
 
-        if (this.oreApi.canSellOres()) {
-            this.beginSellingAfterTradeWindow();
+        if (this.droneActivated) {
+            return; // Drone used, waiting for the trade window (covered by the fail-safe)
+        }
+
+        if (!this.canUseTradeDrone()) {
+            this.switchMode("HM7 trade drone not available");
             return;
         }
 
         long delay = Math.max(MIN_ACTIVATION_DELAY_MS, this.config.drone.activationDelayMs);
-        this.items.useItem(SelectableItem.Cpu.HMD_07, delay,
-                ItemFlag.AVAILABLE, ItemFlag.READY, ItemFlag.USABLE, ItemFlag.NOT_SELECTED);
+        if (this.items.useItem(SelectableItem.Cpu.HMD_07, delay,
+                ItemFlag.AVAILABLE, ItemFlag.READY, ItemFlag.USABLE, ItemFlag.NOT_SELECTED).isSuccessful()) {
+            this.cooldowns.markUsed(SelectableItem.Cpu.HMD_07);
+            this.droneActivated = true;
+        }
     }
 
     /**
@@ -789,7 +1191,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
      */
     private void beginSellingAfterTradeWindow() {
         this.timer(TimerSlot.SELL_DELAY).activate(TRADE_WINDOW_POPULATE_DELAY_MS);
-        this.state = State.SELLING;
+        this.setState(State.SELLING, "trade window open");
     }
 
     /**
@@ -800,7 +1202,7 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
     }
 
     private boolean shouldTriggerSelling(boolean forceRefresh) {
-        Timer triggerTimer = this.timer(TimerSlot.TRIGGER_STATE_CACHE);
+        ClockTimer triggerTimer = this.timer(TimerSlot.TRIGGER_STATE_CACHE);
 
         if (forceRefresh) {
             this.cachedTriggerResult = null;
@@ -812,8 +1214,9 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             return this.cachedTriggerResult;
         }
 
-        // Recalculate trigger state
-        boolean result = (this.getCargoPercent() >= this.normalizeTriggerThreshold());
+        // Recalculate trigger state, a running sequence keeps the trigger it started with
+        double threshold = this.activeMode == ActiveMode.NONE ? this.effectiveTriggerThreshold() : this.runTrigger;
+        boolean result = (this.getCargoPercent() >= threshold);
 
         this.cachedTriggerResult = result;
         triggerTimer.activate(TRIGGER_STATE_CACHE_DELAY_MS);
@@ -840,57 +1243,68 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
     }
 
     /**
-     * Builds a list of ores to sell based on config and mode specific rules.
+     * Lowers the trigger in base mode so that the trip to base overlaps with the
+     * remaining fill, based on the fill rate and the measured trip duration.
      */
-    private List<OreAPI.Ore> buildSellPlan(ActiveMode mode) {
-        List<OreAPI.Ore> plan = new ArrayList<>();
-        if (this.config.ores == null) {
-            return plan;
-        }
+    private double effectiveTriggerThreshold() {
+        double threshold = this.normalizeTriggerThreshold();
+        if (!this.isBaseOnly() || this.travelEstimateMs <= 0L
+                || this.isOnConfiguredBaseMap()) {
+            return threshold;
+        }
+        double lead = Math.min(MAX_EARLY_TRIGGER, this.cargoManager.fillGainedIn(this.travelEstimateMs));
+        return Math.max(MIN_TRIGGER_PERCENT, threshold - lead);
+    }
 
-        for (OreAPI.Ore ore : OreAPI.Ore.values()) {
-            if (!ore.isSellable()) {
-                continue;
-            }
-            if (this.shouldSellOre(ore, mode)) {
-                plan.add(ore);
-            }
+    /**
+     * Checks if the hero is already on the configured base map, no travel needed.
+     */
+    private boolean isOnConfiguredBaseMap() {
+        String selected = this.config.base != null && this.config.base.map != null ? this.config.base.map
+                : TradeMapOptions.X1;
+        String mapName = this.mapNameForSelection(selected);
+        return mapName != null && mapName.equals(this.hero.getMap().getName());
+    }
+
+    /**
+     * Builds the bitmask of ores to sell, palladium depends on the mode and the
+     * stock so it is added here.
+     */
+    private int buildSellPlan(ActiveMode mode) {
+        int plan = this.configSellMask;
+        if (this.shouldSellPalladium(mode)) {
+            plan |= OreStock.bit(OreAPI.Ore.PALLADIUM);
         }
         return plan;
     }
 
     /**
-     * Determines if a specific ore should be sold based on config and mode.
+     * Precomputes the sellable ores enabled in the config.
      */
-    private boolean shouldSellOre(OreAPI.Ore ore, ActiveMode mode) {
-        if (this.config.ores == null || ore == null) {
-            return false;
-        }
-        switch (ore) {
-            case PROMETIUM:
-                return this.config.ores.prometium;
-            case ENDURIUM:
-                return this.config.ores.endurium;
-            case TERBIUM:
-                return this.config.ores.terbium;
-            case PROMETID:
-                return this.config.ores.prometid;
-            case DURANIUM:
-                return this.config.ores.duranium;
-            case PROMERIUM:
-                return this.config.ores.promerium;
-            case PALLADIUM:
-                return this.shouldSellPalladium(mode);
-            default:
-                return false;
-        }
+    private int buildConfigSellMask() {
+        OreSellerConfig.OresConfig ores = this.config != null ? this.config.ores : null;
+        if (ores == null) {
+            return 0;
+        }
+        int mask = 0;
+        mask |= this.sellBit(ores.prometium, OreAPI.Ore.PROMETIUM);
+        mask |= this.sellBit(ores.endurium, OreAPI.Ore.ENDURIUM);
+        mask |= this.sellBit(ores.terbium, OreAPI.Ore.TERBIUM);
+        mask |= this.sellBit(ores.prometid, OreAPI.Ore.PROMETID);
+        mask |= this.sellBit(ores.duranium, OreAPI.Ore.DURANIUM);
+        mask |= this.sellBit(ores.promerium, OreAPI.Ore.PROMERIUM);
+        return mask;
+    }
+
+    private int sellBit(boolean enabled, OreAPI.Ore ore) {
+        return enabled && ore.isSellable() ? OreStock.bit(ore) : 0;
     }
 
     /**
      * Special handling for Palladium selling rules.
      */
     private boolean shouldSellPalladium(ActiveMode mode) {
-        if (!this.config.ores.palladium) {
+        if (this.config.ores == null || !this.config.ores.palladium) {
             return false;
         }
 
@@ -898,12 +1312,24 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             return false;
         }
 
+        if (this.isConfiguredBaseNearest()) {
+            return this.hasPalladiumStack(); // Nearest base switches to 5-2 for palladium
+        }
+
         if (!this.isConfiguredBaseFiveTwo()) {
             return false;
         }
 
-        int amount = this.oreApi.getAmount(OreAPI.Ore.PALLADIUM);
-        return amount >= MIN_PALLADIUM_STACK;
+        return this.hasPalladiumStack();
+    }
+
+    private boolean hasPalladiumStack() {
+        this.oreStock.refresh();
+        return this.oreStock.amount(OreAPI.Ore.PALLADIUM) >= MIN_PALLADIUM_STACK;
+    }
+
+    private boolean isConfiguredBaseNearest() {
+        return this.config.base != null && TradeMapOptions.NEAREST.equals(this.config.base.map);
     }
 
     /**
@@ -917,24 +1343,12 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         return TradeMapOptions.FIVE_TWO.equalsIgnoreCase(map);
     }
 
-    /**
-     * Checks if there is any ore stock to sell in the provided plan.
-     */
-    private boolean hasOreStock(List<OreAPI.Ore> plan) {
-        for (OreAPI.Ore ore : plan) {
-            int amount = this.oreApi.getAmount(ore);
-            if (amount > 0) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Cleans up transient state and resets the module to idle.
      */
     private void finish() {
         this.oreApi.showTrade(false, null);
+        this.failedModes.clear();
 
         if (this.activeMode == ActiveMode.NONE && this.state == State.IDLE) {
             return; // Already finished
@@ -944,6 +1358,12 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
             this.restorePetSettings();
         }
 
+        if (this.sellPacer.getSamples() > this.runAckSamples) {
+            System.out.println("Ore seller ack latency: " + this.sellPacer.describe());
+            this.runAckSamples = this.sellPacer.getSamples();
+        }
+        this.sellPacer.clear();
+
         this.timer(TimerSlot.FAIL_SAFE).disarm();
         this.timer(TimerSlot.SELL_DELAY).disarm();
         this.timer(TimerSlot.LOAD).disarm();
@@ -954,17 +1374,20 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
         if (this.safetyFinder != null) {
             this.safetyFinder.setRefreshing(false);
         }
-        this.activeMode = ActiveMode.NONE;
-        this.state = State.IDLE;
+        this.setActiveMode(ActiveMode.NONE, "finished");
+        this.setState(State.IDLE, "finished");
         this.targetRefinery = null;
-        this.sellPlan = Collections.emptyList();
+        this.sellPlan = 0;
         this.sellIndex = 0;
         this.desiredBaseMap = null;
         this.desiredBaseMapName = null;
         this.setPetToPassive = false;
+        this.planNote = null;
+        this.travelStart = 0L;
+        this.droneActivated = false;
 
         long cooldown = Math.max(0, this.config.cooldownSeconds) * 1000L;
-        Timer cooldownTimer = this.timer(TimerSlot.COOL_DOWN);
+        ClockTimer cooldownTimer = this.timer(TimerSlot.COOL_DOWN);
         if (cooldown > 0) {
             cooldownTimer.activate(cooldown);
         } else {
@@ -1014,12 +1437,67 @@ public class OreSeller extends TemporalModule implements Behavior, Configurable<
                 return this.getFactionPrefix() + "-8";
             case TradeMapOptions.FIVE_TWO:
                 return "5-2";
+            case TradeMapOptions.NEAREST:
+                return this.nearestBaseMapName();
             case TradeMapOptions.X1:
             default:
                 return this.getFactionPrefix() + "-1";
         }
     }
 
+    /**
+     * Picks the base with the fewest jumps from the current map plus the return
+     * leg to the working map. Only the own faction bases are considered, and 5-2
+     * when palladium has to be sold there.
+     */
+    private String nearestBaseMapName() {
+        if (this.config.ores != null && this.config.ores.palladium && this.hasPalladiumStack()) {
+            return "5-2";
+        }
+
+        String current = this.starSystem.getCurrentMap().getShortName();
+        String working = this.workingMapName();
+        String from = current + ">" + working;
+        if (from.equals(this.nearestFrom)) {
+            return this.nearestBase;
+        }
+
+        Map<String, Integer> fromCurrent = MapGraph.distancesFrom(current);
+        Map<String, Integer> fromWorking = MapGraph.distancesFrom(working);
+        String prefix = this.getFactionPrefix();
+        String best = null;
+        int bestJumps = Integer.MAX_VALUE;
+        for (String candidate : new String[] { prefix + "-1", prefix + "-8" }) {
+            int jumps = this.jumps(fromCurrent, candidate) + this.jumps(fromWorking, candidate);
+            if (jumps < bestJumps) {
+                bestJumps = jumps;
+                best = candidate;
+            }
+        }
+
+        this.nearestFrom = from;
+        this.nearestBase = best;
+        return best;
+    }
+
+    /**
+     * Jumps to the target map, 0 for every target when the start is off the graph
+     * (so that leg does not affect the choice).
+     */
+    private int jumps(Map<String, Integer> distances, String target) {
+        if (distances.isEmpty()) {
+            return 0;
+        }
+        Integer jumps = distances.get(target);
+        return jumps == null ? UNKNOWN_JUMPS : jumps;
+    }
+
+    private String workingMapName() {
+        int mapId = this.configApi.getConfigValue("general.working_map");
+        GameMap map = this.starSystem.getOrCreateMap(mapId);
+        return map != null ? map.getShortName() : null;
+    }
+
     /**
      * Resolves the proper x- map prefix based on the hero faction.
      */
@@ -1,8 +1,15 @@
 package dev.shared.do_gamer.behaviour;
 
+import java.util.Locale;
+
 import dev.shared.do_gamer.config.RepairPetConfig;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.utils.Clock;
+import dev.shared.utils.ClockTimer;
+import dev.shared.utils.IdleWindows;
 import dev.shared.utils.TemporalModuleDetector;
+import dev.shared.utils.TickScheduler;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
@@ -11,26 +18,51 @@ import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.game.enums.PetGear;
 import eu.darkbot.api.managers.AttackAPI;
 import eu.darkbot.api.managers.BotAPI;
-import eu.darkbot.util.Timer;
 
 @Feature(name = "Repair PET", description = "Repairs your PET when its health drops below a certain threshold.")
 public class RepairPet implements Behavior, Configurable<RepairPetConfig> {
     private final BotAPI bot;
     private final AttackAPI attacker;
     private final PetGearHelper petGearHelper;
+    private final TickScheduler ticks;
+    private final TickScheduler.Slot monitorSlot;
+    private final Clock clock;
+    private final IdleWindows idleWindows;
 
     private RepairPetConfig config;
     private boolean repairing = false;
-    private final Timer delay = Timer.get();
+    private final ClockTimer delay;
     private static final long DELAY_MS = 3_000L;
     private static final double MIN_PERCENT = 0.05;
     private static final double MAX_PERCENT = 0.95;
     private static final double COMPLETION_THRESHOLD = 0.99;
+    private static final long MONITOR_CADENCE_MS = 500L;
+
+    // Idle window scheduling
+    private static final String KILL_GAP = "NPC kill gap";
+    private static final double CRITICAL_FACTOR = 0.5; // Below this part of the trigger, repair without a window
+    private static final double DEFAULT_HEAL_RATE = 0.05; // HP part per second until a repair was measured
+    private static final double HEAL_RATE_ALPHA = 0.3;
+    private static final long GEAR_SWITCH_MS = 1_000L;
+    private boolean fighting;
+    private long neededSince; // When the HP went below the trigger, 0 if not
+    private String window; // Idle window the repair runs in, null if none
+    private long repairStart;
+    private long healStart; // First tick with the repair gear on
+    private long lastInWindow;
+    private double healStartHp;
+    private double healRate = DEFAULT_HEAL_RATE;
 
     public RepairPet(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "RepairPet");
         this.bot = api.requireAPI(BotAPI.class);
         this.attacker = api.requireAPI(AttackAPI.class);
         this.petGearHelper = new PetGearHelper(api);
+        this.clock = api.requireInstance(Clock.class);
+        this.delay = this.clock.timer();
+        this.idleWindows = api.requireInstance(IdleWindows.class);
+        this.ticks = api.requireInstance(TickScheduler.class);
+        this.monitorSlot = this.ticks.register("Repair PET", MONITOR_CADENCE_MS, 1, null);
     }
 
     @Override
@@ -44,24 +76,52 @@ public class RepairPet implements Behavior, Configurable<RepairPetConfig> {
             return;
         }
 
+        this.trackKillGaps();
+
         if (this.repairing) {
             this.repair();
             return;
         }
 
-        this.monitorPetHealth();
+        // Health drops are not urgent, checked at the monitor cadence
+        this.ticks.run(this.monitorSlot, this::monitorPetHealth);
     }
 
     /**
      * Monitors the PET's health and initiates repair if below threshold.
      */
     private void monitorPetHealth() {
-        if (!this.canRepair()) {
+        if (!this.isActive() || !this.petGearHelper.canUse(PetGear.REPAIR)) {
+            return;
+        }
+
+        boolean calm = this.canRepair(); // Keeps the delay armed during fights
+        double hp = this.petGearHelper.getHealth().hpPercent();
+        double trigger = this.normalizeTriggerThreshold();
+        if (hp >= trigger) {
+            this.neededSince = 0L;
+        } else if (this.neededSince == 0L) {
+            this.neededSince = this.clock.millis();
+        }
+
+        if (!this.config.idleWindows.enabled) {
+            if (calm && hp < trigger) {
+                this.startRepair(null, hp);
+            }
+            return;
+        }
+
+        // Fit the repair in an idle window, topping up above the trigger too
+        String fitting = this.fittingWindow(hp);
+        if (fitting != null && hp < Math.max(trigger, this.config.idleWindows.hp)) {
+            this.startRepair(fitting, hp);
             return;
         }
 
-        if (this.petGearHelper.getHealth().hpPercent() < this.normalizeTriggerThreshold()) {
-            this.repairing = true;
+        // No window came in time, repair at the next calm moment
+        if (calm && hp < trigger && (hp < trigger * CRITICAL_FACTOR
+                || this.clock.millis() - this.neededSince >= this.config.idleWindows.maxWaitSeconds * 1_000L)) {
+            this.startRepair(null, hp);
         }
     }
 
@@ -95,23 +155,120 @@ public class RepairPet implements Behavior, Configurable<RepairPetConfig> {
         return true;
     }
 
+    /**
+     * Checks if the repair can go on in its window, an announced window vouches
+     * for the temporal module that opened it.
+     */
+    private boolean canRepairIn(String source) {
+        if (!this.isActive() || !this.petGearHelper.canUse(PetGear.REPAIR) || this.isAttacking()) {
+            return false;
+        }
+        return this.idleWindows.isOpen(source) || !TemporalModuleDetector.using(this.bot).isTemporal();
+    }
+
+    /**
+     * Finds an open idle window long enough to repair the PET from the given
+     * HP, null if none.
+     */
+    private String fittingWindow(double hp) {
+        String source = this.idleWindows.longestOpen();
+        if (source == null || !this.canRepairIn(source)) {
+            return null;
+        }
+        return this.idleWindows.remainingMs(source) >= this.estimateRepairMs(hp) ? source : null;
+    }
+
+    /**
+     * Expected repair time for the HP deficit, at the measured heal rate.
+     */
+    private long estimateRepairMs(double hp) {
+        double deficit = Math.max(0.0, COMPLETION_THRESHOLD - hp);
+        return GEAR_SWITCH_MS + (long) (deficit / this.healRate * 1_000L);
+    }
+
+    /**
+     * Opens a window when a fight ends and closes it when the next one starts,
+     * so the gaps between kills are learned.
+     */
+    private void trackKillGaps() {
+        if (TemporalModuleDetector.using(this.bot).isTemporal()) {
+            this.idleWindows.cancel(KILL_GAP); // Not a gap between kills
+            this.fighting = false;
+            return;
+        }
+
+        boolean attacking = this.isAttacking();
+        if (attacking == this.fighting) {
+            return;
+        }
+        this.fighting = attacking;
+        if (attacking) {
+            this.idleWindows.close(KILL_GAP);
+        } else {
+            this.idleWindows.open(KILL_GAP, this.idleWindows.estimate(KILL_GAP, 0L));
+        }
+    }
+
     private double normalizeTriggerThreshold() {
         double value = this.config.hp;
         return Math.max(MIN_PERCENT, Math.min(MAX_PERCENT, value));
     }
 
+    private void startRepair(String source, double hp) {
+        this.repairing = true;
+        this.window = source;
+        this.repairStart = this.clock.millis();
+        this.lastInWindow = this.repairStart;
+        this.healStart = 0L;
+        this.healStartHp = hp;
+    }
+
     private void repair() {
-        if (!this.canRepair()) {
+        if (this.window != null ? !this.canRepairIn(this.window) : !this.canRepair()) {
             return;
         }
 
+        if (this.window != null && this.idleWindows.isOpen(this.window)) {
+            this.lastInWindow = this.clock.millis();
+        }
+
         if (!this.petGearHelper.tryUse(PetGear.REPAIR)) {
-            this.repairing = false;
+            this.finishRepair(false);
             return;
         }
 
-        if (this.petGearHelper.getHealth().hpPercent() >= COMPLETION_THRESHOLD) {
-            this.repairing = false; // Repair complete
+        double hp = this.petGearHelper.getHealth().hpPercent();
+        if (this.healStart == 0L && this.petGearHelper.isUsing(PetGear.REPAIR)) {
+            this.healStart = this.clock.millis();
+            this.healStartHp = hp;
+        }
+        if (hp >= COMPLETION_THRESHOLD) {
+            this.finishRepair(true); // Repair complete
+        }
+    }
+
+    /**
+     * Learns the heal rate and records the idle time the repair reused.
+     */
+    private void finishRepair(boolean complete) {
+        this.repairing = false;
+        this.neededSince = 0L;
+        long now = this.clock.millis();
+        if (complete && this.healStart > 0L && now > this.healStart) {
+            double healed = this.petGearHelper.getHealth().hpPercent() - this.healStartHp;
+            double rate = healed / ((now - this.healStart) / 1e3);
+            if (rate > 0.0) {
+                this.healRate += HEAL_RATE_ALPHA * (rate - this.healRate);
+            }
+        }
+
+        if (this.window == null) {
+            return;
         }
+        long reused = this.lastInWindow - this.repairStart;
+        this.idleWindows.recordUse(this.window, reused);
+        System.out.printf(Locale.ROOT, "Repair PET: %.1fs in %s window, %.1fs reused (%s)%n",
+                (now - this.repairStart) / 1e3, this.window, reused / 1e3, this.idleWindows.describe(this.window));
+        this.window = null;
     }
 }
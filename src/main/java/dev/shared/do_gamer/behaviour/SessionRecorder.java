@@ -0,0 +1,241 @@
+package dev.shared.do_gamer.behaviour;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import dev.shared.do_gamer.config.SessionRecorderConfig;
+import dev.shared.utils.Clock;
+import dev.shared.utils.profile.ApiProfiler;
+import dev.shared.utils.session.SessionWriter;
+import dev.shared.utils.session.TickFrame;
+import eu.darkbot.api.PluginAPI;
+import eu.darkbot.api.config.ConfigSetting;
+import eu.darkbot.api.extensions.Behavior;
+import eu.darkbot.api.extensions.Configurable;
+import eu.darkbot.api.extensions.Feature;
+import eu.darkbot.api.game.entities.Box;
+import eu.darkbot.api.game.entities.Npc;
+import eu.darkbot.api.game.entities.Player;
+import eu.darkbot.api.game.entities.Portal;
+import eu.darkbot.api.game.entities.Ship;
+import eu.darkbot.api.game.enums.EntityEffect;
+import eu.darkbot.api.game.enums.PetGear;
+import eu.darkbot.api.game.other.GameMap;
+import eu.darkbot.api.game.other.Health;
+import eu.darkbot.api.game.other.Lockable;
+import eu.darkbot.api.managers.AttackAPI;
+import eu.darkbot.api.managers.EntitiesAPI;
+import eu.darkbot.api.managers.HeroAPI;
+import eu.darkbot.api.managers.PetAPI;
+import eu.darkbot.api.managers.StarSystemAPI;
+
+@Feature(name = "Session Recorder", description = "Records hero and entity state of every tick to a ring file, for reproducing issues.")
+public class SessionRecorder implements Behavior, Configurable<SessionRecorderConfig> {
+
+    private static final Path FILE = Paths.get("logs", "shared_session.rec");
+    private static final int BLOCK_SIZE = 256 * 1024;
+    private static final EntityEffect[] EFFECTS = EntityEffect.values();
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+
+    private final HeroAPI hero;
+    private final AttackAPI attacker;
+    private final EntitiesAPI entities;
+    private final PetAPI pet;
+    private final StarSystemAPI starSystem;
+    private final Clock clock;
+    private final TickFrame frame = new TickFrame();
+
+    private SessionRecorderConfig config;
+    private SessionWriter writer;
+    // The file stays mapped until the JVM exits and cannot be resized before,
+    // so the size of the first mapping is kept for the session
+    private int mappedSizeMb = 0;
+    private int noticedSizeMb = 0;
+    private int failedSizeMb = -1; // Size of the last failed open, not retried until the config changes
+
+    // Recording cost since the last report
+    private long ticks;
+    private long totalNanos;
+    private long maxNanos;
+    private int maxEntities;
+    private long reportedBytes;
+    private long lastReport;
+
+    public SessionRecorder(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "SessionRecorder");
+        this.hero = api.requireAPI(HeroAPI.class);
+        this.attacker = api.requireAPI(AttackAPI.class);
+        this.entities = api.requireAPI(EntitiesAPI.class);
+        this.pet = api.requireAPI(PetAPI.class);
+        this.starSystem = api.requireAPI(StarSystemAPI.class);
+        this.clock = api.requireInstance(Clock.class);
+        this.lastReport = this.clock.millis();
+    }
+
+    @Override
+    public void setConfig(ConfigSetting<SessionRecorderConfig> config) {
+        this.config = config.getValue();
+        this.failedSizeMb = -1;
+    }
+
+    @Override
+    public void onTickBehavior() {
+        if (this.config == null || !this.config.enabled) {
+            this.closeWriter();
+            this.failedSizeMb = -1; // Enabling again retries
+            return;
+        }
+        if (!this.openWriter()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        this.fillFrame();
+        this.writer.write(this.frame);
+        this.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Opens the ring file, a new size applies on the next start.
+     */
+    private boolean openWriter() {
+        if (this.mappedSizeMb > 0 && this.config.sizeMb != this.mappedSizeMb
+                && this.config.sizeMb != this.noticedSizeMb) {
+            this.noticedSizeMb = this.config.sizeMb;
+            System.out.println("Session recorder: size of " + this.config.sizeMb
+                    + " MB applies on the next start, recording " + this.mappedSizeMb + " MB until then");
+        }
+        if (this.writer != null) {
+            return true;
+        }
+        if (this.config.sizeMb == this.failedSizeMb) {
+            return false;
+        }
+
+        int sizeMb = this.mappedSizeMb > 0 ? this.mappedSizeMb : this.config.sizeMb;
+        try {
+            this.writer = new SessionWriter(FILE, sizeMb * 1024 * 1024, BLOCK_SIZE);
+            this.mappedSizeMb = sizeMb;
+            this.reportedBytes = 0;
+            System.out.println("Session recorder: recording to " + FILE.toAbsolutePath());
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Session recorder: unable to open " + FILE + ": " + e.getMessage());
+            this.failedSizeMb = this.config.sizeMb; // Do not retry on every tick
+            return false;
+        }
+    }
+
+    private void closeWriter() {
+        if (this.writer == null) {
+            return;
+        }
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            System.out.println("Session recorder: unable to close " + FILE + ": " + e.getMessage());
+        }
+        this.writer = null;
+    }
+
+    private void fillFrame() {
+        TickFrame f = this.frame;
+        f.clear();
+        f.time = this.clock.millis();
+
+        GameMap map = this.starSystem.getCurrentMap();
+        f.mapId = map != null ? map.getId() : -1;
+        f.heroX = (int) this.hero.getX();
+        f.heroY = (int) this.hero.getY();
+
+        Health health = this.hero.getHealth();
+        if (health != null) {
+            f.hp = health.getHp();
+            f.maxHp = health.getMaxHp();
+            f.shield = health.getShield();
+            f.maxShield = health.getMaxShield();
+        }
+
+        Lockable target = this.attacker.getTarget();
+        f.targetId = target != null ? target.getId() : 0;
+
+        long effects = 0L;
+        for (EntityEffect effect : EFFECTS) {
+            if (effect.ordinal() < Long.SIZE && this.hero.hasEffect(effect)) {
+                effects |= 1L << effect.ordinal();
+            }
+        }
+        f.effects = effects;
+        this.fillPet(f);
+
+        for (Npc npc : this.entities.getNpcs()) {
+            f.npcs.add(npc.getId(), (int) npc.getX(), (int) npc.getY(), this.relation(npc, f.targetId));
+        }
+        for (Player player : this.entities.getPlayers()) {
+            int flags = this.relation(player, f.targetId);
+            if (player.getEntityInfo().isEnemy()) {
+                flags |= TickFrame.ENEMY;
+            }
+            f.players.add(player.getId(), (int) player.getX(), (int) player.getY(), flags);
+        }
+        for (Box box : this.entities.getBoxes()) {
+            f.boxes.add(box.getId(), (int) box.getX(), (int) box.getY(), 0);
+        }
+        for (Portal portal : this.entities.getPortals()) {
+            f.portals.add(portal.getId(), (int) portal.getX(), (int) portal.getY(), 0);
+        }
+    }
+
+    private void fillPet(TickFrame f) {
+        if (this.pet.isEnabled()) {
+            f.petFlags |= TickFrame.PET_ENABLED;
+        }
+        if (!this.pet.isActive()) {
+            return;
+        }
+        f.petFlags |= TickFrame.PET_ACTIVE;
+        f.petX = (int) this.pet.getX();
+        f.petY = (int) this.pet.getY();
+        Health health = this.pet.getHealth();
+        if (health != null) {
+            f.petHp = health.getHp() + health.getShield();
+        }
+        PetGear gear = this.pet.getGear();
+        f.petGear = gear != null ? gear.ordinal() + 1 : 0;
+    }
+
+    private int relation(Ship ship, int targetId) {
+        int flags = 0;
+        if (ship.isAttacking(ApiProfiler.unwrap(this.hero))) { // Compared by identity
+            flags |= TickFrame.ATTACKING_HERO;
+        }
+        if (ship.getId() == targetId) {
+            flags |= TickFrame.HERO_TARGET;
+        }
+        return flags;
+    }
+
+    private void record(long nanos) {
+        this.ticks++;
+        this.totalNanos += nanos;
+        this.maxNanos = Math.max(this.maxNanos, nanos);
+        this.maxEntities = Math.max(this.maxEntities, this.frame.entityCount());
+
+        long now = this.clock.millis();
+        if (now - this.lastReport < REPORT_INTERVAL_MS) {
+            return;
+        }
+        long bytes = this.writer.getBytes() - this.reportedBytes;
+        System.out.printf("Session recorder: %d ticks, avg %.1fus, max %.1fus, %.1f bytes/tick, up to %d entities%n",
+                this.ticks, this.totalNanos / 1e3 / this.ticks, this.maxNanos / 1e3, (double) bytes / this.ticks,
+                this.maxEntities);
+
+        this.reportedBytes = this.writer.getBytes();
+        this.ticks = 0;
+        this.totalNanos = 0;
+        this.maxNanos = 0;
+        this.maxEntities = 0;
+        this.lastReport = now;
+    }
+}
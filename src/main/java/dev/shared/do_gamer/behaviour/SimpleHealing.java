@@ -1,11 +1,16 @@
 package dev.shared.do_gamer.behaviour;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import dev.shared.do_gamer.config.SimpleHealingConfig;
+import dev.shared.do_gamer.utils.HealthTrend;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog.Profile;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog.Role;
+import dev.shared.utils.Clock;
+import dev.shared.utils.ClockTimer;
+import dev.shared.utils.ItemCooldowns;
 import dev.shared.utils.TemporalModuleDetector;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
@@ -14,13 +19,12 @@ import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.game.enums.EntityEffect;
 import eu.darkbot.api.game.enums.PetGear;
 import eu.darkbot.api.game.items.ItemFlag;
-import eu.darkbot.api.game.items.SelectableItem.Ability;
+import eu.darkbot.api.game.items.SelectableItem;
 import eu.darkbot.api.game.other.Health;
 import eu.darkbot.api.managers.AttackAPI;
 import eu.darkbot.api.managers.BotAPI;
 import eu.darkbot.api.managers.HeroAPI;
 import eu.darkbot.api.managers.HeroItemsAPI;
-import eu.darkbot.util.Timer;
 
 @Feature(name = "Simple Healing", description = "Activate the ship's healing ability and use the PET healing gear.")
 public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig> {
@@ -29,33 +33,33 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
     private final HeroItemsAPI items;
     private final AttackAPI attack;
     private final PetGearHelper petGearHelper;
+    private final ItemCooldowns cooldowns;
+    private final HealthTrend healthTrend;
     private SimpleHealingConfig config;
-    private final Set<ShipAbility> supportedShips = new HashSet<>();
-    private ShipAbility currentShip = null; // Current ship being used
+    private final ShipAbilityCatalog.Resolver shipResolver = new ShipAbilityCatalog.Resolver();
+    private Profile currentShip = null; // Current ship being used
     private static final long PET_COMBO_COOLDOWN_MS = 15_000L;
     private static final int ABILITY_USE_RETRY_DELAY_MS = 250;
     private static final double MAX_REPAIR_TARGET_DISTANCE = 750.0;
-    private final Timer petComboCooldown = Timer.get(PET_COMBO_COOLDOWN_MS);
+    private final ClockTimer petComboCooldown;
 
     public SimpleHealing(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "SimpleHealing");
         this.bot = api.requireAPI(BotAPI.class);
         this.hero = api.requireAPI(HeroAPI.class);
         this.items = api.requireAPI(HeroItemsAPI.class);
         this.attack = api.requireAPI(AttackAPI.class);
         this.petGearHelper = new PetGearHelper(api);
-
-        // Define supported ships and their abilities
-        this.supportedShips.add(new ShipAbility("solace", Ability.SOLACE));
-        this.supportedShips.add(new ShipAbility("solace-plus", Ability.SOLACE_PLUS_NANO_CLUSTER_REPAIRER_PLUS));
-        this.supportedShips.add(new ShipAbility("orcus", Ability.ORCUS_ASSIMILATE));
-        Set.of("aegis", "a-elite", "a-veteran", "hammerclaw", "hammerclaw-plus")
-                .forEach(name -> this.supportedShips.add(new ShipAbility(name,
-                        Ability.AEGIS_HP_REPAIR, Ability.AEGIS_SHIELD_REPAIR, Ability.AEGIS_REPAIR_POD)));
+        this.cooldowns = api.requireInstance(ItemCooldowns.class);
+        Clock clock = api.requireInstance(Clock.class);
+        this.healthTrend = api.requireInstance(HealthTrend.class);
+        this.petComboCooldown = clock.timer(PET_COMBO_COOLDOWN_MS);
     }
 
     @Override
     public void onTickBehavior() {
         Health health = this.hero.getHealth();
+        this.healthTrend.sample();
         handleShipAbilities(health);
         handlePetGear(health);
     }
@@ -65,17 +69,17 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
             return;
         // Try to use HP ability
         if (this.config.hp.enabled && this.checkHp(health)) {
-            this.useAbility(this.currentShip.hp);
+            this.useAbility(this.currentShip.get(Role.HP));
         }
         // Try to use shield ability if available
-        if (this.config.shield.enabled && this.currentShip.shield != null
+        if (this.config.shield.enabled && this.currentShip.has(Role.SHIELD)
                 && this.checkShield(health)) {
-            this.useAbility(this.currentShip.shield);
+            this.useAbility(this.currentShip.get(Role.SHIELD));
         }
         // Try to use HP pod if available
-        if (this.config.hpPod.enabled && this.currentShip.hpPod != null
+        if (this.config.hpPod.enabled && this.currentShip.has(Role.HP_POD)
                 && this.checkHpPod(health)) {
-            this.useAbility(this.currentShip.hpPod);
+            this.useAbility(this.currentShip.get(Role.HP_POD));
         }
     }
 
@@ -94,12 +98,9 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
     // Check if any ship ability is enabled and valid for the current ship
     private boolean isEnabledShipAbility() {
         if (this.config.hp.enabled || this.config.shield.enabled || this.config.hpPod.enabled) {
-            if (this.valid(this.currentShip)) {
-                return true;
-            }
-
-            this.currentShip = this.supportedShips.stream().filter(this::valid).findFirst().orElse(null);
-            return this.valid(this.currentShip);
+            // Cached until the ship type changes
+            this.currentShip = this.shipResolver.resolve(this.hero.getShipType());
+            return this.currentShip != null && this.currentShip.has(Role.HP);
         }
         return false;
     }
@@ -109,19 +110,15 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
         return this.config.petCombo.enabled && this.petGearHelper.isActive();
     }
 
-    // Validate if the ship matches the current ship type
-    private boolean valid(ShipAbility ship) {
-        if (ship == null) {
-            return false;
-        }
-        String shipType = this.hero.getShipType();
-        return (shipType.equals("ship_" + ship.name) || shipType.startsWith("ship_" + ship.name + "_design"));
-    }
-
     // Use the specified ability if available
-    private void useAbility(Ability ability) {
-        this.items.useItem(ability, ABILITY_USE_RETRY_DELAY_MS,
-                ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE, ItemFlag.NOT_SELECTED);
+    private void useAbility(SelectableItem ability) {
+        if (!this.cooldowns.isReady(ability)) {
+            return; // Cooling down, skip until the exact ready time
+        }
+        if (this.items.useItem(ability, ABILITY_USE_RETRY_DELAY_MS,
+                ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE, ItemFlag.NOT_SELECTED).isSuccessful()) {
+            this.cooldowns.markUsed(ability);
+        }
     }
 
     // Use the PET Combo Repair gear if available
@@ -137,24 +134,40 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
         }
     }
 
-    // Check HP health
+    // Check HP health, predicted at the ability activation latency
     private boolean checkHp(Health health) {
-        return (health.hpPercent() <= this.config.hp.min && !this.isRepair());
+        return (this.predictHp(health, this.config.hp.leadMs) <= this.config.hp.min && !this.isRepair());
     }
 
-    // Check shield health
+    // Check shield health, predicted at the ability activation latency
     private boolean checkShield(Health health) {
-        return (health.shieldPercent() <= this.config.shield.min && !this.isRepair());
+        return (this.predictShield(health, this.config.shield.leadMs) <= this.config.shield.min
+                && !this.isRepair());
     }
 
-    // Check HP pod health
+    // Check HP pod health, predicted at the ability activation latency
     private boolean checkHpPod(Health health) {
-        return (health.hpPercent() <= this.config.hpPod.min && !this.isRepair());
+        return (this.predictHp(health, this.config.hpPod.leadMs) <= this.config.hpPod.min && !this.isRepair());
+    }
+
+    private double predictHp(Health health, int leadMs) {
+        if (leadMs <= 0) {
+            return health.hpPercent(); // Prediction disabled
+        }
+        return this.healthTrend.predictHp(leadMs);
+    }
+
+    private double predictShield(Health health, int leadMs) {
+        if (leadMs <= 0) {
+            return health.shieldPercent(); // Prediction disabled
+        }
+        return this.healthTrend.predictShield(leadMs);
     }
 
     // Check PET combo health
     private boolean checkPetCombo(Health health) {
-        return (health.hpPercent() <= this.config.petCombo.min && this.isRepair() && !this.hasTarget());
+        return (this.predictHp(health, this.config.petCombo.leadMs) <= this.config.petCombo.min && this.isRepair()
+                && !this.hasTarget());
     }
 
     // Check if repair bot is active
@@ -168,25 +181,6 @@ public class SimpleHealing implements Behavior, Configurable<SimpleHealingConfig
                 && this.hero.distanceTo(this.attack.getTarget()) <= MAX_REPAIR_TARGET_DISTANCE);
     }
 
-    // Helper class to associate ship names with their abilities
-    private static class ShipAbility {
-        public final String name;
-        public final Ability hp;
-        public final Ability shield;
-        public final Ability hpPod;
-
-        public ShipAbility(String name, Ability hp, Ability shield, Ability hpPod) {
-            this.name = name;
-            this.hp = hp;
-            this.shield = shield;
-            this.hpPod = hpPod;
-        }
-
-        public ShipAbility(String name, Ability hp) {
-            this(name, hp, null, null);
-        }
-    }
-
     @Override
     public void setConfig(ConfigSetting<SimpleHealingConfig> config) {
         this.config = config.getValue();
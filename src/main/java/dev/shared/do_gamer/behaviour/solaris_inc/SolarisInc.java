@@ -1,14 +1,20 @@
 package dev.shared.do_gamer.behaviour.solaris_inc;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
 
 import com.github.manolo8.darkbot.config.NpcExtraFlag;
 import com.github.manolo8.darkbot.core.itf.NpcExtraProvider;
 
 import dev.shared.do_gamer.config.SolarisIncConfig;
 import dev.shared.do_gamer.utils.PetGearHelper;
+import dev.shared.do_gamer.utils.RadiusQuery;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog.Profile;
+import dev.shared.do_gamer.utils.ShipAbilityCatalog.Role;
+import dev.shared.utils.Clock;
+import dev.shared.utils.ItemCooldowns;
+import dev.shared.utils.TickScheduler;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
@@ -34,14 +40,21 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
     private final HeroItemsAPI items;
     private final MovementAPI movement;
     private final PetGearHelper petGearHelper;
+    private final ItemCooldowns cooldowns;
+    private final Clock clock;
+    private final RadiusQuery<Npc> npcQuery = new RadiusQuery<>(1);
+    private final Predicate<Npc> npcFilter = this::isConsideredNpc;
     private SolarisIncConfig config;
     private long lastUseTime = 0; // Last use time of the ability
     private long lastStickyTime = 0; // Last time sticky was active
-    private final Set<ShipAbility> supportedShips = new HashSet<>();
-    private ShipAbility currentShip = null; // Current ship being used
-    private static final int MIN_ABILITY_COOLDOWN_SECONDS = 30;
+    private final ShipAbilityCatalog.Resolver shipResolver = new ShipAbilityCatalog.Resolver();
+    private final TickScheduler ticks;
+    private final TickScheduler.Slot shipSlot;
+    private Profile currentShip = null; // Ship with an area ability, from the last ship check
+    private static final long SHIP_CHECK_CADENCE_MS = 1_000L;
 
     public SolarisInc(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "SolarisInc");
         this.attack = api.requireAPI(AttackAPI.class);
         this.bot = api.requireAPI(BotAPI.class);
         this.hero = api.requireAPI(HeroAPI.class);
@@ -49,11 +62,10 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
         this.items = api.requireAPI(HeroItemsAPI.class);
         this.movement = api.requireAPI(MovementAPI.class);
         this.petGearHelper = new PetGearHelper(api);
-
-        // Define supported ships and their ability
-        this.supportedShips.add(new ShipAbility("solaris", 10, CustomAbility.SOLARIS_INC));
-        this.supportedShips.add(new ShipAbility("solaris-plus", 10, CustomAbility.SOLARIS_PLUS_INCINERATE_PLUS));
-        this.supportedShips.add(new ShipAbility("paladin", 3, CustomAbility.PALADIN_RIPPER));
+        this.cooldowns = api.requireInstance(ItemCooldowns.class);
+        this.clock = api.requireInstance(Clock.class);
+        this.ticks = api.requireInstance(TickScheduler.class);
+        this.shipSlot = this.ticks.register("Solaris ship check", SHIP_CHECK_CADENCE_MS, 1, null);
     }
 
     @Override
@@ -67,15 +79,22 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
             return;
         }
 
-        ShipAbility ship = this.getCurrentShip();
-        if (ship != null) {
+        // The ship only changes on hangar switches, re-checked when its type changes
+        this.ticks.run(this.shipSlot, this::checkShip);
+        if (this.currentShip != null) {
             this.activateInc();
         }
     }
 
+    private void checkShip() {
+        Profile ship = this.shipResolver.resolve(this.hero.getShipType());
+        this.currentShip = ship != null && ship.has(Role.AREA) ? ship : null;
+    }
+
     private void activateInc() {
-        long currentTime = System.currentTimeMillis();
-        long npcNumb = this.getNpcs().count();
+        long currentTime = this.clock.millis();
+        RadiusQuery<Npc> npcs = this.queryNpcs();
+        int npcNumb = npcs.count();
 
         // Activate the Solaris ability if enough NPCs are nearby
         if (npcNumb >= this.config.npc.minNumb && !this.isCooldown() && this.useAbility()) {
@@ -93,9 +112,8 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
                 Npc npc = (Npc) this.attack.getTarget();
                 this.moveToNpc(npc);
             } else {
-                // If no target, find the closest NPC and move to it
-                this.getNpcs().min((n1, n2) -> Double.compare(this.hero.distanceTo(n1), this.hero.distanceTo(n2)))
-                        .ifPresent(this::moveToNpc);
+                // If no target, move to the closest NPC
+                this.moveToNpc(npcs.nearest());
             }
         }
 
@@ -105,34 +123,26 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
         }
     }
 
-    // Get the current ship
-    private ShipAbility getCurrentShip() {
-        if (!this.valid(this.currentShip)) {
-            this.currentShip = this.supportedShips.stream().filter(this::valid).findFirst().orElse(null);
-        }
+    // Get the current ship, as of the last ship check
+    private Profile getCurrentShip() {
         return this.currentShip;
     }
 
-    // Validate if the ship matches the current ship type
-    private boolean valid(ShipAbility ship) {
-        if (ship == null) {
-            return false;
-        }
-        String shipType = this.hero.getShipType();
-        return (shipType.equals("ship_" + ship.name) || shipType.startsWith("ship_" + ship.name + "_design"));
-    }
-
     // Use ability if available
     private boolean useAbility() {
-        ShipAbility ship = this.getCurrentShip();
+        Profile ship = this.getCurrentShip();
         if (ship == null) {
             return false;
         }
         double wait = (double) this.config.other.minWait;
-        CustomAbility ability = ship.ability;
-        return this.items
+        SelectableItem ability = ship.get(Role.AREA);
+        boolean used = this.items
                 .useItem(ability, wait, ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE, ItemFlag.NOT_SELECTED)
                 .isSuccessful();
+        if (used) {
+            this.cooldowns.markUsed(ability);
+        }
+        return used;
     }
 
     // Try to use Pet Kamikaze if available
@@ -145,24 +155,21 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
                 ItemFlag.NOT_SELECTED);
     }
 
-    private Stream<Npc> getNpcs() {
-        double heroX = this.hero.getX();
-        double heroY = this.hero.getY();
+    // Count nearby NPCs and find the closest one in a single pass
+    private RadiusQuery<Npc> queryNpcs() {
+        Predicate<Npc> filter = this.config.npc.extraFlagOnly ? this.npcFilter : null;
+        return this.npcQuery.run(this.entities.getNpcs(), this.hero.getX(), this.hero.getY(),
+                this.config.npc.maxDistance, filter);
+    }
 
-        return this.entities.getNpcs().stream()
-                .map(Npc.class::cast)
-                .filter(npc -> {
-                    if (npc.distanceTo(heroX, heroY) <= this.config.npc.maxDistance) {
-                        if (this.config.npc.extraFlagOnly) {
-                            return npc.getInfo().hasExtraFlag(ExtraNpcFlagsEnum.SOLARIS_ABILITY);
-                        }
-                        return true;
-                    }
-                    return false;
-                });
+    private boolean isConsideredNpc(Npc npc) {
+        return npc.getInfo().hasExtraFlag(ExtraNpcFlagsEnum.SOLARIS_ABILITY);
     }
 
     private void moveToNpc(Npc npc) {
+        if (npc == null) {
+            return;
+        }
         // Stick to the NPC by moving towards its position
         this.movement.moveTo(npc.getX(), npc.getY());
     }
@@ -174,18 +181,19 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
 
     private boolean isActive() {
         // The active time of ability
-        ShipAbility ship = this.getCurrentShip();
+        Profile ship = this.getCurrentShip();
         return ship != null && this.cooldown(ship.duration);
     }
 
     private boolean isCooldown() {
-        // At least 30 second cooldown with boosters
-        return this.cooldown(MIN_ABILITY_COOLDOWN_SECONDS);
+        // Read from the item timer, skips item work until the ability is ready
+        Profile ship = this.getCurrentShip();
+        return ship == null || !this.cooldowns.isReady(ship.get(Role.AREA));
     }
 
     private boolean cooldown(int seconds) {
         long time = seconds * 1000L;
-        return (System.currentTimeMillis() - this.lastUseTime) <= time;
+        return (this.clock.millis() - this.lastUseTime) <= time;
     }
 
     private boolean enoughHp() {
@@ -193,19 +201,6 @@ public class SolarisInc implements Behavior, Configurable<SolarisIncConfig>, Npc
         return this.hero.getHealth().hpPercent() >= this.config.stick.minHp;
     }
 
-    // Helper class to associate ship names with their ability
-    private static class ShipAbility {
-        public final String name;
-        public final int duration;
-        public final CustomAbility ability;
-
-        public ShipAbility(String name, int duration, CustomAbility ability) {
-            this.name = name;
-            this.duration = duration;
-            this.ability = ability;
-        }
-    }
-
     @Override
     public NpcExtraFlag[] values() {
         return ExtraNpcFlagsEnum.values();
@@ -11,4 +11,25 @@ public class FixPetStuckConfig {
     @Option("do_gamer.fix_pet_stuck.stuck_seconds")
     @Number(min = 10, max = 300, step = 10)
     public int stuckSeconds = 60;
-}
\ No newline at end of file
+
+    @Option("do_gamer.fix_pet_stuck.ladder")
+    public LadderConfig ladder = new LadderConfig();
+
+    public static class LadderConfig {
+        @Option("do_gamer.fix_pet_stuck.ladder.toggle_pet")
+        public boolean togglePet = true;
+
+        @Option("do_gamer.fix_pet_stuck.ladder.reissue_gear")
+        public boolean reissueGear = true;
+
+        @Option("do_gamer.fix_pet_stuck.ladder.reopen_window")
+        public boolean reopenWindow = true;
+
+        @Option("do_gamer.fix_pet_stuck.ladder.tier_seconds")
+        @Number(min = 3, max = 60, step = 1)
+        public int tierSeconds = 8;
+
+        @Option("do_gamer.fix_pet_stuck.ladder.adaptive")
+        public boolean adaptive = true;
+    }
+}
@@ -16,6 +16,10 @@ public class OreSellerConfig {
     @Dropdown(options = SellModeOptions.class)
     public String mode = SellModeOptions.BASE;
 
+    @Option("do_gamer.ore_seller.fallback")
+    @Dropdown(options = FallbackOptions.class)
+    public String fallback = FallbackOptions.NONE;
+
     @Option("do_gamer.ore_seller.trigger")
     @Percentage
     public double triggerPercent = 0.9;
@@ -47,14 +51,28 @@ public class OreSellerConfig {
         }
     }
 
+    public static class FallbackOptions implements Dropdown.Options<String> {
+        public static final String NONE = "Selling method only";
+        public static final String DRONE_PET_BASE = "Drone -> PET -> Base";
+        public static final String PET_DRONE_BASE = "PET -> Drone -> Base";
+        public static final String DRONE_BASE = "Drone -> Base";
+        public static final String PET_BASE = "PET -> Base";
+
+        @Override
+        public List<String> options() {
+            return Arrays.asList(NONE, DRONE_PET_BASE, PET_DRONE_BASE, DRONE_BASE, PET_BASE);
+        }
+    }
+
     public static class TradeMapOptions implements Dropdown.Options<String> {
         public static final String X1 = "X-1";
         public static final String X8 = "X-8";
         public static final String FIVE_TWO = "5-2";
+        public static final String NEAREST = "Nearest";
 
         @Override
         public List<String> options() {
-            return Arrays.asList(X1, X8, FIVE_TWO);
+            return Arrays.asList(X1, X8, FIVE_TWO, NEAREST);
         }
     }
 
@@ -1,5 +1,6 @@
 package dev.shared.do_gamer.config;
 
+import eu.darkbot.api.config.annotations.Number;
 import eu.darkbot.api.config.annotations.Option;
 import eu.darkbot.api.config.annotations.Percentage;
 
@@ -10,4 +11,20 @@ public class RepairPetConfig {
     @Option("do_gamer.repair_pet.hp")
     @Percentage
     public double hp = 0.8;
+
+    @Option("do_gamer.repair_pet.idle_windows")
+    public IdleWindowsConfig idleWindows = new IdleWindowsConfig();
+
+    public static class IdleWindowsConfig {
+        @Option("general.enabled")
+        public boolean enabled = true;
+
+        @Option("do_gamer.repair_pet.idle_windows.hp")
+        @Percentage
+        public double hp = 0.9;
+
+        @Option("do_gamer.repair_pet.idle_windows.max_wait")
+        @Number(min = 0, max = 300, step = 5)
+        public int maxWaitSeconds = 30;
+    }
 }
@@ -0,0 +1,13 @@
+package dev.shared.do_gamer.config;
+
+import eu.darkbot.api.config.annotations.Number;
+import eu.darkbot.api.config.annotations.Option;
+
+public class SessionRecorderConfig {
+    @Option("general.enabled")
+    public boolean enabled = false;
+
+    @Option("do_gamer.session_recorder.size_mb")
+    @Number(min = 4, max = 512, step = 4)
+    public int sizeMb = 32;
+}
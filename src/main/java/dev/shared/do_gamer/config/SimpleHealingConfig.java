@@ -1,6 +1,7 @@
 package dev.shared.do_gamer.config;
 
 import eu.darkbot.api.config.annotations.Configuration;
+import eu.darkbot.api.config.annotations.Number;
 import eu.darkbot.api.config.annotations.Option;
 import eu.darkbot.api.config.annotations.Percentage;
 
@@ -22,6 +23,10 @@ public class SimpleHealingConfig {
         @Option("do_gamer.simple_healing.min_hp")
         @Percentage
         public double min = 0.5;
+
+        @Option("do_gamer.simple_healing.lead_time")
+        @Number(min = 0, max = 3_000, step = 100)
+        public int leadMs = 500;
     }
 
     public static class ShieldRepairConfig {
@@ -32,5 +37,9 @@ public class SimpleHealingConfig {
         @Option("do_gamer.simple_healing.min_shield")
         @Percentage
         public double min = 0.5;
+
+        @Option("do_gamer.simple_healing.lead_time")
+        @Number(min = 0, max = 3_000, step = 100)
+        public int leadMs = 500;
     }
 }
@@ -0,0 +1,73 @@
+package dev.shared.do_gamer.menus;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.swing.JComponent;
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+
+import dev.shared.utils.profile.ApiProfiler;
+import eu.darkbot.api.PluginAPI;
+import eu.darkbot.api.extensions.ExtraMenus;
+import eu.darkbot.api.extensions.Feature;
+
+@Feature(name = "API Profiler", description = "Shows the API calls made by each feature, when started with -Dshared.api_profiler=on.")
+public class ApiProfilerMenu implements ExtraMenus {
+
+    private static final String TITLE = "API profiler";
+
+    private final ApiProfiler profiler;
+
+    public ApiProfilerMenu(PluginAPI api) {
+        this.profiler = api.requireInstance(ApiProfiler.class);
+    }
+
+    @Override
+    public Collection<JComponent> getExtraMenuItems(PluginAPI api) {
+        if (!this.profiler.isEnabled()) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.asList(
+                createSeparator(TITLE),
+                create("Show last minute", e -> this.showLastMinute()),
+                create("Show session totals", e -> this.show(this.profiler.getSessionReport())),
+                create("Dump session totals", e -> this.dumpSession()));
+    }
+
+    private void showLastMinute() {
+        String report = this.profiler.getLastReport();
+        if (report == null) {
+            JOptionPane.showMessageDialog(null, "No complete minute profiled yet.", TITLE,
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        this.show(report);
+    }
+
+    private void dumpSession() {
+        Path file = this.profiler.dumpSession();
+        if (file == null) {
+            JOptionPane.showMessageDialog(null, "Unable to write the dump file, see the log.", TITLE,
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(null, "Session totals appended to " + file, TITLE,
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void show(String report) {
+        JTextArea text = new JTextArea(report);
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JScrollPane scroll = new JScrollPane(text);
+        scroll.setPreferredSize(new Dimension(900, 500));
+        JOptionPane.showMessageDialog(null, scroll, TITLE, JOptionPane.PLAIN_MESSAGE);
+    }
+}
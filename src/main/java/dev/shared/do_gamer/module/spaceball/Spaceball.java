@@ -4,8 +4,14 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 import dev.shared.do_gamer.config.SpaceballConfig;
+import dev.shared.do_gamer.utils.HealthTrend;
 import dev.shared.do_gamer.utils.PetGearHelper;
 import dev.shared.do_gamer.utils.ServerTimeHelper;
+import dev.shared.utils.Clock;
+import dev.shared.utils.IdleWindows;
+import dev.shared.utils.RefreshCoordinator;
+import dev.shared.utils.jfr.ActionTrace;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.config.types.BoxInfo;
@@ -42,17 +48,25 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     private final BackpageAPI backpage;
     private final MapTraveler traveler;
     private final PetGearHelper petGearHelper;
+    private final Clock clock;
+    private final RefreshCoordinator refresh;
+    private final IdleWindows idleWindows;
+    private final HealthTrend healthTrend;
     private boolean isSpaceball;
     private long lastTargetLostTime;
     private SpaceballConfig config;
     private int nullTargetCounter; // Counter for consecutive null targets
     private int reloadCounter; // Counter for consecutive reloads
+    private static final String FEATURE_NAME = "Spaceball";
     private static final String TERGET_MAP = "4-4";
     private static final String NPC_NAME = "SpaceBall";
     private static final String BOX_NAME = "FROM_SHIP";
+    private static final String IDLE_WINDOW = "Spaceball collector";
     private static final int MAX_TARGET_DISTANCE = 1000; // max distance to keep target considered in range
     private static final int MAX_NULL_TARGETS_BEFORE_REFRESH = 3;
     private static final int MAX_RELOAD_ATTEMPTS = 3;
+    private static final double LOW_HP_PERCENT = 0.1;
+    private static final long LOW_HP_LEAD_MS = 1_000L;
     private boolean autoStart; // Flag to auto start
     private boolean start; // Flag to start the bot
     private boolean stop; // Flag to stop the bot
@@ -65,8 +79,10 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     public static final String DIRECTION_NEUTRAL = "Neutral";
 
     private String direction = DIRECTION_NEUTRAL;
+    private long directionSince = 0; // Timestamp of the last direction change
 
     public Spaceball(PluginAPI api, MapTraveler traveler) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "Spaceball");
         this.loot = new CustomLootModule(api);
         this.collector = new CustomCollectorModule(api);
         this.configApi = api.requireAPI(ConfigAPI.class);
@@ -78,6 +94,10 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
         this.backpage = api.requireAPI(BackpageAPI.class);
         this.traveler = traveler;
         this.petGearHelper = new PetGearHelper(api);
+        this.clock = api.requireInstance(Clock.class);
+        this.refresh = api.requireInstance(RefreshCoordinator.class);
+        this.idleWindows = api.requireInstance(IdleWindows.class);
+        this.healthTrend = api.requireInstance(HealthTrend.class);
         this.isSpaceball = false;
         this.lastTargetLostTime = 0;
         this.nullTargetCounter = 0;
@@ -234,7 +254,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
 
     private void appendTimeStatus(StringBuilder status) {
         if (ServerTimeHelper.offsetUpdated() && !this.disabledTimeRestriction()) {
-            LocalDateTime currentTime = ServerTimeHelper.currentDateTime();
+            LocalDateTime currentTime = ServerTimeHelper.currentDateTime(this.clock);
             status.append(this.getTimeStatus(currentTime));
         }
     }
@@ -256,7 +276,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     }
 
     private void buildAutoStartStatus(StringBuilder status) {
-        LocalDateTime currentTime = ServerTimeHelper.currentDateTime();
+        LocalDateTime currentTime = ServerTimeHelper.currentDateTime(this.clock);
         LocalDateTime startTime = this.getTime(currentTime, this.config.time.startHour);
         if (startTime.isBefore(currentTime)) {
             startTime = startTime.plusDays(1); // Adjust start time to the next day if already passed
@@ -297,6 +317,9 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     }
 
     public void onTickModule() {
+        this.refresh.tick();
+        this.healthTrend.sample();
+
         // Handle stop and exit first
         if (this.handleStopAndExit()) {
             return;
@@ -342,6 +365,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
             // Starting bot
             this.start = true; // Set start flag
             this.autoStart = false; // Reset auto start flag
+            ActionTrace.record(FEATURE_NAME, "start", "running time", 0);
             return false;
         }
         // Pausing bot
@@ -351,10 +375,14 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     }
 
     private boolean handleCollectorDelay() {
-        if (this.targetDelay() < 0) {
+        long delay = this.targetDelay();
+        if (delay < 0) {
+            this.idleWindows.close(IDLE_WINDOW);
             return false;
         }
 
+        // No SpaceBall to fight until the delay is over
+        this.idleWindows.open(IDLE_WINDOW, delay);
         this.collectorOnTick();
         return true;
     }
@@ -389,7 +417,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
                 if (this.targetOutOfRange()) {
                     this.isSpaceball = false;
                     this.loot.getAttacker().setTarget(null); // Clear target
-                    this.direction = DIRECTION_NEUTRAL; // Reset direction
+                    this.setDirection(DIRECTION_NEUTRAL, "target out of range"); // Reset direction
                     this.handleTargetLost();
                 }
             } else {
@@ -406,12 +434,14 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
 
     @Override
     public void onTickStopped() {
+        this.refresh.tick();
         if (this.autoStart && !this.start && this.isRunningTime()) {
             // Auto start bot
             this.bot.setRunning(true); // Start the bot
             this.start = true; // Set start flag
             this.autoStart = false; // Reset auto start flag
-            this.bot.handleRefresh(); // Refresh the game
+            ActionTrace.record(FEATURE_NAME, "start", "auto start", 0);
+            this.refresh.request("Spaceball auto start"); // Refresh the game
         }
     }
 
@@ -422,7 +452,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
 
     @Override
     public void onBackgroundTick() {
-        ServerTimeHelper.fetchServerOffset(this.backpage);
+        ServerTimeHelper.fetchServerOffset(this.backpage, this.clock);
     }
 
     private void collectorOnTick() {
@@ -431,7 +461,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
 
         if (this.collector.currentBox != null && this.targetDelay() < 10000L) {
             // Adjust the lastTargetLostTime if left 10 seconds
-            this.lastTargetLostTime = (System.currentTimeMillis() - this.configTargetDelay()) + 10000L;
+            this.lastTargetLostTime = (this.clock.millis() - this.configTargetDelay()) + 10000L;
             // Reset the collector's move counter
             this.collector.resetMoveCounter();
         }
@@ -504,7 +534,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
     }
 
     private void checkDirection() {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = this.clock.millis();
         if (currentTime - this.lastDirectionCheckTime < 1000) {
             return; // Skip if less than 1 second has passed
         }
@@ -518,21 +548,32 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
         }
 
         if (currentDistance < this.previousDistanceToExitGate) {
-            this.direction = DIRECTION_OWN; // Moving to gate
+            this.setDirection(DIRECTION_OWN, "moving to gate");
         } else if (currentDistance > this.previousDistanceToExitGate) {
             if (this.isTargetUnderAttack()) {
-                this.direction = DIRECTION_ENEMY; // Moving away from gate and under attack
+                this.setDirection(DIRECTION_ENEMY, "moving away under attack");
             } else {
-                this.direction = DIRECTION_NEUTRAL; // Moving away from gate but not under attack
+                this.setDirection(DIRECTION_NEUTRAL, "moving away");
             }
         } else {
-            this.direction = DIRECTION_NEUTRAL;
+            this.setDirection(DIRECTION_NEUTRAL, "not moving");
         }
 
         this.previousDistanceToExitGate = currentDistance; // Update previous distance
         this.lastDirectionCheckTime = currentTime; // Update the last check time
     }
 
+    private void setDirection(String direction, String cause) {
+        if (direction.equals(this.direction)) {
+            return;
+        }
+        long now = this.clock.millis();
+        // Elapsed is the time spent in the previous direction
+        ActionTrace.record(FEATURE_NAME, "direction " + direction, cause, now - this.directionSince);
+        this.direction = direction;
+        this.directionSince = now;
+    }
+
     private void resetCounters() {
         this.nullTargetCounter = 0;
         this.reloadCounter = 0;
@@ -553,11 +594,11 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
         if (extra > 0) {
             delay += (extra * 1000L);
         }
-        return delay - (System.currentTimeMillis() - this.lastTargetLostTime);
+        return delay - (this.clock.millis() - this.lastTargetLostTime);
     }
 
     private void handleTargetLost() {
-        this.lastTargetLostTime = System.currentTimeMillis();
+        this.lastTargetLostTime = this.clock.millis();
 
         if (this.isOnTargetMap()) {
             this.nullTargetCounter++; // Increment the null target counter
@@ -569,7 +610,8 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
 
     // Check if the hero is under attack
     private boolean isHeroUnderAttack() {
-        return this.entities.getShips().stream().anyMatch(ship -> ship.isAttacking(this.hero));
+        HeroAPI self = ApiProfiler.unwrap(this.hero); // Compared by identity
+        return this.entities.getShips().stream().anyMatch(ship -> ship.isAttacking(self));
     }
 
     private boolean isTargetUnderAttack() {
@@ -581,7 +623,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
                 .anyMatch(ship -> ship.getEntityInfo().getFaction() != this.hero.getEntityInfo().getFaction()
                         && ship.isAttacking(this.loot.getAttacker().getTarget()));
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = this.clock.millis();
         if (isUnderAttack) {
             this.lastUnderAttackTime = currentTime; // Update the last under attack time
         }
@@ -590,32 +632,41 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
         return isUnderAttack || (currentTime - this.lastUnderAttackTime <= 3000);
     }
 
-    // Check if the hero's HP is below 10%
+    // Check if the hero's HP is below 10% (or predicted to drop below it within a second)
     private boolean isLowHP() {
-        return (this.hero.getHealth().hpPercent() < 0.1);
+        return (this.hero.getHealth().hpPercent() < LOW_HP_PERCENT
+                || this.healthTrend.predictHp(LOW_HP_LEAD_MS) < LOW_HP_PERCENT);
     }
 
     private void doRefresh() {
         if (this.isHeroUnderAttack() || this.isLowHP()) {
             // Cannot reload, hero is under attack or low HP
-            this.lastTargetLostTime = System.currentTimeMillis();
+            this.lastTargetLostTime = this.clock.millis();
         } else {
             if (this.reloadCounter > MAX_RELOAD_ATTEMPTS || !this.isRunningTime()) {
                 this.resetCounters(); // Reset the counters
                 this.stop = true; // Stop the bot if reloads exceed threshold or after end hour
+                ActionTrace.record(FEATURE_NAME, "stop",
+                        this.isRunningTime() ? "too many reloads" : "after running time", 0);
             } else {
                 // Refreshing game due to consecutive null targets
                 this.nullTargetCounter = 0; // Reset the null target counter
-                this.reloadCounter++; // Increment the reload counter
                 if (this.movement.isMoving()) {
                     // Stopping hero movement before refresh
                     this.movement.stop(true);
                 }
-                this.bot.handleRefresh(); // Refresh the game
+                // Only count reloads that actually start, not merged or dropped requests
+                this.refresh.request("Spaceball no target", this::onReloadStarted);
             }
         }
     }
 
+    private void onReloadStarted() {
+        this.reloadCounter++; // Increment the reload counter
+        ActionTrace.record(FEATURE_NAME, "refresh", "no target, reload " + this.reloadCounter,
+                this.clock.millis() - this.lastTargetLostTime);
+    }
+
     private void moveToExit() {
         // Moving to exit map
         this.hero.setRoamMode();
@@ -663,7 +714,7 @@ public class Spaceball implements Module, Task, Configurable<SpaceballConfig>, I
             return false; // Wait for server time sync
         }
 
-        LocalDateTime currentTime = ServerTimeHelper.currentDateTime();
+        LocalDateTime currentTime = ServerTimeHelper.currentDateTime(this.clock);
         LocalDateTime startTime = this.getTime(currentTime, this.config.time.startHour);
         LocalDateTime stopTime = this.getTime(currentTime, this.config.time.stopHour, 1);
 
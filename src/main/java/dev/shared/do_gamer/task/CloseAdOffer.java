@@ -1,7 +1,11 @@
 package dev.shared.do_gamer.task;
 
+import java.util.EnumSet;
+
 import com.github.manolo8.darkbot.core.manager.GuiManager;
 
+import dev.shared.utils.GuiScheduler;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.extensions.Task;
@@ -9,18 +13,31 @@ import eu.darkbot.api.extensions.Task;
 @Feature(name = "Close AD Offer", description = "Automatically closes AD Offer on the left side (temporary solution until the bot is fixed).")
 public class CloseAdOffer implements Task {
     private final GuiManager gui;
+    private final GuiScheduler scheduler;
+    private final GuiScheduler.Rule rule;
 
     public CloseAdOffer(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "CloseAdOffer");
         this.gui = api.requireInstance(GuiManager.class);
+        this.scheduler = api.requireInstance(GuiScheduler.class);
+        // Check every second, back off up to 10s while no offer shows up
+        this.rule = this.scheduler.register("AD Offer", 1_000L, 5, 10_000L,
+                EnumSet.of(GuiScheduler.Trigger.MAP_CHANGE, GuiScheduler.Trigger.RELOAD), triggered -> this.close());
     }
 
     @Override
     public void onTickTask() {
+        this.scheduler.tick(this.rule);
+    }
+
+    private boolean close() {
         if (this.gui.targetedOffers.trySetShowing(false)) {
             // Legacy close by clicking top-right corner
             this.gui.targetedOffers.click(this.gui.targetedOffers.width - 3, 3);
 
             System.out.println("Closed AD Offer");
+            return true;
         }
+        return false;
     }
 }
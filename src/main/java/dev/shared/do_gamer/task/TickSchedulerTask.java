@@ -0,0 +1,20 @@
+package dev.shared.do_gamer.task;
+
+import dev.shared.utils.TickScheduler;
+import eu.darkbot.api.PluginAPI;
+import eu.darkbot.api.extensions.Feature;
+import eu.darkbot.api.extensions.Task;
+
+@Feature(name = "Tick scheduler", description = "Starts each bot tick for the shared schedulers of the other features, keep it enabled.", enabledByDefault = true)
+public class TickSchedulerTask implements Task {
+    private final TickScheduler ticks;
+
+    public TickSchedulerTask(PluginAPI api) {
+        this.ticks = api.requireInstance(TickScheduler.class);
+    }
+
+    @Override
+    public void onTickTask() {
+        this.ticks.beginTick(); // Tasks run on every tick, running or stopped
+    }
+}
@@ -0,0 +1,229 @@
+package dev.shared.do_gamer.utils;
+
+import dev.shared.utils.Clock;
+import dev.shared.utils.TickScheduler;
+import eu.darkbot.api.game.other.Health;
+import eu.darkbot.api.managers.HeroAPI;
+
+/**
+ * Ring-buffer sampler of the hero HP and shield used to predict upcoming
+ * health.
+ * <p>
+ * Samples are kept in primitive arrays and the trend is a least-squares slope
+ * over the recent window, so sampling and predicting never allocate. Samples
+ * are kept at least {@code SPACING_MS} apart so the ring spans the window at
+ * any tick rate, the newest one is updated in between. Obtain
+ * the shared instance with {@code api.requireInstance(HealthTrend.class)};
+ * each feature calls {@link #sample()} on its ticks and the
+ * hero is sampled once per tick.
+ */
+public class HealthTrend {
+
+    private static final int CAPACITY = 32;
+    private static final long WINDOW_MS = 3_000L;
+    private static final long SPACING_MS = 100L; // CAPACITY samples span more than the window
+    private static final int MIN_SAMPLES = 3;
+    private static final double MIN_LOSS_PER_SECOND = 0.01; // HP + shield percent, below is noise
+    private static final double MIN_WINDOW_LOSS = 0.02; // HP + shield percent lost over the window
+
+    private final long[] times;
+    private final double[] hp; // HP percent
+    private final double[] shield; // Shield percent
+    private final double[] total; // Absolute HP + shield
+    private final HeroAPI hero;
+    private final Clock clock;
+    private final TickScheduler ticks;
+    private long lastTick = -1L;
+    private int head; // Next write index
+    private int size;
+
+    public HealthTrend(HeroAPI hero, Clock clock, TickScheduler ticks) {
+        this.hero = hero;
+        this.clock = clock;
+        this.ticks = ticks;
+        this.times = new long[CAPACITY];
+        this.hp = new double[CAPACITY];
+        this.shield = new double[CAPACITY];
+        this.total = new double[CAPACITY];
+    }
+
+    /**
+     * Samples the hero health, unless another feature already did in this
+     * tick.
+     */
+    public void sample() {
+        long tick = this.ticks.currentTick();
+        if (tick == this.lastTick) {
+            return;
+        }
+        this.lastTick = tick;
+
+        Health health = this.hero.getHealth();
+        if (health == null) {
+            return;
+        }
+        this.sample(this.clock.millis(), health.hpPercent(), health.shieldPercent(),
+                (double) health.getHp() + health.getShield());
+    }
+
+    public void sample(long time, double hpPercent, double shieldPercent, double absolute) {
+        if (this.size > 0 && this.times[this.index(this.size - 1)] >= time) {
+            return; // Same tick
+        }
+        if (this.size > 1 && time - this.times[this.index(this.size - 2)] < SPACING_MS) {
+            this.put(this.index(this.size - 1), time, hpPercent, shieldPercent, absolute); // Keep the newest fresh
+            return;
+        }
+        this.put(this.head, time, hpPercent, shieldPercent, absolute);
+        this.head = (this.head + 1) % this.times.length;
+        if (this.size < this.times.length) {
+            this.size++;
+        }
+    }
+
+    private void put(int idx, long time, double hpPercent, double shieldPercent, double absolute) {
+        this.times[idx] = time;
+        this.hp[idx] = hpPercent;
+        this.shield[idx] = shieldPercent;
+        this.total[idx] = absolute;
+    }
+
+    public void reset() {
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * HP percent lost per second (0 if not decreasing).
+     */
+    public double hpLossPerSecond() {
+        return Math.max(0.0, -this.slope(this.hp));
+    }
+
+    /**
+     * Shield percent lost per second (0 if not decreasing).
+     */
+    public double shieldLossPerSecond() {
+        return Math.max(0.0, -this.slope(this.shield));
+    }
+
+    /**
+     * Absolute damage (HP + shield) taken per second.
+     */
+    public double damagePerSecond() {
+        return Math.max(0.0, -this.slope(this.total));
+    }
+
+    /**
+     * Checks if the HP or shield is steadily decreasing, a single noisy reading
+     * is not enough.
+     */
+    public boolean isTakingDamage() {
+        return this.hpLossPerSecond() + this.shieldLossPerSecond() >= MIN_LOSS_PER_SECOND
+                && this.windowLoss(this.hp) + this.windowLoss(this.shield) >= MIN_WINDOW_LOSS;
+    }
+
+    /**
+     * Predicts the HP percent after the given time, only extrapolating losses.
+     */
+    public double predictHp(long aheadMs) {
+        return this.predict(this.hp, this.hpLossPerSecond(), aheadMs);
+    }
+
+    /**
+     * Predicts the shield percent after the given time, only extrapolating
+     * losses.
+     */
+    public double predictShield(long aheadMs) {
+        return this.predict(this.shield, this.shieldLossPerSecond(), aheadMs);
+    }
+
+    /**
+     * Estimated milliseconds until HP drops to the threshold, 0 if already below
+     * and {@link Long#MAX_VALUE} if HP is not decreasing.
+     */
+    public long timeToHp(double threshold) {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        }
+        double current = this.latest(this.hp);
+        if (current <= threshold) {
+            return 0L;
+        }
+        double loss = this.hpLossPerSecond();
+        if (loss <= 0.0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) ((current - threshold) / loss * 1000.0);
+    }
+
+    private double predict(double[] values, double lossPerSecond, long aheadMs) {
+        if (this.size == 0) {
+            return 1.0;
+        }
+        double value = this.latest(values) - lossPerSecond * (aheadMs / 1000.0);
+        return Math.max(0.0, value);
+    }
+
+    private double latest(double[] values) {
+        return values[this.index(this.size - 1)];
+    }
+
+    // Drop from the oldest sample inside the window to the latest one
+    private double windowLoss(double[] values) {
+        if (this.size < MIN_SAMPLES) {
+            return 0.0;
+        }
+        long newest = this.times[this.index(this.size - 1)];
+        for (int i = 0; i < this.size; i++) {
+            int idx = this.index(i);
+            if (newest - this.times[idx] <= WINDOW_MS) {
+                return Math.max(0.0, values[idx] - this.latest(values));
+            }
+        }
+        return 0.0;
+    }
+
+    // Least-squares slope per second over the samples inside the window
+    private double slope(double[] values) {
+        if (this.size < MIN_SAMPLES) {
+            return 0.0;
+        }
+
+        long newest = this.times[this.index(this.size - 1)];
+        int n = 0;
+        double sumT = 0;
+        double sumV = 0;
+        double sumTT = 0;
+        double sumTV = 0;
+        for (int i = this.size - 1; i >= 0; i--) {
+            int idx = this.index(i);
+            long age = newest - this.times[idx];
+            if (age > WINDOW_MS) {
+                break;
+            }
+            double t = -age / 1000.0;
+            double v = values[idx];
+            sumT += t;
+            sumV += v;
+            sumTT += t * t;
+            sumTV += t * v;
+            n++;
+        }
+
+        if (n < MIN_SAMPLES) {
+            return 0.0;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (denominator == 0.0) {
+            return 0.0;
+        }
+        return (n * sumTV - sumT * sumV) / denominator;
+    }
+
+    // Maps the i-th oldest sample to its array index
+    private int index(int i) {
+        int capacity = this.times.length;
+        return (this.head - this.size + i + capacity) % capacity;
+    }
+}
@@ -16,6 +16,7 @@ public class PetGearHelper {
 
     private final PetAPI pet;
     private final ConfigAPI configApi;
+    private final PetHeartbeat heartbeat;
 
     // List of gears that restrict the use of other gears when active
     private static final List<PetGear> RESTRICTED_GEARS = List.of(
@@ -31,6 +32,7 @@ public class PetGearHelper {
     public PetGearHelper(PluginAPI api) {
         this.pet = api.requireAPI(PetAPI.class);
         this.configApi = api.requireAPI(ConfigAPI.class);
+        this.heartbeat = api.requireInstance(PetHeartbeat.class);
     }
 
     /**
@@ -40,6 +42,7 @@ public class PetGearHelper {
         if (this.canUse(gear)) {
             try {
                 this.pet.setGear(gear);
+                this.heartbeat.expectGear(gear);
                 return true;
             } catch (ItemNotEquippedException ignored) {
                 // Ignore not equipped exception
@@ -92,6 +95,13 @@ public class PetGearHelper {
         return currentGear != null && currentGear == gear;
     }
 
+    /**
+     * Gets the gear the PET is using, null if unknown.
+     */
+    public PetGear getGear() {
+        return this.pet.getGear();
+    }
+
     /**
      * Checks if the PET is enabled.
      */
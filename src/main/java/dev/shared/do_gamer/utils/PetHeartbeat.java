@@ -0,0 +1,181 @@
+package dev.shared.do_gamer.utils;
+
+import dev.shared.utils.Clock;
+import eu.darkbot.api.game.enums.PetGear;
+import eu.darkbot.api.game.other.Health;
+import eu.darkbot.api.managers.HeroAPI;
+import eu.darkbot.api.managers.PetAPI;
+
+/**
+ * Ring-buffer sampler of cheap PET signals that flags a stuck PET within a
+ * couple of seconds.
+ * <p>
+ * A live PET follows the hero, takes or heals damage, and picks up the gears
+ * it is given. The PET is stuck when, over the whole window, it did not move
+ * nor change HP while the hero travelled or a requested gear was not taken.
+ * Samples are kept in primitive arrays, so sampling never allocates, and spaced
+ * out so the ring spans the window whatever the tick rate; signs of life are
+ * checked on every call. Obtain
+ * the shared instance with {@code api.requireInstance(PetHeartbeat.class)}, so
+ * gear requests of every feature are seen.
+ */
+public class PetHeartbeat {
+
+    private static final int CAPACITY = 64;
+    public static final long WINDOW_MS = 2_000L;
+    private static final long MIN_COVERAGE_MS = 1_800L; // Samples must span most of the window
+    // Half the ring covers the window, faster ticks only update the signs of life
+    private static final long SPACING_MS = WINDOW_MS / (CAPACITY / 2);
+    private static final int MIN_SAMPLES = 5;
+    private static final int FROZEN_DISTANCE = 5; // PET moves below this count as standing still
+    private static final int HERO_TRAVEL = 300; // Hero path in the window a live PET would follow
+    private static final long GEAR_ACK_MS = 1_500L;
+    private static final int NO_GEAR = 0;
+
+    private final Clock clock;
+    private final long[] times = new long[CAPACITY];
+    private final int[] heroX = new int[CAPACITY];
+    private final int[] heroY = new int[CAPACITY];
+    private final int[] petX = new int[CAPACITY];
+    private final int[] petY = new int[CAPACITY];
+    private final int[] petHp = new int[CAPACITY];
+    private int head; // Next write index
+    private int size;
+
+    // Pending gear request, as PetGear ordinal + 1
+    private int expectedGear = NO_GEAR;
+    private long expectedSince;
+    private boolean gearOverdue;
+
+    // Signs of life since the last clear
+    private boolean alive;
+
+    public PetHeartbeat(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Samples the PET, once per tick while it is active.
+     */
+    public void sample(HeroAPI hero, PetAPI pet) {
+        Health health = pet.getHealth();
+        PetGear gear = pet.getGear();
+        this.sample(this.clock.millis(), (int) hero.getX(), (int) hero.getY(), (int) pet.getX(), (int) pet.getY(),
+                health != null ? health.getHp() + health.getShield() : 0, gear != null ? gear.ordinal() + 1 : NO_GEAR);
+    }
+
+    /**
+     * Samples raw values, with the gear as PetGear ordinal + 1 (0 if none).
+     */
+    public void sample(long time, int hx, int hy, int px, int py, int hp, int gear) {
+        if (this.size > 0) {
+            int last = this.index(this.size - 1);
+            if (Math.abs(px - this.petX[last]) > FROZEN_DISTANCE || Math.abs(py - this.petY[last]) > FROZEN_DISTANCE
+                    || hp != this.petHp[last]) {
+                this.alive = true;
+            }
+        }
+        this.checkGear(time, gear);
+        if (this.size > 0 && time - this.times[this.index(this.size - 1)] < SPACING_MS) {
+            return;
+        }
+
+        this.times[this.head] = time;
+        this.heroX[this.head] = hx;
+        this.heroY[this.head] = hy;
+        this.petX[this.head] = px;
+        this.petY[this.head] = py;
+        this.petHp[this.head] = hp;
+        this.head = (this.head + 1) % CAPACITY;
+        if (this.size < CAPACITY) {
+            this.size++;
+        }
+    }
+
+    private void checkGear(long time, int gear) {
+        if (this.expectedGear != NO_GEAR) {
+            if (gear == this.expectedGear) {
+                this.expectedGear = NO_GEAR;
+                this.gearOverdue = false;
+                this.alive = true;
+            } else if (time - this.expectedSince > GEAR_ACK_MS) {
+                this.gearOverdue = true;
+            }
+        }
+    }
+
+    /**
+     * Notes a gear request, the PET should show the gear shortly.
+     */
+    public void expectGear(PetGear gear) {
+        this.expectGear(gear.ordinal() + 1, this.clock.millis());
+    }
+
+    public void expectGear(int gear, long time) {
+        if (gear == this.expectedGear) {
+            return; // Keep the first request time
+        }
+        this.expectedGear = gear;
+        this.expectedSince = time;
+        this.gearOverdue = false;
+    }
+
+    /**
+     * Drops the samples, when the PET is not active or after a recovery step.
+     */
+    public void clear() {
+        this.size = 0;
+        this.head = 0;
+        this.expectedGear = NO_GEAR;
+        this.gearOverdue = false;
+        this.alive = false;
+    }
+
+    /**
+     * Checks if the PET moved, changed HP or took a gear since the last clear.
+     */
+    public boolean isAlive() {
+        return this.alive;
+    }
+
+    /**
+     * Checks if the window shows a stuck PET.
+     */
+    public boolean isStuck() {
+        if (this.size < MIN_SAMPLES) {
+            return false;
+        }
+        int newest = this.index(this.size - 1);
+        long now = this.times[newest];
+        int oldest = -1;
+        for (int i = 0; i < this.size; i++) {
+            if (now - this.times[this.index(i)] <= WINDOW_MS) {
+                oldest = i;
+                break;
+            }
+        }
+        if (oldest < 0 || now - this.times[this.index(oldest)] < MIN_COVERAGE_MS
+                || this.size - oldest < MIN_SAMPLES) {
+            return false; // Not enough history
+        }
+
+        int first = this.index(oldest);
+        long travel = 0;
+        for (int i = oldest + 1; i < this.size; i++) {
+            int idx = this.index(i);
+            int prev = this.index(i - 1);
+            if (Math.abs(this.petX[idx] - this.petX[first]) > FROZEN_DISTANCE
+                    || Math.abs(this.petY[idx] - this.petY[first]) > FROZEN_DISTANCE
+                    || this.petHp[idx] != this.petHp[first]) {
+                return false; // Moved or HP changed
+            }
+            travel += (long) Math.hypot(this.heroX[idx] - this.heroX[prev], this.heroY[idx] - this.heroY[prev]);
+        }
+        return travel >= HERO_TRAVEL || this.gearOverdue;
+    }
+
+    // Ring index of the i-th oldest sample
+    private int index(int i) {
+        return (this.head - this.size + i + CAPACITY) % CAPACITY;
+    }
+}
@@ -0,0 +1,103 @@
+package dev.shared.do_gamer.utils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Ordered recovery steps for a stuck PET, from the cheapest to a full reload.
+ * <p>
+ * Each cheap tier keeps its attempts and successes for the session. When
+ * adaptive, the cheap tiers are tried by smoothed success rate, so a tier that
+ * never helps on this account drifts to the back of the ladder. The reload is
+ * always the last step.
+ */
+public class PetRecoveryLadder {
+
+    public enum Tier {
+        TOGGLE_PET("toggle PET"),
+        REISSUE_GEAR("re-issue gear"),
+        REOPEN_WINDOW("reopen PET window"),
+        RELOAD("reload");
+
+        private final String label;
+
+        Tier(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return this.label;
+        }
+    }
+
+    private final Map<Tier, int[]> results = new EnumMap<>(Tier.class); // {attempts, successes}
+
+    public PetRecoveryLadder() {
+        for (Tier tier : Tier.values()) {
+            this.results.put(tier, new int[2]);
+        }
+    }
+
+    /**
+     * Tiers to try, in order, ending with the reload.
+     *
+     * @param enabled  cheap tiers enabled in the config
+     * @param adaptive order the cheap tiers by success rate instead of cost
+     */
+    public List<Tier> order(List<Tier> enabled, boolean adaptive) {
+        List<Tier> tiers = new ArrayList<>(enabled);
+        tiers.remove(Tier.RELOAD);
+        if (adaptive) {
+            // Stable sort, equal rates keep the cost order
+            tiers.sort((a, b) -> Double.compare(this.successRate(b), this.successRate(a)));
+        }
+        tiers.add(Tier.RELOAD);
+        return tiers;
+    }
+
+    /**
+     * Records the outcome of an attempt.
+     */
+    public void record(Tier tier, boolean success) {
+        int[] result = this.results.get(tier);
+        result[0]++;
+        if (success) {
+            result[1]++;
+        }
+    }
+
+    /**
+     * Success rate with one success and one failure assumed up front, so
+     * untried tiers rank in the middle instead of first or last.
+     */
+    public double successRate(Tier tier) {
+        int[] result = this.results.get(tier);
+        return (result[1] + 1.0) / (result[0] + 2.0);
+    }
+
+    /**
+     * Attempts and successes of each tried tier.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (Tier tier : Tier.values()) {
+            int[] result = this.results.get(tier);
+            if (result[0] == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            if (tier == Tier.RELOAD) {
+                sb.append(String.format(Locale.ROOT, "%s %d", tier, result[0]));
+            } else {
+                sb.append(String.format(Locale.ROOT, "%s %d/%d", tier, result[1], result[0]));
+            }
+        }
+        return sb.toString();
+    }
+}
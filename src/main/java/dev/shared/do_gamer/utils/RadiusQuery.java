@@ -0,0 +1,140 @@
+package dev.shared.do_gamer.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+import eu.darkbot.api.game.entities.Entity;
+
+/**
+ * Reusable single-pass radius query over entities.
+ * <p>
+ * Collects the count, the nearest entity and a small top-k (sorted by distance)
+ * in one iteration, using squared distances kept in a flat primitive buffer.
+ * The instance is meant to be kept as a field and re-run every tick, so no
+ * streams, lambdas or result objects are allocated on the hot path.
+ */
+public class RadiusQuery<T extends Entity> {
+
+    private final Object[] top;
+    private final double[] topDistSq;
+    private int topSize;
+    private int count;
+
+    public RadiusQuery(int topK) {
+        int size = Math.max(1, topK);
+        this.top = new Object[size];
+        this.topDistSq = new double[size];
+    }
+
+    /**
+     * Runs the query around the given point without an extra filter.
+     */
+    public RadiusQuery<T> run(Collection<? extends T> entities, double x, double y, double radius) {
+        return this.run(entities, x, y, radius, null);
+    }
+
+    /**
+     * Runs the query around the given point.
+     *
+     * @param radius max distance to consider, use {@link Double#POSITIVE_INFINITY}
+     *               for no limit
+     * @param filter optional filter, evaluated only for entities inside the radius
+     */
+    public RadiusQuery<T> run(Collection<? extends T> entities, double x, double y, double radius,
+            Predicate<? super T> filter) {
+        this.clear();
+        if (entities == null || entities.isEmpty()) {
+            return this;
+        }
+
+        double radiusSq = radius * radius;
+        for (T entity : entities) {
+            double dx = entity.getX() - x;
+            double dy = entity.getY() - y;
+            double distSq = dx * dx + dy * dy;
+            if (distSq > radiusSq) {
+                continue;
+            }
+            if (filter != null && !filter.test(entity)) {
+                continue;
+            }
+            this.count++;
+            this.offer(entity, distSq);
+        }
+        return this;
+    }
+
+    // Insert into the sorted top-k buffer
+    private void offer(T entity, double distSq) {
+        int capacity = this.top.length;
+        if (this.topSize == capacity && distSq >= this.topDistSq[capacity - 1]) {
+            return; // Farther than every kept entry
+        }
+
+        int i = Math.min(this.topSize, capacity - 1);
+        while (i > 0 && this.topDistSq[i - 1] > distSq) {
+            this.top[i] = this.top[i - 1];
+            this.topDistSq[i] = this.topDistSq[i - 1];
+            i--;
+        }
+        this.top[i] = entity;
+        this.topDistSq[i] = distSq;
+        if (this.topSize < capacity) {
+            this.topSize++;
+        }
+    }
+
+    /**
+     * Clears the last result.
+     */
+    public void clear() {
+        // Drop references so entities removed from the map can be collected
+        Arrays.fill(this.top, 0, this.topSize, null);
+        this.topSize = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Number of entities matching the last query.
+     */
+    public int count() {
+        return this.count;
+    }
+
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    /**
+     * Nearest matching entity, or null when nothing matched.
+     */
+    public T nearest() {
+        return this.top(0);
+    }
+
+    /**
+     * Distance to the nearest matching entity, or -1 when nothing matched.
+     */
+    public double nearestDistance() {
+        return this.topSize > 0 ? Math.sqrt(this.topDistSq[0]) : -1;
+    }
+
+    /**
+     * Number of entries kept in the top-k buffer.
+     */
+    public int topSize() {
+        return this.topSize;
+    }
+
+    /**
+     * Gets the i-th nearest matching entity (0 is the nearest).
+     */
+    @SuppressWarnings("unchecked")
+    public T top(int index) {
+        if (index < 0 || index >= this.topSize) {
+            return null;
+        }
+        return (T) this.top[index];
+    }
+}
@@ -0,0 +1,141 @@
+package dev.shared.do_gamer.utils;
+
+import dev.shared.utils.Clock;
+
+/**
+ * Paces sell requests by their acknowledgements instead of a fixed interval.
+ * <p>
+ * A sell is acknowledged when the sold amount drops. The gap between sells and
+ * the stuck timeout follow a smoothed ack latency, so fast servers are not
+ * slowed down and slow ones are not flooded. Ack latencies are also collected
+ * in a fixed-bucket histogram for tuning.
+ */
+public class SellPacer {
+
+    private static final long[] BUCKET_LIMITS_MS = { 50, 100, 200, 400, 800, 1_600, 3_200 };
+    private static final double INITIAL_LATENCY_MS = 300.0;
+    private static final double LATENCY_ALPHA = 0.3;
+    private static final long MAX_GAP_MS = 750L;
+    private static final long MIN_STUCK_MS = 1_000L;
+    private static final long MAX_STUCK_MS = 5_000L;
+    private static final int MAX_RETRIES = 2;
+
+    private final Clock clock;
+    private final int[] histogram = new int[BUCKET_LIMITS_MS.length + 1];
+    private double latency = INITIAL_LATENCY_MS; // Smoothed ack latency
+    private int samples;
+
+    private Object pending; // Key of the unacknowledged sell
+    private int pendingAmount;
+    private long sentAt;
+    private int retries;
+
+    public SellPacer(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records a sell request for the given key and the amount before selling.
+     */
+    public void sent(Object key, int amount) {
+        if (key != this.pending) {
+            this.retries = 0;
+        }
+        this.pending = key;
+        this.pendingAmount = amount;
+        this.sentAt = this.clock.millis();
+    }
+
+    public boolean isPending() {
+        return this.pending != null;
+    }
+
+    public Object getPending() {
+        return this.pending;
+    }
+
+    /**
+     * Checks the current amount of the pending sell and records the latency when
+     * it was acknowledged.
+     */
+    public boolean acknowledge(int amount) {
+        if (this.pending == null || amount >= this.pendingAmount) {
+            return false;
+        }
+        this.record(this.clock.millis() - this.sentAt);
+        this.pending = null;
+        return true;
+    }
+
+    /**
+     * Checks if the pending sell has waited longer than the adaptive timeout.
+     */
+    public boolean isStuck() {
+        return this.pending != null && this.clock.millis() - this.sentAt > this.stuckTimeout();
+    }
+
+    /**
+     * Registers a retry of the stuck sell, returns false once retries are
+     * exhausted and the sell should be skipped.
+     */
+    public boolean retry() {
+        if (this.retries >= MAX_RETRIES) {
+            this.pending = null;
+            this.retries = 0;
+            return false;
+        }
+        this.retries++;
+        // Back off, a stuck sell suggests the server is slower than measured
+        this.latency = Math.min(MAX_STUCK_MS, this.latency * 2);
+        return true;
+    }
+
+    public void clear() {
+        this.pending = null;
+        this.retries = 0;
+    }
+
+    /**
+     * Delay before the next sell, half of the smoothed ack latency.
+     */
+    public long gap() {
+        return Math.min(MAX_GAP_MS, (long) (this.latency / 2));
+    }
+
+    public long stuckTimeout() {
+        return Math.max(MIN_STUCK_MS, Math.min(MAX_STUCK_MS, (long) (this.latency * 4)));
+    }
+
+    public int getSamples() {
+        return this.samples;
+    }
+
+    /**
+     * Histogram of the ack latencies, e.g. "<=50ms:0 <=100ms:4 ... >3200ms:0".
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.histogram.length; i++) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            if (i < BUCKET_LIMITS_MS.length) {
+                sb.append("<=").append(BUCKET_LIMITS_MS[i]);
+            } else {
+                sb.append('>').append(BUCKET_LIMITS_MS[BUCKET_LIMITS_MS.length - 1]);
+            }
+            sb.append("ms:").append(this.histogram[i]);
+        }
+        return String.format("avg %dms | %s", (long) this.latency, sb);
+    }
+
+    private void record(long latencyMs) {
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MS.length && latencyMs > BUCKET_LIMITS_MS[bucket]) {
+            bucket++;
+        }
+        this.histogram[bucket]++;
+        this.samples++;
+        this.latency += LATENCY_ALPHA * (latencyMs - this.latency);
+    }
+}
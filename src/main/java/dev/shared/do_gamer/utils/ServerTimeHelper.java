@@ -9,6 +9,7 @@ import java.util.Locale;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import dev.shared.utils.Clock;
 import eu.darkbot.api.managers.BackpageAPI;
 
 public class ServerTimeHelper {
@@ -30,13 +31,14 @@ public class ServerTimeHelper {
      * Fetch the server time offset in minutes.
      *
      * @param backpageAPI the BackpageAPI instance used to retrieve server data
+     * @param clock       the plugin clock
      */
-    public static void fetchServerOffset(BackpageAPI backpageAPI) {
+    public static void fetchServerOffset(BackpageAPI backpageAPI, Clock clock) {
         if (offsetUpdated()) {
             return; // Already updated
         }
 
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         // Check server time offset if not updated
         if ((currentTime - lastOffsetCheckTime) >= OFFSET_CHECK_INTERVAL_MS) {
             lastOffsetCheckTime = currentTime;
@@ -49,7 +51,7 @@ public class ServerTimeHelper {
                 String serverTime = extractServerTime(response);
 
                 if (!serverDate.isEmpty() && !serverTime.isEmpty()) {
-                    serverOffsetMinutes = calcOffsetMinutes(serverDate, serverTime);
+                    serverOffsetMinutes = calcOffsetMinutes(serverDate, serverTime, clock);
                     System.out.printf("Server date: '%s', time: '%s'%n", serverDate, serverTime);
                 }
             } catch (Exception e) {
@@ -60,8 +62,8 @@ public class ServerTimeHelper {
     }
 
     // Get the current server-adjusted LocalDateTime
-    public static LocalDateTime currentDateTime() {
-        LocalDateTime currentTime = LocalDateTime.now();
+    public static LocalDateTime currentDateTime(Clock clock) {
+        LocalDateTime currentTime = clock.dateTime();
 
         if (serverOffsetMinutes == 0 || serverOffsetMinutes == -1) {
             return currentTime; // No offset or invalid offset
@@ -76,14 +78,14 @@ public class ServerTimeHelper {
     }
 
     // Calculate the offset in minutes between local time and server time
-    private static long calcOffsetMinutes(String serverDate, String serverTime) {
+    private static long calcOffsetMinutes(String serverDate, String serverTime, Clock clock) {
         LocalTime time = parseServerTime(serverTime);
 
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
         LocalDate date = LocalDate.parse(serverDate, dateFormatter);
 
         LocalDateTime serverDateTime = LocalDateTime.of(date, time);
-        LocalDateTime localDateTime = LocalDateTime.now();
+        LocalDateTime localDateTime = clock.dateTime();
 
         // Compute the offset in minutes between local and server time
         long offset = Duration.between(localDateTime, serverDateTime).toMinutes();
@@ -0,0 +1,162 @@
+package dev.shared.do_gamer.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import dev.shared.do_gamer.behaviour.solaris_inc.CustomAbility;
+import eu.darkbot.api.game.items.SelectableItem;
+import eu.darkbot.api.game.items.SelectableItem.Ability;
+
+/**
+ * Catalog of ship abilities loaded from {@code ship_abilities.properties}.
+ * <p>
+ * Ship types are resolved with a single map lookup (designs included), and
+ * {@link Resolver} caches the result until the ship type string changes.
+ * Adding a new ship only requires a new line in the resource file.
+ */
+public final class ShipAbilityCatalog {
+
+    private static final String RESOURCE = "/dev/shared/do_gamer/ship_abilities.properties";
+    private static final String SHIP_PREFIX = "ship_";
+    private static final String DESIGN_SUFFIX = "_design";
+    private static final Map<String, Profile> PROFILES = load();
+
+    public enum Role {
+        HP,
+        SHIELD,
+        HP_POD,
+        AREA
+    }
+
+    private ShipAbilityCatalog() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Finds the profile for the given ship type, or null if not supported.
+     */
+    public static Profile find(String shipType) {
+        String name = shipName(shipType);
+        return name == null ? null : PROFILES.get(name);
+    }
+
+    // Strip the "ship_" prefix and any "_design..." suffix
+    private static String shipName(String shipType) {
+        if (shipType == null || !shipType.startsWith(SHIP_PREFIX)) {
+            return null;
+        }
+        int design = shipType.indexOf(DESIGN_SUFFIX, SHIP_PREFIX.length());
+        int end = design >= 0 ? design : shipType.length();
+        return shipType.substring(SHIP_PREFIX.length(), end);
+    }
+
+    private static Map<String, Profile> load() {
+        Properties properties = new Properties();
+        try (InputStream in = ShipAbilityCatalog.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                System.out.println("Ship abilities resource not found: " + RESOURCE);
+                return Collections.emptyMap();
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            System.out.printf("Error loading ship abilities: %s%n", e.getMessage());
+            return Collections.emptyMap();
+        }
+
+        Map<String, Profile> profiles = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            Profile profile = parse(name, properties.getProperty(name));
+            if (profile != null) {
+                profiles.put(name, profile);
+            }
+        }
+        return profiles;
+    }
+
+    // Parse "role:ability,role:ability;duration=seconds"
+    private static Profile parse(String name, String value) {
+        String[] sections = value.split(";");
+        EnumMap<Role, SelectableItem> abilities = new EnumMap<>(Role.class);
+        int duration = 0;
+
+        try {
+            for (String entry : sections[0].split(",")) {
+                String[] pair = entry.trim().split(":");
+                Role role = Role.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+                abilities.put(role, ability(pair[1].trim()));
+            }
+            for (int i = 1; i < sections.length; i++) {
+                String[] option = sections[i].trim().split("=");
+                if (option[0].trim().equals("duration")) {
+                    duration = Integer.parseInt(option[1].trim());
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.out.printf("Invalid ship abilities for '%s': %s%n", name, value);
+            return null;
+        }
+
+        return new Profile(name, abilities, duration);
+    }
+
+    // Custom abilities take precedence over the API ones with the same name
+    private static SelectableItem ability(String name) {
+        try {
+            return CustomAbility.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return Ability.valueOf(name);
+        }
+    }
+
+    /**
+     * Abilities of a single ship.
+     */
+    public static final class Profile {
+        public final String name;
+        public final int duration; // Active time of the area ability in seconds
+        private final EnumMap<Role, SelectableItem> abilities;
+
+        private Profile(String name, EnumMap<Role, SelectableItem> abilities, int duration) {
+            this.name = name;
+            this.abilities = abilities;
+            this.duration = duration;
+        }
+
+        public SelectableItem get(Role role) {
+            return this.abilities.get(role);
+        }
+
+        public boolean has(Role role) {
+            return this.abilities.containsKey(role);
+        }
+    }
+
+    /**
+     * Per-feature resolver that caches the profile until the ship type changes.
+     */
+    public static final class Resolver {
+        private String lastShipType;
+        private Profile lastProfile;
+
+        /**
+         * Resolves the profile, reusing the last result while the game returns the
+         * same ship type string.
+         */
+        public Profile resolve(String shipType) {
+            if (shipType == this.lastShipType) { // NOSONAR identity check on purpose
+                return this.lastProfile;
+            }
+            if (shipType == null || !shipType.equals(this.lastShipType)) {
+                this.lastProfile = find(shipType);
+            }
+            this.lastShipType = shipType;
+            return this.lastProfile;
+        }
+    }
+}
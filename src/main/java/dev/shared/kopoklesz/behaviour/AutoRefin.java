@@ -1,48 +1,89 @@
 package dev.shared.kopoklesz.behaviour;
 
-import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 import com.github.manolo8.darkbot.Main;
 import com.github.manolo8.darkbot.core.IDarkBotAPI;
 import com.github.manolo8.darkbot.core.api.Capability;
 import com.github.manolo8.darkbot.core.manager.GuiManager;
 
 import dev.shared.kopoklesz.config.AutoRefinConfig;
+import dev.shared.kopoklesz.utils.NativeHandleCache;
+import dev.shared.kopoklesz.utils.RefinePlanner;
+import dev.shared.utils.CargoManager;
+import dev.shared.utils.Clock;
+import dev.shared.utils.Debug;
+import dev.shared.utils.OreStock;
+import dev.shared.utils.TickScheduler;
+import dev.shared.utils.profile.ApiProfiler;
+import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
 import eu.darkbot.api.extensions.Configurable;
 import eu.darkbot.api.extensions.Feature;
-import eu.darkbot.api.managers.OreAPI;
 import eu.darkbot.api.managers.OreAPI.Ore;
+import eu.darkbot.api.managers.StarSystemAPI;
 import eu.darkbot.api.managers.StatsAPI;
 
 @Feature(name = "Auto refiner", description = "Automatically refine materials")
-public class AutoRefin implements Behavior, Configurable<AutoRefinConfig> {
+public class AutoRefin implements Behavior, Configurable<AutoRefinConfig>, CargoManager.Refiner {
 
-    private final OreAPI ores;
+    private final OreStock stock;
     private final GuiManager guiManager;
     private final IDarkBotAPI darkbotApi;
     private final StatsAPI stats;
+    private final StarSystemAPI starSystem;
+    private final CargoManager cargo;
+    private final TickScheduler ticks;
+    private final Clock clock;
+    private final TickScheduler.Slot refineSlot;
     private final Main main;
 
     private AutoRefinConfig config;
 
+    // Refining chain, issued in this order within a single tick
+    private static final Ore[] CHAIN = { Ore.PROMETID, Ore.DURANIUM, Ore.PROMERIUM };
+    // Re-plan even without cargo changes, in case a refine was dropped by the game
+    private static final long REPLAN_FALLBACK_MS = 30_000L;
+    // Max time to wait for the cargo to reflect an issued batch
+    private static final long BATCH_RESULT_TIMEOUT_MS = 5_000L;
+    // Cargo fills over seconds, the refine check does not need every tick
+    private static final long REFINE_CADENCE_MS = 250L;
+
+    private final RefinePlanner planner;
+    private final NativeHandleCache refinery;
+
+    // Resolved once per session, the bot does not gain or lose capabilities at runtime
+    private Boolean directRefine = null;
+
     // Track cargo to prevent unnecessary API calls when unable to refine
     private int lastCargoAmount = -1;
-    private boolean lastRefineAttemptFailed = false;
-
-    public AutoRefin(OreAPI ores,
-            GuiManager guiManager,
-            IDarkBotAPI darkbotApi,
-            StatsAPI stats,
-            Main main) {
-        this.ores = ores;
-        this.guiManager = guiManager;
-        this.darkbotApi = darkbotApi;
-        this.stats = stats;
-        this.main = main;
+    private long lastPlanTime = 0;
+
+    // Cargo and time of the current plan, shared with the cargo manager checks
+    private int planCargo = -1;
+    private long planTime = 0;
+
+    // Measurement of the last issued batch
+    private int batchCargo = -1;
+    private long batchTime = 0;
+    private int batchCalls = 0;
+    private int batchExpected = 0;
+
+    public AutoRefin(PluginAPI api) {
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "AutoRefin");
+        this.stock = api.requireInstance(OreStock.class);
+        this.planner = new RefinePlanner(stock);
+        this.guiManager = api.requireInstance(GuiManager.class);
+        this.darkbotApi = api.requireInstance(IDarkBotAPI.class);
+        this.stats = api.requireAPI(StatsAPI.class);
+        this.starSystem = api.requireAPI(StarSystemAPI.class);
+        this.cargo = api.requireInstance(CargoManager.class);
+        this.ticks = api.requireInstance(TickScheduler.class);
+        this.clock = api.requireInstance(Clock.class);
+        this.main = api.requireInstance(Main.class);
+        this.refinery = new NativeHandleCache(darkbotApi, 0x78);
+        cargo.setRefiner(this);
+        // Cost 2, a refine issues several native calls
+        this.refineSlot = ticks.register("Auto refiner", REFINE_CADENCE_MS, 2, null);
     }
 
     // config file
@@ -57,44 +98,105 @@ public class AutoRefin implements Behavior, Configurable<AutoRefinConfig> {
         if (!isReadyForRefining())
             return; // check if we can refine
 
-        if (getCargoPercent() < config.triggerPercent) {
+        cargo.refinerTick();
+        ticks.run(refineSlot, this::refineTick);
+    }
+
+    private void refineTick() {
+        // The cargo manager asks for a refine before scheduling a sell trip
+        if (getCargoPercent() < config.triggerPercent && !cargo.isRefineRequested()) {
             // Reset tracking variables when cargo is below trigger percent
-            if (lastCargoAmount != -1) {
-                lastCargoAmount = -1;
-                lastRefineAttemptFailed = false;
-            }
+            lastCargoAmount = -1;
+            int currentCargo = stats.getCargo();
+            if (batchCargo >= 0 && currentCargo != batchCargo)
+                measureBatch(currentCargo); // the last batch brought cargo under the trigger
             return;
         }
 
         int currentCargo = stats.getCargo();
+        long now = clock.millis();
+
+        // Only re-plan when cargo changed since the last plan (ores were mined,
+        // sold or refined), or the fallback interval has passed
+        if (currentCargo == lastCargoAmount && now - lastPlanTime < REPLAN_FALLBACK_MS)
+            return;
+
+        measureBatch(currentCargo);
+        lastCargoAmount = currentCargo;
+        lastPlanTime = now;
+
+        plan(currentCargo, now);
+        if (planner.isEmpty())
+            return;
+
+        // Issue the whole chain at once, promerium only from the prometid and
+        // duranium already in stock, the rest waits for the next plan
+        long refineryAddress = refinery.resolve(guiManager.getAddress(), starSystem.getCurrentMap());
+        if (refineryAddress == 0)
+            return;
+
+        int calls = 0;
+        for (Ore ore : CHAIN) {
+            int amount = ore == Ore.PROMERIUM ? planner.confirmedPromerium() : planner.planned(ore);
+            if (amount <= 0)
+                continue;
+            darkbotApi.refine(refineryAddress, ore, amount);
+            calls++;
+        }
+        if (calls == 0)
+            return;
+
+        batchCargo = currentCargo;
+        batchTime = now;
+        batchCalls = calls;
+        batchExpected = planner.confirmedCargoFreed();
+        planCargo = -1; // the stock changes once the batch lands
+    }
+
+    // Plans for the current stock, the last plan is reused while the cargo is unchanged
+    private void plan(int currentCargo, long now) {
+        if (currentCargo == planCargo && now - planTime < REPLAN_FALLBACK_MS)
+            return;
 
-        // If cargo hasn't changed since last failed refine attempt, skip to prevent
-        // unnecessary API calls
-        if (lastRefineAttemptFailed && currentCargo == lastCargoAmount) {
+        planCargo = currentCargo;
+        planTime = now;
+        stock.refresh();
+        planner.plan(shouldRefineOre(Ore.PROMETID), shouldRefineOre(Ore.DURANIUM),
+                shouldRefineOre(Ore.PROMERIUM), config.xenomitReserve);
+    }
+
+    // Logs the cargo freed by the last batch once the game reports the new cargo
+    private void measureBatch(int currentCargo) {
+        if (batchCargo < 0)
             return;
+
+        int freed = batchCargo - currentCargo;
+        // Nothing was refined, the cached refinery pointer may be stale and
+        // the cargo manager should not wait for another refine
+        if (freed <= 0) {
+            refinery.invalidate();
+            cargo.refineFailed();
         }
 
-        // Cache maxRefine values to avoid duplicate calculations
-        Map<Ore, Integer> refineMap = Arrays.stream(Ore.values())
-                .filter(this::shouldRefineOre)
-                .collect(Collectors.toMap(
-                        ore -> ore,
-                        this::maxRefine));
-
-        lastRefineAttemptFailed = true; // assume refine attempt will fail
-        lastCargoAmount = currentCargo; // update last cargo amount
-
-        // Find the ore with the highest refineable amount
-        refineMap.entrySet().stream()
-                .filter(e -> e.getValue() > 0)
-                .max(Map.Entry.comparingByValue())
-                .ifPresent(entry -> {
-                    darkbotApi.refine(
-                            darkbotApi.readLong(guiManager.getAddress() + 0x78),
-                            entry.getKey(),
-                            entry.getValue());
-                    lastRefineAttemptFailed = false; // refine attempt succeeded
-                });
+        if (Debug.ENABLED)
+            System.out.printf("Auto refiner: freed %d cargo (expected %d) with %d refine calls, %.1f per call%n",
+                    freed, batchExpected, batchCalls, (double) freed / batchCalls);
+        batchCargo = -1;
+    }
+
+    /////////////////////////////// cargo manager ///////////////////////////////
+    @Override
+    public int refinableCargo() {
+        if (!isReadyForRefining())
+            return 0;
+
+        plan(stats.getCargo(), clock.millis());
+        return planner.confirmedCargoFreed();
+    }
+
+    @Override
+    public boolean isRefining() {
+        return batchCargo >= 0 && clock.millis() - batchTime < BATCH_RESULT_TIMEOUT_MS;
     }
 
     /////////////////////////////// helper methods ///////////////////////////////
@@ -102,7 +204,10 @@ public class AutoRefin implements Behavior, Configurable<AutoRefinConfig> {
         if (config == null || !config.enabled)
             return false;
 
-        if (main.config.MISCELLANEOUS.AUTO_REFINE || !darkbotApi.hasCapability(Capability.DIRECT_REFINE))
+        if (directRefine == null)
+            directRefine = darkbotApi.hasCapability(Capability.DIRECT_REFINE);
+
+        if (main.config.MISCELLANEOUS.AUTO_REFINE || !directRefine)
             return false;
 
         return (guiManager.getAddress() != 0);
@@ -123,25 +228,6 @@ public class AutoRefin implements Behavior, Configurable<AutoRefinConfig> {
         }
     }
 
-    private int maxRefine(Ore ore) {
-        switch (ore) {
-            case PROMETID:
-                return Math.min(ores.getAmount(Ore.PROMETIUM) / 20, ores.getAmount(Ore.ENDURIUM) / 10);
-            case DURANIUM:
-                return Math.min(ores.getAmount(Ore.TERBIUM) / 20, ores.getAmount(Ore.ENDURIUM) / 10);
-            case PROMERIUM:
-                int availableXenomit = ores.getAmount(Ore.XENOMIT); // get available xenomit
-                if (config.xenomitReserve > 0) {
-                    availableXenomit = Math.max(0, availableXenomit - config.xenomitReserve);
-                }
-                return Math.min(
-                        Math.min(ores.getAmount(Ore.PROMETID) / 10, ores.getAmount(Ore.DURANIUM) / 10),
-                        availableXenomit);
-            default:
-                return 0;
-        }
-    }
-
     private double getCargoPercent() {
         int max = stats.getMaxCargo();
         return max > 0 ? (double) stats.getCargo() / max : 0.0;
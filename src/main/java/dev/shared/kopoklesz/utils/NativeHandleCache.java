@@ -0,0 +1,52 @@
+package dev.shared.kopoklesz.utils;
+
+import com.github.manolo8.darkbot.core.IDarkBotAPI;
+
+/**
+ * Caches a pointer read from native memory.
+ *
+ * The pointer is read again only when the base address changes (the GUI was
+ * rebuilt after a reload), the owner key changes (e.g. a map change) or it was
+ * invalidated explicitly. The native reads of each feature, this one included,
+ * are counted by the API profiler (-Dshared.api_profiler=on) as
+ * {@code IDarkBotAPI} calls.
+ */
+public class NativeHandleCache {
+
+    private final IDarkBotAPI darkbotApi;
+    private final int offset;
+
+    private long cachedBase = 0;
+    private Object cachedKey = null;
+    private long cachedPointer = 0;
+
+    public NativeHandleCache(IDarkBotAPI darkbotApi, int offset) {
+        this.darkbotApi = darkbotApi;
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the pointer at {@code base + offset}, reading native memory only
+     * when the cached value is not valid anymore.
+     *
+     * @param key identity of the context the pointer belongs to (current map),
+     *            compared by reference
+     */
+    public long resolve(long base, Object key) {
+        if (base == 0)
+            return 0;
+
+        if (base != cachedBase || key != cachedKey || cachedPointer == 0) {
+            cachedPointer = darkbotApi.readLong(base + offset);
+            cachedBase = base;
+            cachedKey = key;
+        }
+        return cachedPointer;
+    }
+
+    public void invalidate() {
+        cachedBase = 0;
+        cachedKey = null;
+        cachedPointer = 0;
+    }
+}
@@ -0,0 +1,115 @@
+package dev.shared.kopoklesz.utils;
+
+import dev.shared.utils.OreStock;
+import eu.darkbot.api.managers.OreAPI.Ore;
+
+/**
+ * Plans a full refining chain (prometid -> duranium -> promerium) in one step.
+ *
+ * Every prometid or duranium frees 29 cargo (20 + 10 in, 1 out) and every
+ * promerium frees 20 (10 + 10 + 1 in, 1 out), so the plan
+ * first refines as many prometid + duranium as the shared endurium allows and
+ * then splits them so that the promerium step can use as much as possible.
+ */
+public class RefinePlanner {
+
+    public static final int PROMETID_FREED = 29;
+    public static final int DURANIUM_FREED = 29;
+    public static final int PROMERIUM_FREED = 20;
+
+    // Shared ore snapshot, refreshed by the caller
+    private final OreStock stock;
+
+    // Last plan
+    private int prometid;
+    private int duranium;
+    private int promerium;
+    private int confirmedPromerium; // Promerium the stock already allows, before this plan
+
+    public RefinePlanner(OreStock stock) {
+        this.stock = stock;
+    }
+
+    public int amount(Ore ore) {
+        return stock.amount(ore);
+    }
+
+    /**
+     * Computes the plan from the current ore snapshot.
+     *
+     * @param xenomitReserve xenomit kept aside, not used for promerium
+     */
+    public void plan(boolean allowPrometid, boolean allowDuranium, boolean allowPromerium, int xenomitReserve) {
+        int prometidMax = allowPrometid ? amount(Ore.PROMETIUM) / 20 : 0;
+        int duraniumMax = allowDuranium ? amount(Ore.TERBIUM) / 20 : 0;
+        int total = Math.min(prometidMax + duraniumMax, amount(Ore.ENDURIUM) / 10);
+
+        int xenomit = Math.max(0, amount(Ore.XENOMIT) - Math.max(0, xenomitReserve));
+        int prometidStock = amount(Ore.PROMETID);
+        int duraniumStock = amount(Ore.DURANIUM);
+
+        // Feasible prometid range for the first step
+        int low = Math.max(0, total - duraniumMax);
+        int high = Math.min(prometidMax, total);
+
+        int bestPrometid = high;
+        int bestPromerium = -1;
+        if (allowPromerium) {
+            // Balance prometid and duranium stock, check both neighbours of the optimum
+            int balanced = (duraniumStock + total - prometidStock) / 2;
+            for (int candidate = balanced; candidate <= balanced + 1; candidate++) {
+                int p = Math.max(low, Math.min(high, candidate));
+                int r = promerium(prometidStock + p, duraniumStock + total - p, xenomit);
+                if (r > bestPromerium) {
+                    bestPromerium = r;
+                    bestPrometid = p;
+                }
+            }
+        }
+
+        prometid = bestPrometid;
+        duranium = total - bestPrometid;
+        promerium = Math.max(0, bestPromerium);
+        confirmedPromerium = Math.min(promerium, promerium(prometidStock, duraniumStock, xenomit));
+    }
+
+    private static int promerium(int prometidStock, int duraniumStock, int xenomit) {
+        return Math.min(Math.min(prometidStock / 10, duraniumStock / 10), xenomit);
+    }
+
+    /**
+     * Planned amount for the given ore.
+     */
+    public int planned(Ore ore) {
+        switch (ore) {
+            case PROMETID:
+                return prometid;
+            case DURANIUM:
+                return duranium;
+            case PROMERIUM:
+                return promerium;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Planned promerium that does not wait for the prometid and duranium of
+     * this plan, the game may not have credited them yet.
+     */
+    public int confirmedPromerium() {
+        return confirmedPromerium;
+    }
+
+    public boolean isEmpty() {
+        return prometid == 0 && duranium == 0 && promerium == 0;
+    }
+
+    /**
+     * Estimated cargo freed by the refines issued for the plan, with only the
+     * confirmed promerium.
+     */
+    public int confirmedCargoFreed() {
+        return prometid * PROMETID_FREED + duranium * DURANIUM_FREED + confirmedPromerium * PROMERIUM_FREED;
+    }
+}
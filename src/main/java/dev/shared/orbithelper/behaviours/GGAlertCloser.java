@@ -1,56 +1,96 @@
 package dev.shared.orbithelper.behaviours;
 
+import java.util.EnumSet;
+
+import dev.shared.utils.Clock;
+import dev.shared.utils.ClockTimer;
+import dev.shared.utils.Debug;
+import dev.shared.utils.GuiScheduler;
+import dev.shared.utils.VideoGuiIndex;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.extensions.Behavior;
 import eu.darkbot.api.extensions.Feature;
 import eu.darkbot.api.game.other.GameMap;
 import eu.darkbot.api.game.other.Gui;
+import eu.darkbot.api.managers.EntitiesAPI;
 import eu.darkbot.api.managers.GameScreenAPI;
 import eu.darkbot.api.managers.StarSystemAPI;
-import eu.darkbot.util.Timer;
 
 @Feature(name = "GG Alert Closer", description = "Closes alerts at Galaxy Gates (Hades, LoW and Kuiper) [Special thanks: @do-gamer]")
 public class GGAlertCloser implements Behavior {
-    private final GameScreenAPI gameScreen;
     private final StarSystemAPI starSystem;
+    private final EntitiesAPI entities;
+    private final GuiScheduler scheduler;
+    private final GuiScheduler.Rule rule;
+
+    // Alert windows use ids in the range 1000-3000
+    private final VideoGuiIndex alerts;
 
-    private Timer actionTimer = Timer.get();
+    private final ClockTimer fullScanTimer;
+    private final ClockTimer statsTimer;
+    private boolean hadNpcs;
 
     public GGAlertCloser(PluginAPI api) {
-        this.gameScreen = api.requireAPI(GameScreenAPI.class);
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "GGAlertCloser");
         this.starSystem = api.requireAPI(StarSystemAPI.class);
-    }
-
-    private String getName(int number) {
-        return "video" + number;
+        this.entities = api.requireAPI(EntitiesAPI.class);
+        this.alerts = new VideoGuiIndex(api.requireAPI(GameScreenAPI.class), 1000, 3000);
+        this.scheduler = api.requireInstance(GuiScheduler.class);
+        Clock clock = api.requireInstance(Clock.class);
+        this.fullScanTimer = clock.timer();
+        this.statsTimer = clock.timer();
+        // Check every 2 seconds, back off up to 8s while no alert shows up
+        this.rule = this.scheduler.register("GG alerts", 2_000L, 10, 8_000L,
+                EnumSet.of(GuiScheduler.Trigger.GG_ENTER, GuiScheduler.Trigger.RELOAD), this::closeAlert);
     }
 
     @Override
     public void onTickBehavior() {
-        if (!this.isInGalaxyGate() || this.actionTimer.isActive()) {
-            return; // Not in GG or waiting for timer
+        if (this.isInGalaxyGate() && this.checkWaveStarted()) {
+            this.scheduler.fire(this.rule); // A new wave may show a new alert
+        }
+        this.scheduler.tick(this.rule);
+    }
+
+    private boolean closeAlert(boolean triggered) {
+        if (!this.isInGalaxyGate()) {
+            return false; // Not in GG
         }
 
-        // Scan range 1000-3000 for alert windows
-        this.scanRange(1000, 3000);
+        // Full scan when a new alert is suspected (gate entered, new wave)
+        Gui alert;
+        if (triggered || this.fullScanTimer.isInactive()) {
+            alert = this.alerts.fullScan();
+            this.fullScanTimer.activate(60_000L); // Fallback full scan every minute
+        } else {
+            alert = this.alerts.findKnown();
+        }
 
-        this.actionTimer.activate(2_000L); // 2 seconds delay
+        this.reportStats();
+        return this.performClick(alert);
     }
 
-    private void scanRange(int start, int end) {
-        for (int i = start; i < end; i++) {
-            String name = this.getName(i);
-            Gui gui = this.gameScreen.getGui(name);
+    private boolean checkWaveStarted() {
+        boolean hasNpcs = !this.entities.getNpcs().isEmpty();
+        boolean started = hasNpcs && !this.hadNpcs;
+        this.hadNpcs = hasNpcs;
+        return started;
+    }
 
-            if (this.performClick(gui)) {
-                return; // Process one window at a time
-            }
+    private void reportStats() {
+        if (!Debug.ENABLED || this.statsTimer.isActive()) {
+            return;
+        }
+        if (this.statsTimer.isArmed()) {
+            System.out.println("GG Alert Closer: " + this.alerts.drainStats());
         }
+        this.statsTimer.activate(60_000L);
     }
 
     private boolean performClick(Gui gui) {
         // Check if the GUI exists and is visible (neagtive X means off-screen)
-        if (gui != null && gui.getWidth() > 0 && gui.getX() > 0) {
+        if (VideoGuiIndex.isVisible(gui)) {
             // Buttom click coordinates are relative to the GUI's top-left corner
             // Max click offsets - x: +24, y: +9
             // Reccomended offsets - x: +10, y: -1 (to avoid misclicks)
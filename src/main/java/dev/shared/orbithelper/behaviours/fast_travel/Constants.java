@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import dev.shared.utils.MapGraph;
 import eu.darkbot.api.game.other.EntityInfo;
 
 public class Constants {
@@ -85,46 +86,7 @@ public class Constants {
          * key: Map Name
          * value: List of connected maps (reachable via portal)
          */
-        protected static final Map<String, List<String>> MAP_CONNECTIONS = new HashMap<>();
-
-        static {
-                // 1-X Maps
-                MAP_CONNECTIONS.put("1-1", List.of("1-2"));
-                MAP_CONNECTIONS.put("1-2", List.of("1-1", "1-3", "1-4"));
-                MAP_CONNECTIONS.put("1-3", List.of("1-2", "2-3", "1-4"));
-                MAP_CONNECTIONS.put("1-4", List.of("1-2", "1-3", "4-1", "3-4"));
-                MAP_CONNECTIONS.put("1-5", List.of("4-4", "1-6", "1-7", "4-5"));
-                MAP_CONNECTIONS.put("1-6", List.of("1-5", "1-8"));
-                MAP_CONNECTIONS.put("1-7", List.of("1-5", "1-8"));
-                MAP_CONNECTIONS.put("1-8", List.of("1-6", "1-7"));
-
-                // 2-X Maps
-                MAP_CONNECTIONS.put("2-1", List.of("2-2"));
-                MAP_CONNECTIONS.put("2-2", List.of("2-1", "2-3", "2-4"));
-                MAP_CONNECTIONS.put("2-3", List.of("2-2", "2-4", "1-3"));
-                MAP_CONNECTIONS.put("2-4", List.of("2-2", "2-3", "3-3", "4-2"));
-                MAP_CONNECTIONS.put("2-5", List.of("4-4", "4-5", "2-6", "2-7"));
-                MAP_CONNECTIONS.put("2-6", List.of("2-5", "2-8"));
-                MAP_CONNECTIONS.put("2-7", List.of("2-5", "2-8"));
-                MAP_CONNECTIONS.put("2-8", List.of("2-6", "2-7"));
-
-                // 3-X Maps
-                MAP_CONNECTIONS.put("3-1", List.of("3-2"));
-                MAP_CONNECTIONS.put("3-2", List.of("3-1", "3-3", "3-4"));
-                MAP_CONNECTIONS.put("3-3", List.of("3-2", "3-4", "2-4"));
-                MAP_CONNECTIONS.put("3-4", List.of("3-2", "3-3", "4-3", "1-3"));
-                MAP_CONNECTIONS.put("3-5", List.of("4-4", "4-5", "3-6", "3-7"));
-                MAP_CONNECTIONS.put("3-6", List.of("3-5", "3-8"));
-                MAP_CONNECTIONS.put("3-7", List.of("3-5", "3-8"));
-                MAP_CONNECTIONS.put("3-8", List.of("3-7", "3-6"));
-
-                // 4-X Maps
-                MAP_CONNECTIONS.put("4-1", List.of("4-2", "4-3", "4-4", "1-4"));
-                MAP_CONNECTIONS.put("4-2", List.of("4-1", "4-3", "4-4", "2-4"));
-                MAP_CONNECTIONS.put("4-3", List.of("4-1", "4-2", "4-4", "3-4"));
-                MAP_CONNECTIONS.put("4-4", List.of("4-1", "4-2", "4-3", "1-5", "2-5", "3-5"));
-                MAP_CONNECTIONS.put("4-5", List.of("1-5", "2-5", "3-5"));
-        }
+        protected static final Map<String, List<String>> MAP_CONNECTIONS = MapGraph.CONNECTIONS;
 
         /**
          * Map Levels required to fast travel to specific maps.
@@ -13,7 +13,14 @@ import java.util.stream.Collectors;
 
 import dev.shared.orbithelper.config.FastTravelConfig;
 import dev.shared.utils.CaptchaBoxDetector;
+import dev.shared.utils.Clock;
+import dev.shared.utils.ClockTimer;
+import dev.shared.utils.ItemCooldowns;
+import dev.shared.utils.IdleWindows;
+import dev.shared.utils.RefreshCoordinator;
 import dev.shared.utils.TemporalModuleDetector;
+import dev.shared.utils.jfr.StateTrace;
+import dev.shared.utils.profile.ApiProfiler;
 import eu.darkbot.api.PluginAPI;
 import eu.darkbot.api.config.ConfigSetting;
 import eu.darkbot.api.extensions.Behavior;
@@ -24,7 +31,6 @@ import eu.darkbot.api.game.entities.Portal;
 import eu.darkbot.api.game.entities.Station;
 import eu.darkbot.api.game.items.Item;
 import eu.darkbot.api.game.items.ItemFlag;
-import eu.darkbot.api.game.items.ItemTimer;
 import eu.darkbot.api.game.items.SelectableItem;
 import eu.darkbot.api.game.other.EntityInfo;
 import eu.darkbot.api.game.other.Gui;
@@ -40,7 +46,6 @@ import eu.darkbot.api.managers.MovementAPI;
 import eu.darkbot.api.managers.StarSystemAPI;
 import eu.darkbot.api.managers.StatsAPI;
 import eu.darkbot.shared.modules.TemporalModule;
-import eu.darkbot.util.Timer;
 
 @Feature(name = "Fast Travel", description = "Fast travel between maps using Jump CPU (AJP-01).")
 public class FastTravel extends TemporalModule implements Behavior, Configurable<FastTravelConfig> {
@@ -54,11 +59,18 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
     private final EntitiesAPI entities;
     private final GameScreenAPI gameScreen;
     private final AttackAPI attack;
+    private final ItemCooldowns cooldowns;
+    private final Clock clock;
+    private final RefreshCoordinator refresh;
+    private final IdleWindows idleWindows;
     private static final long VALIDATION_RETRY_INTERVAL_MS = 5_000L;
     private static final int MAX_CONSECUTIVE_GLOBAL_TIMEOUTS = 3;
+    private static final String IDLE_WINDOW = "Fast travel jump";
+    private static final long JUMP_WAIT_ESTIMATE_MS = 5_000L; // Until jump waits were measured
 
     private FastTravelConfig config;
-    private final Timer timer = Timer.get();
+    private final ClockTimer timer;
+    private final StateTrace stateTrace = new StateTrace("FastTravel", "state");
 
     // State Tracking
     private State state = State.VALIDATING;
@@ -68,6 +80,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
     public FastTravel(PluginAPI api) {
         super(api.requireAPI(BotAPI.class));
+        api = api.requireInstance(ApiProfiler.class).wrap(api, "FastTravel");
         this.configApi = api.requireAPI(ConfigAPI.class);
         this.starSystem = api.requireAPI(StarSystemAPI.class);
         this.hero = api.requireAPI(HeroAPI.class);
@@ -77,6 +90,12 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         this.entities = api.requireAPI(EntitiesAPI.class);
         this.gameScreen = api.requireAPI(GameScreenAPI.class);
         this.attack = api.requireAPI(AttackAPI.class);
+        this.cooldowns = api.requireInstance(ItemCooldowns.class);
+        this.clock = api.requireInstance(Clock.class);
+        this.timer = this.clock.timer();
+        this.refresh = api.requireInstance(RefreshCoordinator.class);
+        this.refresh.setBlocker("fast travel", this::isTravelling);
+        this.idleWindows = api.requireInstance(IdleWindows.class);
     }
 
     @Override
@@ -87,15 +106,10 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
     // Behavior Logic (Runs Always)
     @Override
     public void onTickBehavior() {
-        if (this.config == null
-                || !this.config.enabled
-                || this.isRestrictedModule() // Restricted Module active
-                || CaptchaBoxDetector.hasCaptchaBoxes(this.entities) // Captcha is active
-                || this.attack.isAttacking() // Currently Attacking
-                || this.isUnderAttack() // Is under attack
-                || this.isMovingOrJumping() // Currently moving or jumping
-        ) {
-            this.resetState();
+        this.refresh.tick();
+        String interruption = this.interruption();
+        if (interruption != null) {
+            this.resetState(interruption);
             return;
         }
 
@@ -107,7 +121,30 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         this.handleValidating();
     }
 
-    private void resetState() {
+    // Reason to stop (or not start) fast travel, null if none
+    private String interruption() {
+        if (this.config == null || !this.config.enabled) {
+            return "disabled";
+        }
+        if (this.isRestrictedModule()) {
+            return "restricted module"; // Restricted Module active
+        }
+        if (CaptchaBoxDetector.hasCaptchaBoxes(this.entities)) {
+            return "captcha"; // Captcha is active
+        }
+        if (this.attack.isAttacking()) {
+            return "attacking"; // Currently Attacking
+        }
+        if (this.isUnderAttack()) {
+            return "under attack"; // Is under attack
+        }
+        if (this.isMovingOrJumping()) {
+            return "moving or jumping"; // Currently moving or jumping
+        }
+        return null;
+    }
+
+    private void resetState(String cause) {
         if (this.state == State.VALIDATING) {
             return;
         }
@@ -117,7 +154,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
             spacemap.setVisible(false);
         }
 
-        this.state = State.VALIDATING;
+        this.setState(State.VALIDATING, cause);
         this.cpuStartTime = 0;
         this.selectedRandom = false;
         this.timer.disarm();
@@ -153,7 +190,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
                 this.handleWaitingForJump();
                 break;
             default:
-                this.resetState();
+                this.resetState("unexpected state");
         }
     }
 
@@ -166,6 +203,10 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
                 break;
             case OPENING_CPU:
                 msg = "Opening CPU...";
+                String cooldown = this.cooldowns.describe(SelectableItem.Cpu.AJP_01);
+                if (!cooldown.isEmpty()) {
+                    msg += " (" + cooldown + ")";
+                }
                 break;
             case SELECTING_MAP:
                 msg = "Selecting map...";
@@ -227,12 +268,12 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         }
 
         if (TemporalModuleDetector.using(this.bot).isTemporalNotMap()) {
-            this.resetState();
+            this.resetState("other temporal module");
             return; // Avoid conflicts with other temporal modules
         }
 
         if (this.isValid()) {
-            this.state = State.SAFE_POSITIONING;
+            this.setState(State.SAFE_POSITIONING, "valid route");
             this.bot.setModule(this); // Take control
             return;
         }
@@ -243,7 +284,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
     private void handleSafePositioning() {
         Entity safeSpot = this.findNearestSafeSpot();
         if (safeSpot == null) {
-            this.resetState();
+            this.resetState("no safe spot");
             return;
         }
 
@@ -252,8 +293,8 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
                 this.movement.stop(false);
                 return;
             }
-            this.state = State.OPENING_CPU;
-            this.cpuStartTime = System.currentTimeMillis();
+            this.setState(State.OPENING_CPU, "at safe spot");
+            this.cpuStartTime = this.clock.millis();
         } else {
             this.movement.moveTo(safeSpot);
         }
@@ -265,7 +306,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         }
 
         if (this.getSpaceMap() != null) {
-            this.state = State.SELECTING_MAP;
+            this.setState(State.SELECTING_MAP, "spacemap open");
             this.timer.activate(2000); // 2s delay
             return;
         }
@@ -274,8 +315,10 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
             return;
         }
 
-        this.items.useItem(SelectableItem.Cpu.AJP_01, ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE,
-                ItemFlag.NOT_SELECTED);
+        if (this.items.useItem(SelectableItem.Cpu.AJP_01, ItemFlag.USABLE, ItemFlag.READY, ItemFlag.AVAILABLE,
+                ItemFlag.NOT_SELECTED).isSuccessful()) {
+            this.cooldowns.markUsed(SelectableItem.Cpu.AJP_01);
+        }
 
         this.timer.activate(2500);
     }
@@ -287,7 +330,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
         Gui spacemap = this.getSpaceMap();
         if (spacemap == null) {
-            this.state = State.OPENING_CPU; // Re-open if closed
+            this.setState(State.OPENING_CPU, "spacemap closed"); // Re-open if closed
             return;
         }
 
@@ -314,7 +357,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         Constants.Coordinate p = this.getMapCoordinates(destMap);
         spacemap.click(p.x, p.y);
 
-        this.state = State.JUMPING;
+        this.setState(State.JUMPING, "destination selected");
         this.timer.activate(1000);
         this.selectedRandom = false;
     }
@@ -326,7 +369,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
         Gui spacemap = this.getSpaceMap();
         if (spacemap == null) {
-            this.state = State.OPENING_CPU; // Re-open if closed
+            this.setState(State.OPENING_CPU, "spacemap closed"); // Re-open if closed
             return;
         }
 
@@ -334,7 +377,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
         spacemap.click(jumpP.x, jumpP.y);
 
-        this.state = State.WAITING_FOR_JUMP;
+        this.setState(State.WAITING_FOR_JUMP, "jump clicked");
         this.timer.activate(2000); // Wait bit before checking map
     }
 
@@ -349,7 +392,7 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         if (currentMap.equals(destMap)) {
             // Reset the consecutive timeout counter when we've arrived
             this.consecutiveGlobalTimeouts = 0;
-            this.resetState();
+            this.resetState("arrived");
             return;
         }
 
@@ -359,13 +402,13 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
     private boolean isGlobalTimeout() {
         if (this.cpuStartTime > 0
-                && (System.currentTimeMillis() - this.cpuStartTime) > (this.config.maxJumpAttemptTime * 1_000L)) {
-            this.resetState();
+                && (this.clock.millis() - this.cpuStartTime) > (this.config.maxJumpAttemptTime * 1_000L)) {
+            this.resetState("timed out");
             // After 3 consecutive global timeouts, suggest a game refresh
             if (this.consecutiveGlobalTimeouts >= MAX_CONSECUTIVE_GLOBAL_TIMEOUTS) {
                 System.out.println("Fast Travel: Requested game refresh due to consecutive timeouts.");
                 this.consecutiveGlobalTimeouts = 0; // Reset counter
-                this.bot.handleRefresh();
+                this.refresh.request("Fast travel timeouts");
                 return true;
             }
             // Increment consecutive timeout counter
@@ -375,6 +418,30 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
         return false;
     }
 
+    // Spacemap steps, a refresh would waste the CPU use
+    private boolean isTravelling() {
+        return this.state == State.SELECTING_MAP || this.state == State.JUMPING
+                || this.state == State.WAITING_FOR_JUMP;
+    }
+
+    // Each state is traced as a JFR event
+    private void setState(State next, String cause) {
+        if (next != this.state) {
+            this.stateTrace.enter(next, cause);
+            this.state = next;
+            this.announceIdleWindow();
+        }
+    }
+
+    // The wait for the jump leaves the PET idle
+    private void announceIdleWindow() {
+        if (this.state == State.WAITING_FOR_JUMP) {
+            this.idleWindows.open(IDLE_WINDOW, this.idleWindows.estimate(IDLE_WINDOW, JUMP_WAIT_ESTIMATE_MS));
+        } else {
+            this.idleWindows.close(IDLE_WINDOW);
+        }
+    }
+
     private Entity findNearestSafeSpot() {
         // Find nearest Portal that is NOT a Galaxy Gate
         Portal nearestPortal = this.entities.getPortals().stream()
@@ -479,20 +546,12 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
     }
 
     private boolean isAvailableCpu() {
-        Optional<Item> itemOpt = this.getCpuItem();
-        if (itemOpt.isEmpty()) {
-            return false;
-        }
-        ItemTimer itemTimer = itemOpt.get().getTimer();
-        if (itemTimer == null) {
-            return true; // Timer not found, assume available
-        }
-        double availableIn = itemTimer.getAvailableIn();
-        if (availableIn > 0) {
-            this.timer.activate((long) (availableIn * 1000) + 500);
+        if (!this.cooldowns.isReady(SelectableItem.Cpu.AJP_01)) {
+            // Wake up right after the CPU becomes ready
+            this.timer.activate(this.cooldowns.remainingMs(SelectableItem.Cpu.AJP_01) + 500);
             return false;
         }
-        return true;
+        return this.getCpuItem().isPresent();
     }
 
     private Gui getSpaceMap() {
@@ -505,8 +564,9 @@ public class FastTravel extends TemporalModule implements Behavior, Configurable
 
     // Check if under attack
     private boolean isUnderAttack() {
-        return this.entities.getShips().stream().anyMatch(ship -> ship.isAttacking(this.hero))
-                || this.entities.getNpcs().stream().anyMatch(npc -> npc.isAttacking(this.hero));
+        HeroAPI self = ApiProfiler.unwrap(this.hero); // Compared by identity
+        return this.entities.getShips().stream().anyMatch(ship -> ship.isAttacking(self))
+                || this.entities.getNpcs().stream().anyMatch(npc -> npc.isAttacking(self));
     }
 
     // Check if currently moving or jumping (to avoid interrupting)
@@ -0,0 +1,24 @@
+package dev.shared.utils;
+
+/**
+ * Clock running a fixed factor faster than the real time, from a start time.
+ */
+public class AcceleratedClock extends Clock {
+
+    private final long start;
+    private final long realStart = System.currentTimeMillis();
+    private final double factor;
+
+    public AcceleratedClock(long start, double factor) {
+        if (factor <= 0) {
+            throw new IllegalArgumentException("Clock factor must be positive: " + factor);
+        }
+        this.start = start;
+        this.factor = factor;
+    }
+
+    @Override
+    public long millis() {
+        return this.start + (long) ((System.currentTimeMillis() - this.realStart) * this.factor);
+    }
+}
@@ -0,0 +1,265 @@
+package dev.shared.utils;
+
+import java.util.List;
+
+import eu.darkbot.api.managers.StatsAPI;
+
+/**
+ * Shared owner of the cargo-fill decisions.
+ * <p>
+ * Refining and selling both free cargo, so instead of each feature checking its
+ * own trigger, the seller asks this manager first. A sell trip is only
+ * scheduled when refining alone cannot bring the cargo under the sell
+ * threshold, and it uses the mode that frees cargo soonest. Obtain the shared
+ * instance with {@code api.requireInstance(CargoManager.class)}.
+ */
+public class CargoManager {
+
+    // A refiner that has not ticked for this long is considered disabled
+    private static final long REFINER_ALIVE_MS = 2_000L;
+    // Fill-rate sampling, the EWMA time constant smooths out single box pickups
+    private static final long RATE_SAMPLE_INTERVAL_MS = 1_000L;
+    private static final double RATE_TIME_CONSTANT_MS = 60_000.0;
+    // Gaps longer than this (disconnects, pauses) restart the estimate baseline
+    private static final long RATE_MAX_GAP_MS = 30_000L;
+    // A refine decision held this long without the cargo dropping has failed
+    private static final long REFINE_HOLD_MS = 10_000L;
+
+    private final StatsAPI stats;
+    private final Clock clock;
+    private Refiner refiner;
+    private long lastRefinerTick = 0;
+    private boolean refineRequested = false;
+
+    // Refine decisions that free nothing fall back to selling until the cargo
+    // is under the trigger again
+    private boolean refineFailed = false;
+    private long refineSince = 0;
+    private int refineCargo = 0;
+
+    // Fill-rate estimator, in cargo units per minute
+    private double fillRate = 0.0;
+    private int lastSampleCargo = -1;
+    private long lastSampleTime = 0;
+
+    /**
+     * Decision for the current cargo state.
+     */
+    public enum Action {
+        NONE,
+        REFINE,
+        SELL
+    }
+
+    /**
+     * Sell modes, declared from the cheapest to the most expensive.
+     */
+    public enum SellMode {
+        PET, // No travel, no consumables
+        DRONE, // No travel, uses a trade drone
+        BASE // Travel to base and back
+    }
+
+    /**
+     * Executor able to free cargo by refining.
+     */
+    public interface Refiner {
+        /**
+         * Cargo that the refiner can free right now.
+         */
+        int refinableCargo();
+
+        /**
+         * Checks if refine calls were issued and their result is still pending.
+         */
+        boolean isRefining();
+    }
+
+    public CargoManager(StatsAPI stats, Clock clock) {
+        this.clock = clock;
+        this.stats = stats;
+    }
+
+    public void setRefiner(Refiner refiner) {
+        this.refiner = refiner;
+    }
+
+    /**
+     * Called by the refiner on every tick while it is enabled.
+     */
+    public void refinerTick() {
+        this.lastRefinerTick = this.clock.millis();
+    }
+
+    /**
+     * Called by the refiner when an issued refine freed no cargo, the seller
+     * takes over for the current fill.
+     */
+    public void refineFailed() {
+        this.refineFailed = true;
+        this.refineRequested = false;
+    }
+
+    /**
+     * Checks if the seller is waiting for a refine before deciding to sell.
+     */
+    public boolean isRefineRequested() {
+        return this.refineRequested && this.isRefinerAlive();
+    }
+
+    public int getCargo() {
+        return this.stats.getCargo();
+    }
+
+    public int getMaxCargo() {
+        return this.stats.getMaxCargo();
+    }
+
+    /**
+     * Current cargo fill in the range [0, 1].
+     */
+    public double getFill() {
+        return this.fill(this.getCargo());
+    }
+
+    /**
+     * Samples the cargo for the fill-rate estimate, at most once per second.
+     * <p>
+     * Only increases are counted; refining and selling move the baseline
+     * without lowering the rate.
+     */
+    public void sample() {
+        long now = this.clock.millis();
+        if (this.lastSampleCargo >= 0 && now - this.lastSampleTime < RATE_SAMPLE_INTERVAL_MS) {
+            return;
+        }
+
+        int cargo = this.getCargo();
+        long elapsed = now - this.lastSampleTime;
+        if (this.lastSampleCargo >= 0 && elapsed <= RATE_MAX_GAP_MS) {
+            int gained = Math.max(0, cargo - this.lastSampleCargo);
+            double rate = gained * 60_000.0 / elapsed;
+            double alpha = 1.0 - Math.exp(-elapsed / RATE_TIME_CONSTANT_MS);
+            this.fillRate += alpha * (rate - this.fillRate);
+        }
+        this.lastSampleCargo = cargo;
+        this.lastSampleTime = now;
+    }
+
+    /**
+     * Estimated cargo collected per minute.
+     */
+    public double getFillRate() {
+        return this.fillRate;
+    }
+
+    /**
+     * Estimated fill fraction gained over the given time.
+     */
+    public double fillGainedIn(long ms) {
+        int max = this.getMaxCargo();
+        if (max <= 0) {
+            return 0.0;
+        }
+        return this.fillRate * ms / 60_000.0 / max;
+    }
+
+    /**
+     * Estimated milliseconds until the cargo reaches the given fill, 0 if already
+     * reached and {@link Long#MAX_VALUE} if the cargo is not filling up.
+     */
+    public long timeToFill(double fill) {
+        int max = this.getMaxCargo();
+        int remaining = (int) Math.ceil(fill * max) - this.getCargo();
+        if (remaining <= 0) {
+            return 0L;
+        }
+        if (this.fillRate <= 0.0) {
+            return Long.MAX_VALUE;
+        }
+        return (long) (remaining / this.fillRate * 60_000.0);
+    }
+
+    /**
+     * Decides how the cargo should be freed for the given sell threshold.
+     */
+    public Action decide(double sellTrigger) {
+        int cargo = this.getCargo();
+        if (this.fill(cargo) < sellTrigger) {
+            this.refineRequested = false;
+            this.refineFailed = false;
+            this.refineSince = 0L;
+            return Action.NONE;
+        }
+
+        if (!this.isRefinerAlive() || this.refineFailed) {
+            return this.sell();
+        }
+
+        if (this.refiner.isRefining()) {
+            return this.holdRefine(cargo); // Wait for the pending refine to land
+        }
+
+        // Refine first if that alone brings the cargo under the threshold
+        int projected = cargo - this.refiner.refinableCargo();
+        if (this.fill(projected) >= sellTrigger) {
+            return this.sell();
+        }
+        this.refineRequested = true;
+        return this.holdRefine(cargo);
+    }
+
+    /**
+     * Keeps the refine decision while the cargo drops, and gives up on it once
+     * it was held for too long without progress.
+     */
+    private Action holdRefine(int cargo) {
+        long now = this.clock.millis();
+        if (this.refineSince == 0L || cargo < this.refineCargo) {
+            this.refineSince = now;
+            this.refineCargo = cargo;
+        } else if (now - this.refineSince > REFINE_HOLD_MS) {
+            this.refineFailed();
+            return this.sell();
+        }
+        return Action.REFINE;
+    }
+
+    private Action sell() {
+        this.refineRequested = false;
+        this.refineSince = 0L;
+        return Action.SELL;
+    }
+
+    /**
+     * Picks the mode of the chain that frees cargo soonest, earlier modes win
+     * ties. Returns null if none is available.
+     *
+     * @param eta estimated milliseconds until each mode frees cargo, indexed by
+     *            ordinal, {@link Long#MAX_VALUE} when unavailable
+     */
+    public SellMode soonest(List<SellMode> chain, long[] eta) {
+        SellMode best = null;
+        long bestEta = Long.MAX_VALUE;
+        for (SellMode mode : chain) {
+            long modeEta = eta[mode.ordinal()];
+            if (modeEta < bestEta) {
+                bestEta = modeEta;
+                best = mode;
+            }
+        }
+        return best;
+    }
+
+    private boolean isRefinerAlive() {
+        return this.refiner != null && this.clock.millis() - this.lastRefinerTick <= REFINER_ALIVE_MS;
+    }
+
+    private double fill(int cargo) {
+        int max = this.getMaxCargo();
+        if (max <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, Math.max(0.0, (double) cargo / max));
+    }
+}
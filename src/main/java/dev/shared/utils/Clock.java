@@ -0,0 +1,45 @@
+package dev.shared.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Time source of the plugin.
+ * <p>
+ * Features and helpers read the time from the shared clock instead of
+ * {@code System.currentTimeMillis()}, so simulations and replays can run them
+ * on a {@link FakeClock} or an {@link AcceleratedClock} and skip idle time.
+ * The bot creates the real clock with {@code api.requireInstance(Clock.class)},
+ * simulations register their own instance in its place.
+ */
+public class Clock {
+
+    /**
+     * Current time in milliseconds since the epoch.
+     */
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Current local date and time.
+     */
+    public LocalDateTime dateTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(this.millis()), ZoneId.systemDefault());
+    }
+
+    /**
+     * New timer on this clock, replaces {@code eu.darkbot.util.Timer.get()}.
+     */
+    public ClockTimer timer() {
+        return new ClockTimer(this, 0L);
+    }
+
+    /**
+     * New timer on this clock with a default duration.
+     */
+    public ClockTimer timer(long timeMs) {
+        return new ClockTimer(this, timeMs);
+    }
+}
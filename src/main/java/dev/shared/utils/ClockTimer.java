@@ -0,0 +1,62 @@
+package dev.shared.utils;
+
+/**
+ * Timer reading a {@link Clock}, with the semantics of
+ * {@code eu.darkbot.util.Timer}: it is armed once activated until disarmed,
+ * and active until its duration elapsed.
+ */
+public class ClockTimer {
+
+    private final Clock clock;
+    private final long time; // Default duration
+    private long until;
+    private boolean armed;
+
+    ClockTimer(Clock clock, long time) {
+        this.clock = clock;
+        this.time = time;
+    }
+
+    public void activate() {
+        this.activate(this.time);
+    }
+
+    public void activate(long timeMs) {
+        this.until = this.clock.millis() + timeMs;
+        this.armed = true;
+    }
+
+    /**
+     * Activates the timer if it is inactive, returns true if it did.
+     */
+    public boolean tryActivate() {
+        if (this.isActive()) {
+            return false;
+        }
+        this.activate();
+        return true;
+    }
+
+    public void disarm() {
+        this.armed = false;
+    }
+
+    public boolean isArmed() {
+        return this.armed;
+    }
+
+    public boolean isActive() {
+        return this.armed && this.clock.millis() < this.until;
+    }
+
+    public boolean isInactive() {
+        return !this.isActive();
+    }
+
+    /**
+     * Time until the timer becomes inactive, 0 when it already is.
+     */
+    public long getRemainingTime() {
+        return this.isActive() ? this.until - this.clock.millis() : 0L;
+    }
+}
@@ -0,0 +1,15 @@
+package dev.shared.utils;
+
+/**
+ * Opt-in telemetry of the shared utilities (tick times, rule counters...).
+ * Start the bot with {@code -Dshared.debug=on} to log it, only events are
+ * logged otherwise.
+ */
+public final class Debug {
+
+    public static final boolean ENABLED = "on".equalsIgnoreCase(System.getProperty("shared.debug"));
+
+    private Debug() {
+        // Prevent instantiation
+    }
+}
@@ -0,0 +1,26 @@
+package dev.shared.utils;
+
+/**
+ * Clock that only moves when told to, for simulations and replays.
+ */
+public class FakeClock extends Clock {
+
+    private long now;
+
+    public FakeClock(long start) {
+        this.now = start;
+    }
+
+    @Override
+    public long millis() {
+        return this.now;
+    }
+
+    public void set(long millis) {
+        this.now = millis;
+    }
+
+    public void advance(long millis) {
+        this.now += millis;
+    }
+}
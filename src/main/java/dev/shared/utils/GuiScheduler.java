@@ -0,0 +1,219 @@
+package dev.shared.utils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import eu.darkbot.api.game.other.GameMap;
+import eu.darkbot.api.managers.HeroAPI;
+import eu.darkbot.api.managers.StarSystemAPI;
+
+/**
+ * Shared scheduler for GUI maintenance rules (closing offers, alerts...).
+ * <p>
+ * Each rule declares its poll cadence, how many negative checks it takes to
+ * back off, and the events that make it run immediately. Rules are spread over
+ * time and at most one rule runs per tick, instead of every feature polling its
+ * GUI on every tick. Obtain the shared instance with
+ * {@code api.requireInstance(GuiScheduler.class)}.
+ */
+public class GuiScheduler {
+
+    private static final long STAGGER_MS = 250L; // Offset between the first runs of the rules
+    private static final long RULE_ALIVE_MS = 2_000L; // Rules of features not ticking are skipped
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+
+    private final HeroAPI hero;
+    private final StarSystemAPI starSystem;
+    private final Clock clock;
+    private final TickScheduler ticks;
+    private final List<Rule> rules = new ArrayList<>();
+
+    private long lastTick = -1L;
+    private GameMap lastMap;
+    private long lastHeroAddress;
+    private long lastReport;
+
+    public enum Trigger {
+        MAP_CHANGE,
+        RELOAD,
+        GG_ENTER
+    }
+
+    /**
+     * Check run by a rule.
+     */
+    @FunctionalInterface
+    public interface Check {
+        /**
+         * Runs the check, returns true on a hit (the GUI needed an action).
+         *
+         * @param triggered true when the run was caused by a trigger instead of the
+         *                  cadence
+         */
+        boolean run(boolean triggered);
+    }
+
+    public GuiScheduler(HeroAPI hero, StarSystemAPI starSystem, Clock clock, TickScheduler ticks) {
+        this.hero = hero;
+        this.starSystem = starSystem;
+        this.clock = clock;
+        this.ticks = ticks;
+        this.lastReport = clock.millis();
+    }
+
+    /**
+     * Registers a rule, its first run is staggered after the existing ones.
+     */
+    public Rule register(String name, long cadenceMs, int backOffAfter, long maxIntervalMs,
+            EnumSet<Trigger> triggers, Check check) {
+        Rule rule = new Rule(name, cadenceMs, backOffAfter, maxIntervalMs, triggers, check);
+        rule.nextRun = this.clock.millis() + this.rules.size() * STAGGER_MS;
+        this.rules.add(rule);
+        return rule;
+    }
+
+    /**
+     * Called by the owner of the rule on each of its ticks. Keeps the rule alive
+     * and runs the scheduler once per tick.
+     */
+    public void tick(Rule rule) {
+        long now = this.clock.millis();
+        rule.lastAlive = now;
+        long tick = this.ticks.currentTick();
+        if (tick == this.lastTick) {
+            return; // Already ran in this tick
+        }
+        this.lastTick = tick;
+
+        this.checkTriggers();
+        this.runNext(now);
+        this.report(now);
+    }
+
+    /**
+     * Makes the rule run as soon as possible with {@code triggered} set.
+     */
+    public void fire(Rule rule) {
+        rule.triggered = true;
+        rule.nextRun = 0L;
+    }
+
+    private void checkTriggers() {
+        GameMap map = this.starSystem.getCurrentMap();
+        long heroAddress = this.hero.getAddress();
+
+        if (this.lastHeroAddress != 0L && heroAddress != this.lastHeroAddress) {
+            this.fireAll(Trigger.RELOAD);
+        }
+        if (this.lastMap != null && map != this.lastMap) {
+            this.fireAll(Trigger.MAP_CHANGE);
+            if (map != null && map.isGG()) {
+                this.fireAll(Trigger.GG_ENTER);
+            }
+        }
+        this.lastMap = map;
+        this.lastHeroAddress = heroAddress;
+    }
+
+    private void fireAll(Trigger trigger) {
+        for (Rule rule : this.rules) {
+            if (rule.triggers.contains(trigger)) {
+                this.fire(rule);
+            }
+        }
+    }
+
+    // Run the most overdue live rule, one per tick keeps the work spread out
+    private void runNext(long now) {
+        Rule next = null;
+        for (Rule rule : this.rules) {
+            if (now - rule.lastAlive > RULE_ALIVE_MS || rule.nextRun > now) {
+                continue;
+            }
+            if (next == null || rule.nextRun < next.nextRun) {
+                next = rule;
+            }
+        }
+        if (next != null) {
+            next.run(now);
+        }
+    }
+
+    private void report(long now) {
+        if (!Debug.ENABLED || now - this.lastReport < REPORT_INTERVAL_MS) {
+            return;
+        }
+        List<String> parts = new ArrayList<>();
+        for (Rule rule : this.rules) {
+            if (rule.hits + rule.misses > 0) {
+                parts.add(rule.describe());
+                rule.hits = 0;
+                rule.misses = 0;
+            }
+        }
+        if (!parts.isEmpty()) {
+            System.out.println("GUI scheduler: " + String.join(", ", parts));
+        }
+        this.lastReport = now;
+    }
+
+    /**
+     * A GUI rule with its own cadence, back-off and counters.
+     */
+    public static final class Rule {
+        private final String name;
+        private final long cadenceMs;
+        private final int backOffAfter;
+        private final long maxIntervalMs;
+        private final EnumSet<Trigger> triggers;
+        private final Check check;
+
+        private long interval;
+        private long nextRun;
+        private long lastAlive;
+        private int negativeStreak;
+        private boolean triggered;
+
+        // Counters since the last report
+        private int hits;
+        private int misses;
+
+        private Rule(String name, long cadenceMs, int backOffAfter, long maxIntervalMs,
+                EnumSet<Trigger> triggers, Check check) {
+            this.name = name;
+            this.cadenceMs = cadenceMs;
+            this.backOffAfter = backOffAfter;
+            this.maxIntervalMs = Math.max(cadenceMs, maxIntervalMs);
+            this.triggers = triggers;
+            this.check = check;
+            this.interval = cadenceMs;
+        }
+
+        private void run(long now) {
+            boolean wasTriggered = this.triggered;
+            this.triggered = false;
+
+            if (this.check.run(wasTriggered)) {
+                this.hits++;
+                this.negativeStreak = 0;
+                this.interval = this.cadenceMs;
+            } else {
+                this.misses++;
+                this.negativeStreak++;
+                if (wasTriggered) {
+                    this.interval = this.cadenceMs; // Triggers restart from the base cadence
+                } else if (this.backOffAfter > 0 && this.negativeStreak >= this.backOffAfter) {
+                    this.interval = Math.min(this.maxIntervalMs, this.interval * 2);
+                    this.negativeStreak = 0;
+                }
+            }
+            this.nextRun = now + this.interval;
+        }
+
+        private String describe() {
+            return String.format("%s %d hits/%d misses (every %dms)", this.name, this.hits, this.misses,
+                    this.interval);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.shared.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Idle windows announced by the features, for work that can wait for one.
+ * <p>
+ * A window is a stretch where the hero is busy with something that leaves the
+ * PET idle: travelling to base, waiting for a jump, waiting for boxes... The
+ * owner opens it with its expected length and closes it when done. Closed
+ * windows are learned per source, so an owner without a precise figure can use
+ * {@link #estimate(String, long)}. Users of a window record the time they
+ * reused from it. Obtain the shared instance with
+ * {@code api.requireInstance(IdleWindows.class)}.
+ */
+public class IdleWindows {
+
+    private static final double LENGTH_ALPHA = 0.2;
+    private static final int MIN_LEARNED = 3; // Closed windows before the estimate is trusted
+
+    private final Clock clock;
+    private final Map<String, Source> sources = new LinkedHashMap<>();
+
+    public IdleWindows(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Opens the window of a source, or updates its expected end when open.
+     *
+     * @param expectedMs expected remaining length, 0 if unknown
+     */
+    public void open(String source, long expectedMs) {
+        long now = this.clock.millis();
+        Source s = this.source(source);
+        if (s.openSince < 0) {
+            s.openSince = now;
+            s.windows++;
+        }
+        s.expectedEnd = now + Math.max(0L, expectedMs);
+    }
+
+    /**
+     * Closes the window of a source and learns its length.
+     */
+    public void close(String source) {
+        Source s = this.sources.get(source);
+        if (s == null || s.openSince < 0) {
+            return;
+        }
+        long length = this.clock.millis() - s.openSince;
+        s.idleMs += length;
+        if (s.learned == 0) {
+            s.meanMs = length;
+        } else {
+            s.deviationMs += LENGTH_ALPHA * (Math.abs(length - s.meanMs) - s.deviationMs);
+            s.meanMs += LENGTH_ALPHA * (length - s.meanMs);
+        }
+        s.learned++;
+        s.openSince = -1L;
+    }
+
+    /**
+     * Drops the window of a source without learning it, when it turned out not
+     * to be one.
+     */
+    public void cancel(String source) {
+        Source s = this.sources.get(source);
+        if (s != null && s.openSince >= 0) {
+            s.windows--;
+            s.openSince = -1L;
+        }
+    }
+
+    public boolean isOpen(String source) {
+        Source s = this.sources.get(source);
+        return s != null && s.openSince >= 0;
+    }
+
+    /**
+     * Expected remaining length of an open window, 0 if closed or unknown.
+     */
+    public long remainingMs(String source) {
+        Source s = this.sources.get(source);
+        if (s == null || s.openSince < 0) {
+            return 0L;
+        }
+        return Math.max(0L, s.expectedEnd - this.clock.millis());
+    }
+
+    /**
+     * Open window with the longest expected remaining length, null if none.
+     */
+    public String longestOpen() {
+        String best = null;
+        long bestRemaining = 0L;
+        for (String source : this.sources.keySet()) {
+            long remaining = this.remainingMs(source);
+            if (remaining > bestRemaining) {
+                best = source;
+                bestRemaining = remaining;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Conservative length of the windows of a source, one deviation below the
+     * learned mean, or the fallback until enough windows were seen.
+     */
+    public long estimate(String source, long fallbackMs) {
+        Source s = this.sources.get(source);
+        if (s == null || s.learned < MIN_LEARNED) {
+            return fallbackMs;
+        }
+        return Math.max(0L, (long) (s.meanMs - s.deviationMs));
+    }
+
+    /**
+     * Records idle time of a source put to use.
+     */
+    public void recordUse(String source, long ms) {
+        if (ms > 0) {
+            this.source(source).reusedMs += ms;
+        }
+    }
+
+    /**
+     * Idle and reused time of a source in this session.
+     */
+    public String describe(String source) {
+        Source s = this.source(source);
+        long idle = s.idleMs + (s.openSince >= 0 ? this.clock.millis() - s.openSince : 0L);
+        return String.format(Locale.ROOT, "%s: %d windows, %.1fs reused of %.1f min idle (%.0f%%)", source,
+                s.windows, s.reusedMs / 1e3, idle / 60_000.0, idle > 0 ? 100.0 * s.reusedMs / idle : 0.0);
+    }
+
+    private Source source(String source) {
+        return this.sources.computeIfAbsent(source, k -> new Source());
+    }
+
+    private static final class Source {
+        private long openSince = -1L;
+        private long expectedEnd;
+        private int windows;
+        private long idleMs;
+        private long reusedMs;
+        private int learned;
+        private double meanMs;
+        private double deviationMs;
+    }
+}
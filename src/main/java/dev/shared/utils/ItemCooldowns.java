@@ -0,0 +1,158 @@
+package dev.shared.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import eu.darkbot.api.game.items.Item;
+import eu.darkbot.api.game.items.ItemTimer;
+import eu.darkbot.api.game.items.SelectableItem;
+import eu.darkbot.api.game.items.SelectableItem.Ability;
+import eu.darkbot.api.game.items.SelectableItem.Cpu;
+import eu.darkbot.api.game.items.SelectableItem.Special;
+import eu.darkbot.api.managers.HeroItemsAPI;
+
+/**
+ * Tracks item cooldowns from the in-game item timer instead of wall clock
+ * guesses.
+ * <p>
+ * The remaining time is read once from {@link ItemTimer#getAvailableIn()} and
+ * the item is considered cooling down until that exact moment, so features can
+ * skip all item lookups and use attempts until it becomes ready. Obtain the
+ * shared instance with {@code api.requireInstance(ItemCooldowns.class)}, so
+ * each timer is read once for all the features.
+ */
+public class ItemCooldowns {
+
+    private static final long USE_RECHECK_MS = 250L; // Re-read the timer shortly after a use
+    private static final long MISSING_RECHECK_MS = 5_000L; // Re-check items not found on the bar
+
+    // Display names of the tracked abilities and items (by item id)
+    private static final Map<String, String> LABELS = new HashMap<>();
+
+    static {
+        LABELS.put(Ability.SOLARIS_INC.getId(), "Solaris");
+        LABELS.put(Ability.SOLARIS_PLUS_INCINERATE_PLUS.getId(), "Solaris");
+        LABELS.put("ability_paladin_ripper", "Paladin");
+        LABELS.put(Ability.AEGIS_HP_REPAIR.getId(), "Aegis HP");
+        LABELS.put(Ability.AEGIS_SHIELD_REPAIR.getId(), "Aegis shield");
+        LABELS.put(Ability.AEGIS_REPAIR_POD.getId(), "Aegis pod");
+        LABELS.put(Ability.SOLACE.getId(), "Solace");
+        LABELS.put(Ability.SOLACE_PLUS_NANO_CLUSTER_REPAIRER_PLUS.getId(), "Solace");
+        LABELS.put(Ability.ORCUS_ASSIMILATE.getId(), "Orcus");
+        LABELS.put(Special.EMP_01.getId(), "EMP-01");
+        LABELS.put(Cpu.AJP_01.getId(), "AJP-01");
+        LABELS.put(Cpu.HMD_07.getId(), "HMD-07");
+    }
+
+    private final HeroItemsAPI items;
+    private final Clock clock;
+    private final Map<SelectableItem, Long> readyAt = new LinkedHashMap<>();
+    private final Set<SelectableItem> missing = new HashSet<>();
+
+    public ItemCooldowns(HeroItemsAPI items, Clock clock) {
+        this.items = items;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks if the item is off cooldown. The item timer is only read once the
+     * previously scheduled ready time has passed.
+     */
+    public boolean isReady(SelectableItem item) {
+        if (item == null) {
+            return false;
+        }
+
+        long now = this.clock.millis();
+        Long ready = this.readyAt.get(item);
+        if (ready != null && now < ready) {
+            return false; // Still cooling down, skip item lookup
+        }
+
+        long wakeUp = this.readTimer(item, now);
+        this.readyAt.put(item, wakeUp);
+        return wakeUp <= now;
+    }
+
+    /**
+     * Marks the item as used, so the timer is re-read shortly after.
+     */
+    public void markUsed(SelectableItem item) {
+        if (item != null) {
+            this.readyAt.put(item, this.clock.millis() + USE_RECHECK_MS);
+        }
+    }
+
+    /**
+     * Remaining cooldown of the item in milliseconds (0 if ready or unknown).
+     */
+    public long remainingMs(SelectableItem item) {
+        Long ready = this.readyAt.get(item);
+        if (ready == null) {
+            return 0L;
+        }
+        return Math.max(0L, ready - this.clock.millis());
+    }
+
+    /**
+     * Checks if the item was not found on the bar at the last timer read.
+     */
+    public boolean isMissing(SelectableItem item) {
+        return this.missing.contains(item);
+    }
+
+    /**
+     * Describes the remaining cooldowns of the items, or of every tracked item
+     * when none are given, e.g. "Solaris 12s, EMP-01 3s". Returns an empty
+     * string when nothing is cooling down.
+     */
+    public String describe(SelectableItem... only) {
+        List<SelectableItem> filter = Arrays.asList(only);
+        List<String> parts = new ArrayList<>();
+        for (SelectableItem item : this.readyAt.keySet()) {
+            if (!filter.isEmpty() && !filter.contains(item)) {
+                continue;
+            }
+            long remaining = this.remainingMs(item);
+            if (remaining > USE_RECHECK_MS && !this.missing.contains(item)) {
+                parts.add(String.format("%s %ds", label(item), (remaining + 999L) / 1000L));
+            }
+        }
+        return String.join(", ", parts);
+    }
+
+    /**
+     * Gets the display name of the item.
+     */
+    public static String label(SelectableItem item) {
+        return LABELS.getOrDefault(item.getId(), item.getId());
+    }
+
+    // Read the exact ready time from the item timer
+    private long readTimer(SelectableItem item, long now) {
+        Optional<Item> itemOpt = this.items.getItem(item);
+        if (itemOpt.isEmpty()) {
+            this.missing.add(item);
+            return now + MISSING_RECHECK_MS; // Not on the bar
+        }
+        this.missing.remove(item);
+
+        ItemTimer timer = itemOpt.get().getTimer();
+        if (timer == null) {
+            return now; // Timer not found, assume available
+        }
+
+        double availableIn = timer.getAvailableIn();
+        if (availableIn > 0) {
+            return now + (long) Math.ceil(availableIn * 1000);
+        }
+        return now;
+    }
+}
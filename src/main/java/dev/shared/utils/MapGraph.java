@@ -0,0 +1,104 @@
+package dev.shared.utils;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Portal connections between the regular maps, shared by the features that need
+ * jump distances.
+ */
+public final class MapGraph {
+
+    /**
+     * key: Map Name
+     * value: List of connected maps (reachable via portal)
+     */
+    public static final Map<String, List<String>> CONNECTIONS = Collections.unmodifiableMap(build());
+
+    private MapGraph() {
+        // Prevent instantiation
+    }
+
+    private static Map<String, List<String>> build() {
+        Map<String, List<String>> connections = new HashMap<>();
+
+        // 1-X Maps
+        connections.put("1-1", List.of("1-2"));
+        connections.put("1-2", List.of("1-1", "1-3", "1-4"));
+        connections.put("1-3", List.of("1-2", "2-3", "1-4"));
+        connections.put("1-4", List.of("1-2", "1-3", "4-1", "3-4"));
+        connections.put("1-5", List.of("4-4", "1-6", "1-7", "4-5"));
+        connections.put("1-6", List.of("1-5", "1-8"));
+        connections.put("1-7", List.of("1-5", "1-8"));
+        connections.put("1-8", List.of("1-6", "1-7"));
+
+        // 2-X Maps
+        connections.put("2-1", List.of("2-2"));
+        connections.put("2-2", List.of("2-1", "2-3", "2-4"));
+        connections.put("2-3", List.of("2-2", "2-4", "1-3"));
+        connections.put("2-4", List.of("2-2", "2-3", "3-3", "4-2"));
+        connections.put("2-5", List.of("4-4", "4-5", "2-6", "2-7"));
+        connections.put("2-6", List.of("2-5", "2-8"));
+        connections.put("2-7", List.of("2-5", "2-8"));
+        connections.put("2-8", List.of("2-6", "2-7"));
+
+        // 3-X Maps
+        connections.put("3-1", List.of("3-2"));
+        connections.put("3-2", List.of("3-1", "3-3", "3-4"));
+        connections.put("3-3", List.of("3-2", "3-4", "2-4"));
+        connections.put("3-4", List.of("3-2", "3-3", "4-3", "1-3"));
+        connections.put("3-5", List.of("4-4", "4-5", "3-6", "3-7"));
+        connections.put("3-6", List.of("3-5", "3-8"));
+        connections.put("3-7", List.of("3-5", "3-8"));
+        connections.put("3-8", List.of("3-7", "3-6"));
+
+        // 4-X Maps
+        connections.put("4-1", List.of("4-2", "4-3", "4-4", "1-4"));
+        connections.put("4-2", List.of("4-1", "4-3", "4-4", "2-4"));
+        connections.put("4-3", List.of("4-1", "4-2", "4-4", "3-4"));
+        connections.put("4-4", List.of("4-1", "4-2", "4-3", "1-5", "2-5", "3-5"));
+        connections.put("4-5", List.of("1-5", "2-5", "3-5"));
+        return connections;
+    }
+
+    /**
+     * Number of portal jumps between two maps, or -1 if either map is unknown.
+     */
+    public static int distance(String start, String end) {
+        if (start == null || end == null) {
+            return -1;
+        }
+        Integer jumps = distancesFrom(start).get(end);
+        return jumps == null ? -1 : jumps;
+    }
+
+    /**
+     * Jump distances from the start map to every reachable map.
+     */
+    public static Map<String, Integer> distancesFrom(String start) {
+        if (!CONNECTIONS.containsKey(start)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Integer> distance = new HashMap<>();
+        Queue<String> queue = new ArrayDeque<>();
+        distance.put(start, 0);
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            int next = distance.get(current) + 1;
+            for (String neighbor : CONNECTIONS.getOrDefault(current, Collections.emptyList())) {
+                if (!distance.containsKey(neighbor)) {
+                    distance.put(neighbor, next);
+                    queue.add(neighbor);
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.shared.utils;
+
+import eu.darkbot.api.managers.OreAPI;
+import eu.darkbot.api.managers.OreAPI.Ore;
+
+/**
+ * Snapshot of the ore amounts shared by the cargo features.
+ * <p>
+ * Amounts are kept in an array indexed by ordinal and read from the game at
+ * most once per {@link TickScheduler} tick. Sets of ores are passed around as bitmasks
+ * ({@code 1 << ordinal}), so checking the stock of a plan is a few bit
+ * operations. Obtain the shared instance with
+ * {@code api.requireInstance(OreStock.class)}.
+ */
+public class OreStock {
+
+    private static final Ore[] ORES = Ore.values();
+
+    private final OreAPI ores;
+    private final TickScheduler ticks;
+    private final int[] amounts = new int[ORES.length];
+    private long refreshedTick = -1L;
+
+    public OreStock(OreAPI ores, TickScheduler ticks) {
+        this.ores = ores;
+        this.ticks = ticks;
+    }
+
+    /**
+     * Reads all amounts, unless they were already read in this tick.
+     */
+    public void refresh() {
+        long tick = this.ticks.currentTick();
+        if (tick == this.refreshedTick) {
+            return;
+        }
+        for (Ore ore : ORES) {
+            this.amounts[ore.ordinal()] = this.ores.getAmount(ore);
+        }
+        this.refreshedTick = tick;
+    }
+
+    /**
+     * Amount of the ore in the last snapshot.
+     */
+    public int amount(Ore ore) {
+        return this.amounts[ore.ordinal()];
+    }
+
+    /**
+     * Checks if any ore of the mask is in stock.
+     */
+    public boolean hasAny(int mask) {
+        int remaining = mask;
+        while (remaining != 0) {
+            int ordinal = Integer.numberOfTrailingZeros(remaining);
+            if (this.amounts[ordinal] > 0) {
+                return true;
+            }
+            remaining &= remaining - 1; // Clear the lowest bit
+        }
+        return false;
+    }
+
+    public static int bit(Ore ore) {
+        return 1 << ore.ordinal();
+    }
+
+    /**
+     * First ore of the mask with an ordinal of at least {@code from}, or null.
+     */
+    public static Ore first(int mask, int from) {
+        if (from >= ORES.length) {
+            return null;
+        }
+        int remaining = mask & (-1 << from);
+        return remaining == 0 ? null : ORES[Integer.numberOfTrailingZeros(remaining)];
+    }
+}
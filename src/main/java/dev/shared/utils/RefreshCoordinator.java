@@ -0,0 +1,260 @@
+package dev.shared.utils;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import dev.shared.utils.jfr.ActionTrace;
+import eu.darkbot.api.game.entities.Portal;
+import eu.darkbot.api.game.other.GameMap;
+import eu.darkbot.api.managers.BotAPI;
+import eu.darkbot.api.managers.EntitiesAPI;
+import eu.darkbot.api.managers.HeroAPI;
+import eu.darkbot.api.managers.StarSystemAPI;
+
+/**
+ * Single entry point for game refreshes requested by the features.
+ * <p>
+ * A request stays pending until a safe moment: the hero is not under attack,
+ * no portal jump is running and no blocker (selling, fast travel...) is busy.
+ * Requests made while one is pending are merged into it, refreshes are at
+ * least {@link #MIN_INTERVAL_MS} apart, and requests that could not run in
+ * {@link #MAX_PENDING_MS} are dropped. The downtime of each refresh is measured
+ * until the hero is back on a map, and counted per cause for the day. Features
+ * requesting refreshes call {@link #tick()} on each of their ticks, and learn
+ * when their refresh actually starts through the callback of
+ * {@link #request(String, Runnable)}. Obtain the shared instance with
+ * {@code api.requireInstance(RefreshCoordinator.class)}.
+ */
+public class RefreshCoordinator {
+
+    public static final long MIN_INTERVAL_MS = 90_000L;
+    public static final long MAX_PENDING_MS = 180_000L;
+    private static final long MAX_DOWNTIME_MS = 300_000L; // Refreshes not back by then are not counted
+
+    private final BotAPI bot;
+    private final HeroAPI hero;
+    private final EntitiesAPI entities;
+    private final StarSystemAPI starSystem;
+    private final Clock clock;
+    private final TickScheduler ticks;
+    private final Map<String, BooleanSupplier> blockers = new LinkedHashMap<>();
+    private final Map<String, CauseStats> today = new LinkedHashMap<>();
+
+    private long lastTick = -1L;
+    private LocalDate day;
+
+    // Pending request
+    private String pendingCause;
+    private long pendingSince;
+    private Runnable pendingStarted;
+
+    // Refresh in progress
+    private String refreshCause;
+    private long refreshStart;
+    private long refreshHeroAddress;
+    private long lastRefresh;
+
+    public RefreshCoordinator(BotAPI bot, HeroAPI hero, EntitiesAPI entities, StarSystemAPI starSystem,
+            Clock clock, TickScheduler ticks) {
+        this.bot = bot;
+        this.hero = hero;
+        this.entities = entities;
+        this.starSystem = starSystem;
+        this.clock = clock;
+        this.ticks = ticks;
+        this.day = clock.dateTime().toLocalDate();
+    }
+
+    /**
+     * Registers a condition that delays refreshes while it is true, replacing
+     * the one of the same name (a feature created again).
+     */
+    public void setBlocker(String name, BooleanSupplier busy) {
+        this.blockers.put(name, busy);
+    }
+
+    /**
+     * Requests a refresh, see {@link #request(String, Runnable)}.
+     */
+    public boolean request(String cause) {
+        return this.request(cause, null);
+    }
+
+    /**
+     * Requests a refresh, run now if possible, otherwise on a later tick.
+     *
+     * @param cause   short reason, requests are counted by it
+     * @param started run when the refresh created by this request starts, never
+     *                if the request is merged or dropped
+     * @return true if a new refresh was queued or started, false if the request
+     *         was merged into the pending or running one
+     */
+    public boolean request(String cause, Runnable started) {
+        CauseStats stats = this.stats(cause);
+        stats.requests++;
+        if (this.pendingCause != null || this.refreshCause != null) {
+            stats.merged++; // Served by the pending or running refresh
+            return false;
+        }
+        this.pendingCause = cause;
+        this.pendingSince = this.clock.millis();
+        this.pendingStarted = started;
+        this.update(); // Run it now if possible
+        return true;
+    }
+
+    /**
+     * Runs the pending request when safe and tracks the running refresh, once
+     * per tick whichever feature calls it.
+     */
+    public void tick() {
+        long tick = this.ticks.currentTick();
+        if (tick == this.lastTick) {
+            return; // Already ticked by another feature
+        }
+        this.lastTick = tick;
+        this.update();
+    }
+
+    private void update() {
+        long now = this.clock.millis();
+        this.rollDay();
+
+        if (this.refreshCause != null) {
+            this.trackRefresh(now);
+            return;
+        }
+        if (this.pendingCause == null) {
+            return;
+        }
+        if (now - this.pendingSince > MAX_PENDING_MS) {
+            System.out.println("Refresh coordinator: dropped refresh for " + this.pendingCause
+                    + ", no safe moment found");
+            this.stats(this.pendingCause).expired++;
+            this.pendingCause = null;
+            this.pendingStarted = null;
+            return;
+        }
+        if (this.isRecent(MIN_INTERVAL_MS) || !this.isSafeMoment()) {
+            return;
+        }
+        this.startRefresh(now);
+    }
+
+    /**
+     * Checks if a refresh started within the given time.
+     */
+    public boolean isRecent(long withinMs) {
+        return this.lastRefresh > 0 && this.clock.millis() - this.lastRefresh < withinMs;
+    }
+
+    /**
+     * Refreshes and downtime of the day, by cause.
+     */
+    public String describe() {
+        int refreshes = 0;
+        long downtime = 0;
+        StringBuilder causes = new StringBuilder();
+        for (Map.Entry<String, CauseStats> entry : this.today.entrySet()) {
+            CauseStats stats = entry.getValue();
+            refreshes += stats.refreshes;
+            downtime += stats.downtimeMs;
+            causes.append(String.format(Locale.ROOT, "%n  %s: %d requests, %d merged, %d dropped, %d refreshes,"
+                    + " %.1f min", entry.getKey(), stats.requests, stats.merged, stats.expired, stats.refreshes,
+                    stats.downtimeMs / 60_000.0));
+        }
+        return String.format(Locale.ROOT, "%s: %d refreshes, %.1f min downtime", this.day, refreshes,
+                downtime / 60_000.0) + causes;
+    }
+
+    private boolean isSafeMoment() {
+        if (this.isUnderAttack()) {
+            return false;
+        }
+        for (Portal portal : this.entities.getPortals()) {
+            if (portal.isJumping()) {
+                return false;
+            }
+        }
+        for (BooleanSupplier busy : this.blockers.values()) {
+            if (busy.getAsBoolean()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isUnderAttack() {
+        return this.entities.getShips().stream().anyMatch(ship -> ship.isAttacking(this.hero))
+                || this.entities.getNpcs().stream().anyMatch(npc -> npc.isAttacking(this.hero));
+    }
+
+    private void startRefresh(long now) {
+        String cause = this.pendingCause;
+        ActionTrace.record("RefreshCoordinator", "refresh", cause, now - this.pendingSince);
+        System.out.println("Refresh coordinator: refreshing the game for " + cause);
+        this.pendingCause = null;
+        this.refreshCause = cause;
+        this.refreshStart = now;
+        this.refreshHeroAddress = this.hero.getAddress();
+        this.lastRefresh = now;
+        this.stats(cause).refreshes++;
+        this.bot.handleRefresh();
+
+        Runnable started = this.pendingStarted;
+        this.pendingStarted = null;
+        if (started != null) {
+            started.run();
+        }
+    }
+
+    // The refresh is over once a new hero is on a map
+    private void trackRefresh(long now) {
+        long downtime = now - this.refreshStart;
+        GameMap map = this.starSystem.getCurrentMap();
+        long address = this.hero.getAddress();
+        if (address != 0L && address != this.refreshHeroAddress && map != null && map.getId() > 0) {
+            CauseStats stats = this.stats(this.refreshCause);
+            stats.downtimeMs += downtime;
+            System.out.printf(Locale.ROOT, "Refresh coordinator: back after %.1fs (%s)%n", downtime / 1e3,
+                    this.describeCause(this.refreshCause));
+            this.refreshCause = null;
+        } else if (downtime > MAX_DOWNTIME_MS) {
+            System.out.println("Refresh coordinator: no reload seen for " + this.refreshCause + ", not counted");
+            this.refreshCause = null;
+        }
+    }
+
+    private String describeCause(String cause) {
+        CauseStats stats = this.stats(cause);
+        return String.format(Locale.ROOT, "%s today: %d refreshes, %.1f min", cause, stats.refreshes,
+                stats.downtimeMs / 60_000.0);
+    }
+
+    private void rollDay() {
+        LocalDate date = this.clock.dateTime().toLocalDate();
+        if (date.equals(this.day)) {
+            return;
+        }
+        if (!this.today.isEmpty()) {
+            System.out.println("Refresh coordinator: " + this.describe());
+        }
+        this.today.clear();
+        this.day = date;
+    }
+
+    private CauseStats stats(String cause) {
+        return this.today.computeIfAbsent(cause, c -> new CauseStats());
+    }
+
+    private static final class CauseStats {
+        private int requests;
+        private int merged;
+        private int expired;
+        private int refreshes;
+        private long downtimeMs;
+    }
+}
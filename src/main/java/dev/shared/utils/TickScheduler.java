@@ -0,0 +1,204 @@
+package dev.shared.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Plugin-level scheduler that spreads the periodic work of the features over
+ * ticks.
+ * <p>
+ * Each feature registers a slot with a cadence, a cost and optionally an input
+ * version. A slot runs once its cadence elapsed, is skipped while its input
+ * version is unchanged, and is deferred to the next tick when the tick budget
+ * is already used, so slow-cadence work does not pile up on a single tick.
+ * Ticks are started by the Tick scheduler task, the one caller that runs on
+ * every bot tick.
+ * Tick times are measured and, in debug mode ({@code -Dshared.debug=on}), the
+ * p99 is logged once a minute; start the bot with
+ * {@code -Dshared.tick_scheduler=off} to run every slot on every tick and
+ * compare. Obtain the shared instance with
+ * {@code api.requireInstance(TickScheduler.class)}.
+ */
+public class TickScheduler {
+
+    private static final boolean ENABLED = !"off".equalsIgnoreCase(System.getProperty("shared.tick_scheduler"));
+    private static final int BUDGET_PER_TICK = 4; // Sum of slot costs allowed in one tick
+    private static final long STAGGER_MS = 50L; // Offset between the first runs of the slots
+    private static final int MAX_VERSION_SKIPS = 4; // Run anyway after this many cadences unchanged
+    private static final int SAMPLES = 1024;
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+    private static final long UNCLOCKED_MS = 1_000L; // No tick begun for this long, the task is not running
+
+    private final Clock clock;
+    private final List<Slot> slots = new ArrayList<>();
+
+    // Current tick
+    private long tickNumber;
+    private long lastBegin;
+    private int spent;
+    private long tickNanos;
+
+    // Tick time samples, in nanoseconds
+    private final long[] tickTimes = new long[SAMPLES];
+    private int sampleCount;
+    private int sampleHead;
+    private int ran;
+    private int skipped;
+    private int deferred;
+    private long lastReport;
+
+    public TickScheduler(Clock clock) {
+        this.clock = clock;
+        this.lastReport = clock.millis();
+    }
+
+    /**
+     * Registers a slot.
+     *
+     * @param cadenceMs minimum time between two runs
+     * @param cost      share of the tick budget used by a run
+     * @param version   input version, the run is skipped while it is unchanged
+     *                  (null to always run when due)
+     */
+    public Slot register(String name, long cadenceMs, int cost, LongSupplier version) {
+        Slot slot = new Slot(name, cadenceMs, cost, version);
+        long offset = cadenceMs > 0 ? (this.slots.size() * STAGGER_MS) % cadenceMs : 0L;
+        slot.nextRun = this.clock.millis() + offset;
+        this.slots.add(slot);
+        return slot;
+    }
+
+    /**
+     * Starts a new tick, called once per bot tick by the tick scheduler task.
+     */
+    public void beginTick() {
+        this.endTick();
+        this.lastBegin = this.clock.millis();
+    }
+
+    /**
+     * Number of the current tick. Shared instances called by several features
+     * compare it to do their work once per tick, whatever the milliseconds of
+     * the calls. Without the task every call is a new tick, so the work is
+     * redone rather than skipped.
+     */
+    public long currentTick() {
+        if (!this.isClocked()) {
+            this.tickNumber++;
+        }
+        return this.tickNumber;
+    }
+
+    // Ticks are only known while the task calls beginTick
+    private boolean isClocked() {
+        return this.lastBegin > 0 && this.clock.millis() - this.lastBegin <= UNCLOCKED_MS;
+    }
+
+    /**
+     * Runs the work of the slot if it is due in this tick.
+     */
+    public void run(Slot slot, Runnable work) {
+        if (ENABLED && !this.isDue(slot)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            this.tickNanos += System.nanoTime() - start;
+        }
+    }
+
+    private boolean isDue(Slot slot) {
+        long now = this.clock.millis();
+        if (now < slot.nextRun) {
+            return false;
+        }
+
+        if (slot.version != null) {
+            long version = slot.version.getAsLong();
+            if (slot.hasRun && version == slot.lastVersion && slot.versionSkips < MAX_VERSION_SKIPS) {
+                slot.versionSkips++;
+                slot.nextRun = now + slot.cadenceMs;
+                this.skipped++;
+                return false; // Inputs unchanged
+            }
+            slot.lastVersion = version;
+        }
+
+        if (this.isClocked() && this.spent > 0 && this.spent + slot.cost > BUDGET_PER_TICK) {
+            this.deferred++;
+            return false; // Stays due, runs in the next tick
+        }
+
+        this.spent += slot.cost;
+        slot.hasRun = true;
+        slot.versionSkips = 0;
+        slot.nextRun = now + slot.cadenceMs;
+        this.ran++;
+        return true;
+    }
+
+    private void endTick() {
+        this.tickTimes[this.sampleHead] = this.tickNanos;
+        this.sampleHead = (this.sampleHead + 1) % SAMPLES;
+        this.sampleCount = Math.min(SAMPLES, this.sampleCount + 1);
+
+        this.tickNumber++;
+        this.spent = 0;
+        this.tickNanos = 0;
+        this.report();
+    }
+
+    private void report() {
+        long now = this.clock.millis();
+        if (!Debug.ENABLED || now - this.lastReport < REPORT_INTERVAL_MS || this.sampleCount == 0) {
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(this.tickTimes, this.sampleCount);
+        Arrays.sort(sorted);
+        System.out.printf("Tick scheduler (%s): p50 %.3fms, p99 %.3fms over %d ticks | ran %d, skipped %d, deferred %d%n",
+                ENABLED ? "on" : "off", percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                this.sampleCount, this.ran, this.skipped, this.deferred);
+
+        this.ran = 0;
+        this.skipped = 0;
+        this.deferred = 0;
+        this.lastReport = now;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Periodic work of one feature.
+     */
+    public static final class Slot {
+        private final String name;
+        private final long cadenceMs;
+        private final int cost;
+        private final LongSupplier version;
+
+        private long nextRun;
+        private long lastVersion;
+        private int versionSkips;
+        private boolean hasRun;
+
+        private Slot(String name, long cadenceMs, int cost, LongSupplier version) {
+            this.name = name;
+            this.cadenceMs = cadenceMs;
+            this.cost = Math.max(1, cost);
+            this.version = version;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+    }
+}
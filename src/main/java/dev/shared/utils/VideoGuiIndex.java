@@ -0,0 +1,129 @@
+package dev.shared.utils;
+
+import java.util.BitSet;
+
+import eu.darkbot.api.game.other.Gui;
+import eu.darkbot.api.managers.GameScreenAPI;
+
+/**
+ * Index of the {@code videoN} GUIs used by alert windows.
+ * <p>
+ * A full scan looks up every id of the range once and remembers the ids that
+ * were visible; regular checks only look up those known ids. The learned id
+ * range is scanned first on the next full scan, since alerts tend to reuse
+ * nearby ids.
+ */
+public class VideoGuiIndex {
+
+    private static final String PREFIX = "video";
+
+    private final GameScreenAPI gameScreen;
+    private final int start;
+    private final String[] names; // Built once, no string building per lookup
+    private final BitSet known = new BitSet(); // Offsets of the ids seen visible
+    private int learnedMin = -1;
+    private int learnedMax = -1;
+
+    // Lookup counters
+    private int cycleLookups;
+    private long totalLookups;
+    private int cycles;
+
+    public VideoGuiIndex(GameScreenAPI gameScreen, int start, int end) {
+        this.gameScreen = gameScreen;
+        this.start = start;
+        this.names = new String[end - start];
+    }
+
+    /**
+     * Finds a visible alert among the known ids.
+     */
+    public Gui findKnown() {
+        this.beginCycle();
+        for (int offset = this.known.nextSetBit(0); offset >= 0; offset = this.known.nextSetBit(offset + 1)) {
+            Gui gui = this.lookup(offset);
+            if (isVisible(gui)) {
+                return gui;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scans the whole range, learning every visible id, and returns the first
+     * visible alert.
+     */
+    public Gui fullScan() {
+        this.beginCycle();
+        if (this.learnedMin < 0) {
+            return this.scan(0, this.names.length, null);
+        }
+        int min = this.learnedMin;
+        int max = this.learnedMax;
+        Gui first = this.scan(min, max + 1, null);
+        first = this.scan(0, min, first);
+        return this.scan(max + 1, this.names.length, first);
+    }
+
+    public int knownCount() {
+        return this.known.cardinality();
+    }
+
+    public int getCycleLookups() {
+        return this.cycleLookups;
+    }
+
+    /**
+     * Describes the lookups since the last call and resets the counters.
+     */
+    public String drainStats() {
+        String stats = String.format("%d lookups in %d cycles (%.1f per cycle, full scan %d), %d known ids",
+                this.totalLookups, this.cycles, this.cycles > 0 ? (double) this.totalLookups / this.cycles : 0.0,
+                this.names.length, this.knownCount());
+        this.totalLookups = 0;
+        this.cycles = 0;
+        return stats;
+    }
+
+    private Gui scan(int from, int to, Gui first) {
+        for (int offset = from; offset < to; offset++) {
+            Gui gui = this.lookup(offset);
+            if (isVisible(gui)) {
+                this.learn(offset);
+                if (first == null) {
+                    first = gui;
+                }
+            }
+        }
+        return first;
+    }
+
+    private void learn(int offset) {
+        this.known.set(offset);
+        this.learnedMin = this.learnedMin < 0 ? offset : Math.min(this.learnedMin, offset);
+        this.learnedMax = Math.max(this.learnedMax, offset);
+    }
+
+    private Gui lookup(int offset) {
+        String name = this.names[offset];
+        if (name == null) {
+            name = PREFIX + (this.start + offset);
+            this.names[offset] = name;
+        }
+        this.cycleLookups++;
+        this.totalLookups++;
+        return this.gameScreen.getGui(name);
+    }
+
+    private void beginCycle() {
+        this.cycleLookups = 0;
+        this.cycles++;
+    }
+
+    /**
+     * Checks if the GUI exists and is visible (negative X means off-screen).
+     */
+    public static boolean isVisible(Gui gui) {
+        return gui != null && gui.getWidth() > 0 && gui.getX() > 0;
+    }
+}
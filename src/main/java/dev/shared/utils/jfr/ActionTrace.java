@@ -0,0 +1,22 @@
+package dev.shared.utils.jfr;
+
+/**
+ * Records one-off feature decisions as Java Flight Recorder events, next to
+ * the state spans of {@link StateTrace}.
+ */
+public final class ActionTrace {
+
+    private ActionTrace() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Records the action with how long its condition lasted, in milliseconds
+     * (0 if not applicable).
+     */
+    public static void record(String feature, String action, String cause, long elapsedMs) {
+        if (JfrSupport.AVAILABLE) {
+            JfrEvents.action(feature, action, cause, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package dev.shared.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One-off decision of a feature, such as a refresh or a reload.
+ */
+@Name("dev.shared.FeatureAction")
+@Label("Feature Action")
+@Category({ "SharedPlugin", "Features" })
+@Description("Decision taken by a feature")
+@StackTrace(false)
+class FeatureActionEvent extends Event {
+
+    @Label("Feature")
+    String feature;
+
+    @Label("Action")
+    String action;
+
+    @Label("Cause")
+    String cause;
+
+    @Label("Elapsed")
+    @Description("Time the condition behind the action lasted")
+    @Timespan(Timespan.MILLISECONDS)
+    long elapsed;
+}
@@ -0,0 +1,37 @@
+package dev.shared.utils.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time a feature state machine spent in one state, from entering it until the
+ * next transition.
+ */
+@Name("dev.shared.FeatureState")
+@Label("Feature State")
+@Category({ "SharedPlugin", "Features" })
+@Description("Time spent by a feature state machine in a state")
+@StackTrace(false)
+class FeatureStateEvent extends Event {
+
+    @Label("Feature")
+    String feature;
+
+    @Label("Machine")
+    @Description("State machine of the feature, e.g. state or mode")
+    String machine;
+
+    @Label("State")
+    String state;
+
+    @Label("Cause")
+    @Description("Why the state was entered")
+    String cause;
+
+    @Label("Next State")
+    String next;
+}
@@ -0,0 +1,49 @@
+package dev.shared.utils.jfr;
+
+/**
+ * The only class touching the event types, loaded once
+ * {@link JfrSupport#AVAILABLE} is checked.
+ */
+final class JfrEvents {
+
+    private JfrEvents() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Commits the open state event and opens the one of the new state, returns
+     * null when not recording.
+     */
+    static Object transition(Object open, String feature, String machine, String state, String cause) {
+        if (open != null) {
+            FeatureStateEvent event = (FeatureStateEvent) open;
+            event.next = state;
+            event.commit();
+        }
+        if (state == null) {
+            return null;
+        }
+        FeatureStateEvent event = new FeatureStateEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.feature = feature;
+        event.machine = machine;
+        event.state = state;
+        event.cause = cause;
+        event.begin();
+        return event;
+    }
+
+    static void action(String feature, String action, String cause, long elapsedMs) {
+        FeatureActionEvent event = new FeatureActionEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.feature = feature;
+        event.action = action;
+        event.cause = cause;
+        event.elapsed = elapsedMs;
+        event.commit();
+    }
+}
@@ -0,0 +1,23 @@
+package dev.shared.utils.jfr;
+
+/**
+ * Detects the flight recorder without loading it, runtimes built without the
+ * {@code jdk.jfr} module skip every event.
+ */
+final class JfrSupport {
+
+    static final boolean AVAILABLE = detect();
+
+    private JfrSupport() {
+        // Prevent instantiation
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dev.shared.utils.jfr;
+
+/**
+ * Traces a feature state machine as Java Flight Recorder events, one event
+ * per visited state spanning the time spent in it, with the cause of the
+ * transition. Features call {@link #enter} on every state change only.
+ * <p>
+ * When no recording is running a transition costs an enabled check, and
+ * nothing at all on runtimes without the flight recorder.
+ */
+public final class StateTrace {
+
+    private final String feature;
+    private final String machine;
+    private Object span; // Event of the current state, null while not recording
+
+    public StateTrace(String feature, String machine) {
+        this.feature = feature;
+        this.machine = machine;
+    }
+
+    /**
+     * Records the transition to the state, null to close the current state
+     * without entering another.
+     */
+    public void enter(Enum<?> state, String cause) {
+        if (!JfrSupport.AVAILABLE) {
+            return;
+        }
+        this.span = JfrEvents.transition(this.span, this.feature, this.machine,
+                state != null ? state.name() : null, cause);
+    }
+}
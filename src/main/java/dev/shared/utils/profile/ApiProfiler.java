@@ -0,0 +1,334 @@
+package dev.shared.utils.profile;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import dev.shared.utils.Clock;
+import eu.darkbot.api.PluginAPI;
+
+/**
+ * Opt-in profiler of the API calls made by each feature.
+ * <p>
+ * Start the bot with {@code -Dshared.api_profiler=on} and every feature that
+ * wraps its {@link PluginAPI} with {@link #wrap} receives proxies of the
+ * managers it requires, including interfaces obtained as instances like
+ * {@code IDarkBotAPI}, so native reads are counted per feature too. The
+ * proxies count and time each call by feature and
+ * method; once a minute the heaviest ones are appended to
+ * {@code logs/shared_api_profile.log}, and the API profiler menu shows the last
+ * minute and the session totals. Only calls on the managers themselves are
+ * measured, not on the entities and other objects they return. Proxies passed
+ * back to a manager are unwrapped before the call; entity calls that compare
+ * by identity, like {@code ship.isAttacking(hero)}, take the manager from
+ * {@link #unwrap}. When the profiler is off {@link #wrap} returns the API unchanged. Obtain the shared
+ * instance with {@code api.requireInstance(ApiProfiler.class)}.
+ */
+public class ApiProfiler {
+
+    private static final boolean ENABLED = "on".equalsIgnoreCase(System.getProperty("shared.api_profiler"));
+    private static final Path FILE = Paths.get("logs", "shared_api_profile.log");
+    private static final long REPORT_INTERVAL_MS = 60_000L;
+    private static final int REPORT_LINES = 25;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Clock clock;
+    private final List<Stat> stats = new CopyOnWriteArrayList<>();
+    private final long sessionStart;
+    private volatile long minuteStart;
+    private volatile String lastReport;
+    private boolean failed = false;
+
+    public ApiProfiler(Clock clock) {
+        this.clock = clock;
+        this.sessionStart = clock.millis();
+        this.minuteStart = this.sessionStart;
+    }
+
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wraps the API so the managers required through it are profiled under the
+     * feature name, or returns it unchanged when the profiler is off.
+     */
+    public PluginAPI wrap(PluginAPI api, String feature) {
+        if (!ENABLED || (Proxy.isProxyClass(api.getClass())
+                && Proxy.getInvocationHandler(api) instanceof PluginHandler)) {
+            return api;
+        }
+        return (PluginAPI) Proxy.newProxyInstance(PluginAPI.class.getClassLoader(),
+                new Class<?>[] { PluginAPI.class }, new PluginHandler(api, feature));
+    }
+
+    /**
+     * Manager behind a profiler proxy, or the argument itself if it is not one.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T unwrap(T api) {
+        if (api != null && Proxy.isProxyClass(api.getClass())
+                && Proxy.getInvocationHandler(api) instanceof ManagerHandler) {
+            return (T) ((ManagerHandler) Proxy.getInvocationHandler(api)).target;
+        }
+        return api;
+    }
+
+    /**
+     * Report of the last complete minute, null before the first one.
+     */
+    public String getLastReport() {
+        return this.lastReport;
+    }
+
+    /**
+     * Report of the calls since the bot started.
+     */
+    public synchronized String getSessionReport() {
+        List<Row> rows = new ArrayList<>();
+        for (Stat stat : this.stats) {
+            rows.add(stat.sessionRow());
+        }
+        return this.format("Session since " + this.formatTime(this.sessionStart), rows,
+                this.clock.millis() - this.sessionStart);
+    }
+
+    /**
+     * Appends the session totals to the dump file.
+     */
+    public synchronized Path dumpSession() {
+        return this.append(this.getSessionReport()) ? FILE.toAbsolutePath() : null;
+    }
+
+    private void record(Stat stat, long nanos) {
+        stat.add(nanos);
+        long now = this.clock.millis();
+        if (now - this.minuteStart >= REPORT_INTERVAL_MS) {
+            this.rollMinute(now);
+        }
+    }
+
+    private synchronized void rollMinute(long now) {
+        if (now - this.minuteStart < REPORT_INTERVAL_MS) {
+            return; // Already rolled by another thread
+        }
+        List<Row> rows = new ArrayList<>();
+        long calls = 0;
+        for (Stat stat : this.stats) {
+            Row row = stat.rollMinute();
+            if (row.calls > 0) {
+                rows.add(row);
+                calls += row.calls;
+            }
+        }
+        String report = this.format("Minute ending " + this.formatTime(now), rows, now - this.minuteStart);
+        this.lastReport = report;
+        this.minuteStart = now;
+        if (this.append(report)) {
+            System.out.printf("API profiler: %d calls in the last minute, see %s%n", calls, FILE);
+        }
+    }
+
+    private String format(String title, List<Row> rows, long periodMs) {
+        rows.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        double seconds = Math.max(1L, periodMs) / 1e3;
+        long calls = 0;
+        long nanos = 0;
+        for (Row row : rows) {
+            calls += row.calls;
+            nanos += row.nanos;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%s: %d calls, %.1f calls/s, %.1fms total%n", title, calls,
+                calls / seconds, nanos / 1e6));
+        sb.append(String.format(Locale.ROOT, "%-18s %-40s %9s %9s %10s %9s %9s%n", "Feature", "Call", "Calls",
+                "Calls/s", "Total ms", "Avg us", "Max us"));
+        for (int i = 0; i < rows.size() && i < REPORT_LINES; i++) {
+            Row row = rows.get(i);
+            sb.append(String.format(Locale.ROOT, "%-18s %-40s %9d %9.1f %10.1f %9.1f %9.1f%n", row.stat.feature,
+                    row.stat.call, row.calls, row.calls / seconds, row.nanos / 1e6, row.nanos / 1e3 / row.calls,
+                    row.max / 1e3));
+        }
+        if (rows.size() > REPORT_LINES) {
+            sb.append("... ").append(rows.size() - REPORT_LINES).append(" more").append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private String formatTime(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).format(TIME_FORMAT);
+    }
+
+    private boolean append(String report) {
+        if (this.failed) {
+            return false;
+        }
+        try {
+            Files.createDirectories(FILE.getParent());
+            Files.write(FILE, (report + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return true;
+        } catch (IOException e) {
+            System.out.println("API profiler: unable to write " + FILE + ": " + e.getMessage());
+            this.failed = true; // Do not retry every minute
+            return false;
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Plugin API of one feature, handing out profiled managers. Instances are
+     * only proxied when required by interface, plugin classes stay unwrapped.
+     */
+    private final class PluginHandler implements InvocationHandler {
+        private final PluginAPI api;
+        private final String feature;
+        private final Map<Class<?>, Object> managers = new ConcurrentHashMap<>();
+
+        PluginHandler(PluginAPI api, String feature) {
+            this.api = api;
+            this.feature = feature;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(this.api, method, args);
+            String name = method.getName();
+            if (result != null && (name.equals("requireAPI") || name.equals("getAPI")
+                    || name.equals("requireInstance"))
+                    && args != null && args.length == 1 && args[0] instanceof Class
+                    && ((Class<?>) args[0]).isInterface()) {
+                Class<?> type = (Class<?>) args[0];
+                Object target = result;
+                return this.managers.computeIfAbsent(type, t -> Proxy.newProxyInstance(t.getClassLoader(),
+                        new Class<?>[] { t }, new ManagerHandler(target, this.feature, t.getSimpleName())));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times the calls on one manager of one feature.
+     */
+    private final class ManagerHandler implements InvocationHandler {
+        private final Object target;
+        private final String feature;
+        private final String api;
+        private final Map<Method, Stat> methodStats = new ConcurrentHashMap<>();
+
+        ManagerHandler(Object target, String feature, String api) {
+            this.target = target;
+            this.feature = feature;
+            this.api = api;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return call(this.target, method, args); // equals, hashCode, toString
+            }
+            if (args != null) {
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = unwrap(args[i]); // The target compares entities by identity
+                }
+            }
+            Stat stat = this.methodStats.get(method);
+            if (stat == null) {
+                stat = this.methodStats.computeIfAbsent(method, m -> {
+                    Stat created = new Stat(this.feature, this.api + "." + m.getName());
+                    ApiProfiler.this.stats.add(created);
+                    return created;
+                });
+            }
+            long start = System.nanoTime();
+            try {
+                return call(this.target, method, args);
+            } finally {
+                ApiProfiler.this.record(stat, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Counters of one method called by one feature.
+     */
+    private static final class Stat {
+        private final String feature;
+        private final String call;
+
+        // Current minute
+        private long calls;
+        private long nanos;
+        private long max;
+
+        // Whole session
+        private long totalCalls;
+        private long totalNanos;
+        private long totalMax;
+
+        Stat(String feature, String call) {
+            this.feature = feature;
+            this.call = call;
+        }
+
+        synchronized void add(long elapsed) {
+            this.calls++;
+            this.nanos += elapsed;
+            this.max = Math.max(this.max, elapsed);
+        }
+
+        synchronized Row rollMinute() {
+            Row row = new Row(this, this.calls, this.nanos, this.max);
+            this.totalCalls += this.calls;
+            this.totalNanos += this.nanos;
+            this.totalMax = Math.max(this.totalMax, this.max);
+            this.calls = 0;
+            this.nanos = 0;
+            this.max = 0;
+            return row;
+        }
+
+        synchronized Row sessionRow() {
+            return new Row(this, this.totalCalls + this.calls, this.totalNanos + this.nanos,
+                    Math.max(this.totalMax, this.max));
+        }
+    }
+
+    private static final class Row {
+        private final Stat stat;
+        private final long calls;
+        private final long nanos;
+        private final long max;
+
+        Row(Stat stat, long calls, long nanos, long max) {
+            this.stat = stat;
+            this.calls = calls;
+            this.nanos = nanos;
+            this.max = max;
+        }
+    }
+}
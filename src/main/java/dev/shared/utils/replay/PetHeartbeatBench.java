@@ -0,0 +1,197 @@
+package dev.shared.utils.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import dev.shared.do_gamer.utils.PetHeartbeat;
+import dev.shared.utils.FakeClock;
+import dev.shared.utils.session.SessionReader;
+import dev.shared.utils.session.TickFrame;
+
+/**
+ * Benchmark of the {@link PetHeartbeat} detector on recorded sessions.
+ * <p>
+ * Frames are fed to the detector as FixPetStuck samples them. The reference is
+ * a slow oracle with hindsight: the PET stayed active but did not move nor
+ * change HP for {@code --oracle} seconds while the hero travelled. Each
+ * detector flag inside such an episode counts as a detection with its
+ * latency from the episode start, any other flag as a false positive.
+ * Sessions recorded before the PET fields (version 1) have no PET data.
+ *
+ * <pre>
+ * java -cp DarkBot.jar:SharedPlugin.jar dev.shared.utils.replay.PetHeartbeatBench \
+ *     [--oracle 10] logs/shared_session.rec
+ * </pre>
+ */
+public class PetHeartbeatBench {
+
+    private static final int FROZEN_DISTANCE = 5;
+    private static final int ORACLE_TRAVEL = 1_000; // Hero path during an episode
+
+    private final long oracleMs;
+    private final FakeClock clock = new FakeClock(0L);
+    private final PetHeartbeat heartbeat = new PetHeartbeat(this.clock);
+
+    private final List<long[]> episodes = new ArrayList<>(); // {start, end}
+    private long[] flags = new long[256];
+    private int flagCount;
+    private boolean flagged;
+
+    // Current frozen run of the oracle
+    private long runStart = -1L;
+    private long runTravel;
+    private final TickFrame last = new TickFrame();
+
+    private long frames;
+    private long activeFrames;
+    private long sessionMs;
+    private long nanos;
+
+    public PetHeartbeatBench(long oracleMs) {
+        this.oracleMs = oracleMs;
+    }
+
+    public void run(Path file) throws IOException {
+        SessionReader reader = new SessionReader(file);
+        TickFrame frame = new TickFrame();
+        long first = -1L;
+        while (reader.next(frame)) {
+            if (first < 0) {
+                first = frame.time;
+            }
+            this.frames++;
+            this.detect(frame);
+            this.oracle(frame);
+            this.last.copyFrom(frame);
+        }
+        this.closeRun(this.last.time);
+        this.runStart = -1L;
+        this.heartbeat.clear();
+        this.flagged = false;
+        if (first >= 0) {
+            this.sessionMs += this.last.time - first;
+        }
+    }
+
+    private void detect(TickFrame frame) {
+        if ((frame.petFlags & TickFrame.PET_ACTIVE) == 0 || frame.mapId != this.last.mapId) {
+            this.heartbeat.clear();
+            this.flagged = false;
+            return;
+        }
+        this.activeFrames++;
+        this.clock.set(frame.time);
+        long start = System.nanoTime();
+        this.heartbeat.sample(frame.time, frame.heroX, frame.heroY, frame.petX, frame.petY, frame.petHp,
+                frame.petGear);
+        boolean stuck = this.heartbeat.isStuck();
+        this.nanos += System.nanoTime() - start;
+
+        if (stuck && !this.flagged) {
+            if (this.flagCount == this.flags.length) {
+                this.flags = Arrays.copyOf(this.flags, this.flagCount * 2);
+            }
+            this.flags[this.flagCount++] = frame.time;
+        }
+        this.flagged = stuck;
+    }
+
+    private void oracle(TickFrame frame) {
+        boolean active = (frame.petFlags & TickFrame.PET_ACTIVE) != 0;
+        boolean frozen = active && (this.last.petFlags & TickFrame.PET_ACTIVE) != 0 && frame.mapId == this.last.mapId
+                && Math.abs(frame.petX - this.last.petX) <= FROZEN_DISTANCE
+                && Math.abs(frame.petY - this.last.petY) <= FROZEN_DISTANCE && frame.petHp == this.last.petHp;
+        if (!frozen) {
+            this.closeRun(frame.time);
+            this.runStart = active ? frame.time : -1L;
+            this.runTravel = 0;
+            return;
+        }
+        if (this.runStart < 0) {
+            this.runStart = this.last.time;
+        }
+        this.runTravel += (long) Math.hypot(frame.heroX - this.last.heroX, frame.heroY - this.last.heroY);
+    }
+
+    private void closeRun(long end) {
+        if (this.runStart >= 0 && end - this.runStart >= this.oracleMs && this.runTravel >= ORACLE_TRAVEL) {
+            this.episodes.add(new long[] { this.runStart, end });
+        }
+    }
+
+    public String describe() {
+        long[] latencies = new long[this.episodes.size()];
+        int detected = 0;
+        int falsePositives = 0;
+        boolean[] hit = new boolean[this.episodes.size()];
+        for (int f = 0; f < this.flagCount; f++) {
+            long time = this.flags[f];
+            int episode = this.episodeAt(time);
+            if (episode < 0) {
+                falsePositives++;
+            } else if (!hit[episode]) {
+                hit[episode] = true;
+                latencies[detected++] = time - this.episodes.get(episode)[0];
+            }
+        }
+
+        double hours = Math.max(1L, this.sessionMs) / 3_600_000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d frames, %d with an active PET, %.1f h recorded%n", this.frames,
+                this.activeFrames, hours));
+        sb.append(String.format(Locale.ROOT, "Oracle episodes (frozen %ds while the hero travelled): %d%n",
+                this.oracleMs / 1_000L, this.episodes.size()));
+        sb.append(String.format(Locale.ROOT, "Detected: %d (%.1f%%)", detected,
+                this.episodes.isEmpty() ? 0.0 : 100.0 * detected / this.episodes.size()));
+        if (detected > 0) {
+            long[] sorted = Arrays.copyOf(latencies, detected);
+            Arrays.sort(sorted);
+            sb.append(String.format(Locale.ROOT, ", latency p50 %.1fs, p90 %.1fs, max %.1fs",
+                    sorted[detected / 2] / 1e3, sorted[Math.min(detected - 1, detected * 9 / 10)] / 1e3,
+                    sorted[detected - 1] / 1e3));
+        }
+        sb.append(System.lineSeparator());
+        sb.append(String.format(Locale.ROOT, "False positives: %d (%.2f per hour)%n", falsePositives,
+                falsePositives / hours));
+        sb.append(String.format(Locale.ROOT, "Detector cost: %.2fus per sample",
+                this.activeFrames == 0 ? 0.0 : this.nanos / 1e3 / this.activeFrames));
+        return sb.toString();
+    }
+
+    private int episodeAt(long time) {
+        for (int i = 0; i < this.episodes.size(); i++) {
+            long[] episode = this.episodes.get(i);
+            if (time >= episode[0] && time <= episode[1]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long oracleMs = 10_000L;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--oracle".equals(args[i]) && i + 1 < args.length) {
+                oracleMs = Long.parseLong(args[++i]) * 1_000L;
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("Usage: PetHeartbeatBench [--oracle seconds] <session>...");
+            System.exit(1);
+        }
+
+        PetHeartbeatBench bench = new PetHeartbeatBench(oracleMs);
+        for (Path file : files) {
+            bench.run(file);
+        }
+        System.out.println(bench.describe());
+    }
+}
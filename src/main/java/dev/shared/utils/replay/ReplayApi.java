@@ -0,0 +1,623 @@
+package dev.shared.utils.replay;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import dev.shared.utils.session.TickFrame;
+import eu.darkbot.api.API;
+import eu.darkbot.api.PluginAPI;
+import eu.darkbot.api.config.ConfigSetting;
+import eu.darkbot.api.extensions.Configurable;
+import eu.darkbot.api.game.entities.Box;
+import eu.darkbot.api.game.entities.Npc;
+import eu.darkbot.api.game.entities.Player;
+import eu.darkbot.api.game.entities.Portal;
+import eu.darkbot.api.game.other.GameMap;
+import eu.darkbot.api.game.other.Locatable;
+import eu.darkbot.api.managers.HeroAPI;
+
+/**
+ * Fake game APIs backed by recorded tick frames.
+ * <p>
+ * APIs are dynamic proxies: queries covered by the recording (hero, target,
+ * map, entities) are answered from the current frame, commands are passed to
+ * the {@link CommandListener} and everything else returns a neutral value
+ * (0, false, empty collections, or a proxy answering the same way). This keeps
+ * the fakes independent of the exact API version the plugin is built against.
+ * A {@link Responder} can model more of the game, it is asked first.
+ */
+public class ReplayApi {
+
+    // Methods recorded as commands, by name
+    private static final Set<String> COMMANDS = new HashSet<>(Arrays.asList(
+            "moveTo", "stopMoving", "setGear", "useItem", "sellOre", "handleRefresh",
+            "setModule", "setMode", "setEnabled"));
+
+    // Entity kinds, in the order of TickFrame's lists
+    private static final Class<?>[] ENTITY_TYPES = { Npc.class, Player.class, Box.class, Portal.class };
+    private static final String[] ENTITY_NAMES = { "npc", "player", "box", "portal" };
+    private static final Object NONE = new Object(); // Marker for calls a node does not answer
+    public static final Object PASS = NONE; // Returned by responders to keep the default answer
+    private static final Map<Method, MethodHandle> DEFAULT_METHODS = new HashMap<>();
+
+    /**
+     * Receives the commands issued by the features.
+     */
+    @FunctionalInterface
+    public interface CommandListener {
+        void command(String api, String method, Object[] args);
+    }
+
+    /**
+     * Answers calls before the recorded frame, returns {@link #PASS} for the
+     * calls it does not model. {@code api} is the name of the proxy: the API
+     * type, {@code map#<id>}, or the name given to {@link #stub}.
+     */
+    @FunctionalInterface
+    public interface Responder {
+        Object respond(String api, Method method, Object[] args);
+    }
+
+    private final CommandListener listener;
+    private final PluginAPI plugin;
+    private final Object hero;
+    private final Map<Class<?>, Object> apis = new HashMap<>();
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+    private final Map<Long, EntityNode> entities = new HashMap<>();
+    private final Map<Integer, GameMap> maps = new HashMap<>();
+    @SuppressWarnings("unchecked")
+    private final List<Object>[] lists = new List[ENTITY_TYPES.length];
+
+    private TickFrame frame = new TickFrame();
+    private Object module;
+    private Responder responder;
+
+    public ReplayApi(CommandListener listener) {
+        this.listener = listener;
+        for (int i = 0; i < this.lists.length; i++) {
+            this.lists[i] = new ArrayList<>();
+        }
+        this.plugin = new PluginNode().view(PluginAPI.class);
+        this.hero = new HeroNode().view(HeroAPI.class);
+        this.apis.put(HeroAPI.class, this.hero);
+    }
+
+    public PluginAPI getPluginApi() {
+        return this.plugin;
+    }
+
+    public Object getModule() {
+        return this.module;
+    }
+
+    public void setModule(Object module) {
+        this.module = module;
+    }
+
+    public void setResponder(Responder responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * Makes the frame the current game state.
+     */
+    public void setFrame(TickFrame frame) {
+        this.frame = frame;
+        TickFrame.EntityList[] frameLists = { frame.npcs, frame.players, frame.boxes, frame.portals };
+        for (int kind = 0; kind < frameLists.length; kind++) {
+            TickFrame.EntityList list = frameLists[kind];
+            List<Object> proxies = this.lists[kind];
+            proxies.clear();
+            for (int i = 0; i < list.count; i++) {
+                proxies.add(this.entity(kind, list.ids[i], i).proxy);
+            }
+        }
+    }
+
+    /**
+     * Fake API of the given type.
+     */
+    public <T> T api(Class<T> type) {
+        Object api = this.apis.get(type);
+        if (api == null) {
+            api = new ApiNode(type.getSimpleName()).view(type);
+            this.apis.put(type, api);
+        }
+        return type.cast(api);
+    }
+
+    /**
+     * Shared instance of the given type, created like the bot does by
+     * resolving the constructor parameters.
+     */
+    public <T> T instance(Class<T> type) {
+        Object instance = this.instances.get(type);
+        if (instance == null) {
+            instance = this.create(type);
+            this.instances.put(type, instance);
+        }
+        return type.cast(instance);
+    }
+
+    /**
+     * Proxy of the given type answered only by the responder, for game objects
+     * the frame does not record.
+     */
+    public <T> T stub(String name, Class<T> type) {
+        return new ApiNode(name).view(type);
+    }
+
+    /**
+     * Map proxy of the given id.
+     */
+    public GameMap map(int id) {
+        return this.maps.computeIfAbsent(id, key -> new MapNode(key).view(GameMap.class));
+    }
+
+    /**
+     * Gives a configurable feature its default config, enabled, and returns
+     * the config (null if the feature has none).
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Object configure(Object feature) {
+        if (!(feature instanceof Configurable)) {
+            return null;
+        }
+        Class<?> type = configType(feature.getClass());
+        if (type == null) {
+            return null;
+        }
+        Object config = newConfig(type);
+        enable(config);
+
+        ConfigSetting<?> setting = (ConfigSetting<?>) Proxy.newProxyInstance(ConfigSetting.class.getClassLoader(),
+                new Class<?>[] { ConfigSetting.class },
+                (proxy, method, args) -> "getValue".equals(method.getName()) ? config : null);
+        ((Configurable) feature).setConfig(setting);
+        return config;
+    }
+
+    // Replays run every given feature, even the ones disabled by default
+    private static void enable(Object config) {
+        try {
+            Field enabled = config.getClass().getField("enabled");
+            if (enabled.getType() == boolean.class) {
+                enabled.setBoolean(config, true);
+            }
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            // No enabled flag, enabled by the feature list
+        }
+    }
+
+    private static Object newConfig(Class<?> type) {
+        try {
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create config " + type.getName(), e);
+        }
+    }
+
+    private static Class<?> configType(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Type itf : c.getGenericInterfaces()) {
+                if (itf instanceof ParameterizedType && ((ParameterizedType) itf).getRawType() == Configurable.class) {
+                    Type arg = ((ParameterizedType) itf).getActualTypeArguments()[0];
+                    return arg instanceof Class ? (Class<?>) arg : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers the shared instance of the given type, before the features
+     * needing it are created.
+     */
+    public <T> void register(Class<T> type, T instance) {
+        this.instances.put(type, instance);
+    }
+
+    private Object create(Class<?> type) {
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length == 0) {
+            throw new IllegalArgumentException("No public constructor in " + type.getName());
+        }
+        // The bot injects the largest constructor
+        Constructor<?> constructor = Collections.max(Arrays.asList(constructors),
+                Comparator.comparingInt(Constructor::getParameterCount));
+        Class<?>[] params = constructor.getParameterTypes();
+        Object[] args = new Object[params.length];
+        for (int i = 0; i < params.length; i++) {
+            args[i] = this.resolve(params[i]);
+        }
+        try {
+            return constructor.newInstance(args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create " + type.getName(), e);
+        }
+    }
+
+    private Object resolve(Class<?> type) {
+        if (type == PluginAPI.class) {
+            return this.plugin;
+        }
+        if (type.isInterface() && API.class.isAssignableFrom(type)) {
+            return this.api(type);
+        }
+        return this.instance(type);
+    }
+
+    private EntityNode entity(int kind, int id, int index) {
+        long key = ((long) kind << 32) | (id & 0xFFFFFFFFL);
+        EntityNode node = this.entities.get(key);
+        if (node == null) {
+            node = new EntityNode(kind, id);
+            this.entities.put(key, node);
+        }
+        node.index = index;
+        return node;
+    }
+
+    private Object findTarget() {
+        int id = this.frame.targetId;
+        if (id == 0) {
+            return null;
+        }
+        // Only ships are targeted
+        TickFrame.EntityList[] ships = { this.frame.npcs, this.frame.players };
+        for (int kind = 0; kind < ships.length; kind++) {
+            TickFrame.EntityList list = ships[kind];
+            for (int i = 0; i < list.count; i++) {
+                if (list.ids[i] == id) {
+                    return this.entity(kind, id, i).proxy;
+                }
+            }
+        }
+        return null;
+    }
+
+    private GameMap currentMap() {
+        return this.map(this.frame.mapId);
+    }
+
+    /**
+     * Proxy handler answering by method name, with neutral values for anything
+     * it does not know.
+     */
+    private abstract class Node implements InvocationHandler {
+        private final Map<Class<?>, Object> views = new HashMap<>();
+
+        abstract Object answer(Method method, Object[] args);
+
+        abstract String describe();
+
+        <T> T view(Class<T> type) {
+            Object view = this.views.get(type);
+            if (view == null) {
+                view = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, this);
+                this.views.put(type, view);
+            }
+            return type.cast(view);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                                && Proxy.getInvocationHandler(args[0]) == this;
+                    case "hashCode":
+                        return System.identityHashCode(this);
+                    default:
+                        return this.describe();
+                }
+            }
+            if (COMMANDS.contains(method.getName())) {
+                this.command(method, args);
+            }
+
+            Object answer = ReplayApi.this.responder != null
+                    ? ReplayApi.this.responder.respond(this.describe(), method, args)
+                    : NONE;
+            if (answer == NONE) {
+                answer = this.answer(method, args);
+            }
+            if (answer != NONE) {
+                return coerce(answer, method.getReturnType());
+            }
+            if (method.isDefault()) {
+                return invokeDefault(proxy, method, args);
+            }
+            return this.fallback(method.getReturnType());
+        }
+
+        private void command(Method method, Object[] args) {
+            if ("setModule".equals(method.getName()) && args != null && args.length == 1) {
+                ReplayApi.this.module = args[0];
+            }
+            ReplayApi.this.listener.command(this.describe(), method.getName(),
+                    args != null ? args : new Object[0]);
+        }
+
+        Object fallback(Class<?> type) {
+            if (type == void.class) {
+                return null;
+            }
+            if (type.isPrimitive()) {
+                return coerce(0, type);
+            }
+            if (type == Optional.class) {
+                return Optional.empty();
+            }
+            if (type == String.class) {
+                return "";
+            }
+            if (Set.class.isAssignableFrom(type)) {
+                return Collections.emptySet();
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                return Collections.emptyList();
+            }
+            if (Map.class.isAssignableFrom(type)) {
+                return Collections.emptyMap();
+            }
+            if (type.isEnum()) {
+                return successOrFirst(type);
+            }
+            if (type.isInterface() && type.getName().startsWith("eu.darkbot.")) {
+                return this.view(type); // Sub-object, answered by the same node
+            }
+            return null;
+        }
+    }
+
+    private final class PluginNode extends Node {
+        @Override
+        Object answer(Method method, Object[] args) {
+            switch (method.getName()) {
+                case "requireAPI":
+                case "getAPI":
+                    return ReplayApi.this.api((Class<?>) args[0]);
+                case "requireInstance":
+                case "getInstance":
+                    return ReplayApi.this.instance((Class<?>) args[0]);
+                default:
+                    return NONE;
+            }
+        }
+
+        @Override
+        String describe() {
+            return "PluginAPI";
+        }
+    }
+
+    /**
+     * Managers other than the hero.
+     */
+    private final class ApiNode extends Node {
+        private final String name;
+
+        ApiNode(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object answer(Method method, Object[] args) {
+            int argc = args != null ? args.length : 0;
+            switch (method.getName()) {
+                case "getModule":
+                    return ReplayApi.this.module;
+                case "getNpcs":
+                    return ReplayApi.this.lists[0];
+                case "getPlayers":
+                case "getShips":
+                    return ReplayApi.this.lists[1];
+                case "getBoxes":
+                    return ReplayApi.this.lists[2];
+                case "getPortals":
+                    return ReplayApi.this.lists[3];
+                case "getTarget":
+                    return ReplayApi.this.findTarget();
+                case "hasTarget":
+                    return ReplayApi.this.frame.targetId != 0;
+                case "isAttacking":
+                    return argc == 0 ? ReplayApi.this.frame.targetId != 0 : NONE;
+                case "getCurrentMap":
+                    return ReplayApi.this.currentMap();
+                default:
+                    return NONE;
+            }
+        }
+
+        @Override
+        String describe() {
+            return this.name;
+        }
+    }
+
+    private final class HeroNode extends Node {
+        @Override
+        Object answer(Method method, Object[] args) {
+            TickFrame frame = ReplayApi.this.frame;
+            switch (method.getName()) {
+                case "getId":
+                    return -1; // Not recorded, never matches an entity
+                case "getX":
+                    return frame.heroX;
+                case "getY":
+                    return frame.heroY;
+                case "getHp":
+                    return frame.hp;
+                case "getMaxHp":
+                    return frame.maxHp;
+                case "getShield":
+                    return frame.shield;
+                case "getMaxShield":
+                    return frame.maxShield;
+                case "hasEffect":
+                    return args[0] instanceof Enum && hasBit(frame.effects, ((Enum<?>) args[0]).ordinal());
+                case "distanceTo":
+                    return distance(frame.heroX, frame.heroY, args);
+                case "getTarget":
+                    return ReplayApi.this.findTarget();
+                case "getMap":
+                    return ReplayApi.this.currentMap();
+                case "isValid":
+                    return true;
+                default:
+                    return NONE;
+            }
+        }
+
+        @Override
+        String describe() {
+            return "HeroAPI";
+        }
+    }
+
+    private final class EntityNode extends Node {
+        private final int kind;
+        private final int id;
+        private final Object proxy;
+        private int index; // Index in the current frame list
+
+        EntityNode(int kind, int id) {
+            this.kind = kind;
+            this.id = id;
+            this.proxy = this.view(ENTITY_TYPES[kind]);
+        }
+
+        @Override
+        Object answer(Method method, Object[] args) {
+            TickFrame frame = ReplayApi.this.frame;
+            TickFrame.EntityList list = this.kind == 0 ? frame.npcs
+                    : this.kind == 1 ? frame.players
+                    : this.kind == 2 ? frame.boxes : frame.portals;
+            boolean present = this.index < list.count && list.ids[this.index] == this.id;
+            switch (method.getName()) {
+                case "getId":
+                    return this.id;
+                case "getX":
+                    return present ? list.xs[this.index] : 0;
+                case "getY":
+                    return present ? list.ys[this.index] : 0;
+                case "isValid":
+                    return present;
+                case "distanceTo":
+                    return present ? distance(list.xs[this.index], list.ys[this.index], args) : NONE;
+                case "isEnemy":
+                    return present && (list.flags[this.index] & TickFrame.ENEMY) != 0;
+                case "isAttacking":
+                    return present && args != null && args.length == 1 && args[0] == ReplayApi.this.hero
+                            && (list.flags[this.index] & TickFrame.ATTACKING_HERO) != 0;
+                default:
+                    return NONE;
+            }
+        }
+
+        @Override
+        String describe() {
+            return ENTITY_NAMES[this.kind] + "#" + this.id;
+        }
+    }
+
+    private final class MapNode extends Node {
+        private final int id;
+
+        MapNode(int id) {
+            this.id = id;
+        }
+
+        @Override
+        Object answer(Method method, Object[] args) {
+            return "getId".equals(method.getName()) ? this.id : NONE;
+        }
+
+        @Override
+        String describe() {
+            return "map#" + this.id;
+        }
+    }
+
+    // Answered directly, distances are the hottest default method of the features
+    private static Object distance(double x, double y, Object[] args) {
+        if (args.length == 1 && args[0] instanceof Locatable) {
+            Locatable other = (Locatable) args[0];
+            return Math.sqrt(Math.pow(x - other.getX(), 2) + Math.pow(y - other.getY(), 2));
+        }
+        if (args.length == 2 && args[0] instanceof Number && args[1] instanceof Number) {
+            return Math.sqrt(Math.pow(x - ((Number) args[0]).doubleValue(), 2)
+                    + Math.pow(y - ((Number) args[1]).doubleValue(), 2));
+        }
+        return NONE;
+    }
+
+    private static boolean hasBit(long mask, int bit) {
+        return bit < Long.SIZE && (mask & (1L << bit)) != 0;
+    }
+
+    private static Object coerce(Object value, Class<?> type) {
+        if (!(value instanceof Number) || !type.isPrimitive()) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (type == int.class) {
+            return number.intValue();
+        } else if (type == long.class) {
+            return number.longValue();
+        } else if (type == double.class) {
+            return number.doubleValue();
+        } else if (type == float.class) {
+            return number.floatValue();
+        } else if (type == short.class) {
+            return number.shortValue();
+        } else if (type == byte.class) {
+            return number.byteValue();
+        } else if (type == char.class) {
+            return (char) number.intValue();
+        } else if (type == boolean.class) {
+            return number.intValue() != 0;
+        }
+        return value;
+    }
+
+    private static Object successOrFirst(Class<?> type) {
+        Object[] constants = type.getEnumConstants();
+        for (Object constant : constants) {
+            if ("SUCCESS".equals(((Enum<?>) constant).name())) {
+                return constant; // Item uses succeed in replays
+            }
+        }
+        return constants.length > 0 ? constants[0] : null;
+    }
+
+    private static Object invokeDefault(Object proxy, Method method, Object[] args) throws Throwable {
+        MethodHandle handle = DEFAULT_METHODS.get(method);
+        if (handle == null) {
+            Class<?> owner = method.getDeclaringClass();
+            handle = MethodHandles.privateLookupIn(owner, MethodHandles.lookup()).unreflectSpecial(method, owner);
+            DEFAULT_METHODS.put(method, handle);
+        }
+        return handle.bindTo(proxy).invokeWithArguments(args != null ? args : new Object[0]);
+    }
+}
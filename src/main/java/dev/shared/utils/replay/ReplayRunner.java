@@ -0,0 +1,218 @@
+package dev.shared.utils.replay;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import dev.shared.utils.Clock;
+import dev.shared.utils.FakeClock;
+import dev.shared.utils.session.SessionReader;
+import dev.shared.utils.session.TickFrame;
+import eu.darkbot.api.extensions.Behavior;
+import eu.darkbot.api.extensions.Module;
+import eu.darkbot.api.extensions.Task;
+
+/**
+ * Headless replay of recorded sessions through the real feature classes.
+ * <p>
+ * Every frame of the sessions becomes one tick of the features, as fast as
+ * they run. Commands the features issue are written one per line, so the
+ * output of two plugin versions can be diffed, and the CPU time of each
+ * feature is summarized at the end. Run with the bot and the plugin on the
+ * classpath:
+ *
+ * <pre>
+ * java -cp DarkBot.jar:SharedPlugin.jar dev.shared.utils.replay.ReplayRunner \
+ *     [--out commands.log] --feature dev.shared.do_gamer.behaviour.CrowdAvoidance \
+ *     logs/shared_session.rec
+ * </pre>
+ */
+public class ReplayRunner {
+
+    private final ReplayApi api;
+    private final List<FeatureRun> features = new ArrayList<>();
+    private final PrintStream out;
+    private final TickFrame frame = new TickFrame();
+    private final FakeClock clock = new FakeClock(0L);
+    private FeatureRun current;
+
+    // Session totals
+    private long frames;
+    private long firstTime = -1;
+    private long lastTime;
+
+    public ReplayRunner(PrintStream out) {
+        this.out = out;
+        this.api = new ReplayApi(this::command);
+        this.api.register(Clock.class, this.clock); // Features see the recorded time
+    }
+
+    /**
+     * Creates the feature with the fake APIs, enabled with its default config.
+     */
+    public void addFeature(Class<?> type) {
+        Object feature = this.api.instance(type);
+        this.api.configure(feature);
+        if (feature instanceof Module && !(feature instanceof Behavior) && this.api.getModule() == null) {
+            this.api.setModule(feature); // A module-only feature is the running module
+        }
+        this.features.add(new FeatureRun(type.getSimpleName(), feature));
+    }
+
+    /**
+     * Replays every frame of the session file.
+     */
+    public void replay(Path file) throws IOException {
+        SessionReader reader = new SessionReader(file);
+        while (reader.next(this.frame)) {
+            if (this.firstTime < 0) {
+                this.firstTime = this.frame.time;
+            }
+            this.lastTime = this.frame.time;
+            this.frames++;
+            this.clock.set(this.frame.time);
+            this.api.setFrame(this.frame);
+            for (FeatureRun feature : this.features) {
+                this.tick(feature);
+            }
+        }
+    }
+
+    private void tick(FeatureRun feature) {
+        this.current = feature;
+        long start = System.nanoTime();
+        try {
+            if (feature.instance instanceof Behavior) {
+                ((Behavior) feature.instance).onTickBehavior();
+            }
+            if (feature.instance instanceof Task) {
+                ((Task) feature.instance).onTickTask();
+            }
+            if (feature.instance == this.api.getModule()) {
+                ((Module) feature.instance).onTickModule();
+            }
+        } catch (RuntimeException e) {
+            if (feature.errors++ == 0) {
+                this.out.println("# " + feature.name + " failed at " + this.frame.time + ": " + e);
+            }
+        } finally {
+            feature.addSample(System.nanoTime() - start);
+            this.current = null;
+        }
+    }
+
+    private void command(String api, String method, Object[] args) {
+        String feature = this.current != null ? this.current.name : "-";
+        if (this.current != null) {
+            this.current.commands++;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(this.frame.time).append('\t').append(feature).append('\t')
+                .append(api).append('.').append(method).append('(');
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(format(args[i]));
+        }
+        this.out.println(sb.append(')'));
+    }
+
+    private static String format(Object arg) {
+        if (arg == null || arg instanceof String || arg instanceof Boolean || arg instanceof Integer
+                || arg instanceof Long || arg instanceof Enum || Proxy.isProxyClass(arg.getClass())) {
+            return String.valueOf(arg);
+        }
+        if (arg instanceof Number) {
+            return String.format("%.0f", ((Number) arg).doubleValue());
+        }
+        return arg.getClass().getSimpleName();
+    }
+
+    /**
+     * Prints the CPU time of each feature.
+     */
+    public void summarize(PrintStream summary, long wallNanos) {
+        long span = this.lastTime - this.firstTime;
+        summary.printf("Replayed %d ticks (%.1f min recorded) in %.1fs, %.0fx real time%n", this.frames,
+                span / 60_000.0, wallNanos / 1e9, wallNanos > 0 ? span * 1e6 / wallNanos : 0.0);
+        for (FeatureRun feature : this.features) {
+            summary.println(feature.describe());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        List<String> featureNames = new ArrayList<>();
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = new PrintStream(args[++i], "UTF-8");
+            } else if ("--feature".equals(args[i]) && i + 1 < args.length) {
+                featureNames.add(args[++i]);
+            } else {
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (featureNames.isEmpty() || files.isEmpty()) {
+            System.err.println("Usage: ReplayRunner [--out file] --feature <class> [--feature <class>...] <session>...");
+            System.exit(1);
+        }
+
+        ReplayRunner runner = new ReplayRunner(out);
+        for (String name : featureNames) {
+            runner.addFeature(Class.forName(name));
+        }
+        long start = System.nanoTime();
+        for (Path file : files) {
+            runner.replay(file);
+        }
+        runner.summarize(System.err, System.nanoTime() - start);
+        out.flush();
+    }
+
+    /**
+     * A replayed feature and its tick times.
+     */
+    private static final class FeatureRun {
+        private final String name;
+        private final Object instance;
+        private long[] samples = new long[1_024];
+        private int count;
+        private long commands;
+        private int errors;
+
+        FeatureRun(String name, Object instance) {
+            this.name = name;
+            this.instance = instance;
+        }
+
+        void addSample(long nanos) {
+            if (this.count == this.samples.length) {
+                this.samples = Arrays.copyOf(this.samples, this.count * 2);
+            }
+            this.samples[this.count++] = nanos;
+        }
+
+        String describe() {
+            if (this.count == 0) {
+                return this.name + ": no ticks";
+            }
+            long[] sorted = Arrays.copyOf(this.samples, this.count);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long sample : sorted) {
+                total += sample;
+            }
+            return String.format("%s: total %.1fms, mean %.1fus, p50 %.1fus, p99 %.1fus, max %.1fus, "
+                    + "%d commands, %d errors", this.name, total / 1e6, total / 1e3 / this.count,
+                    sorted[this.count / 2] / 1e3, sorted[Math.min(this.count - 1, (int) (this.count * 0.99))] / 1e3,
+                    sorted[this.count - 1] / 1e3, this.commands, this.errors);
+        }
+    }
+}
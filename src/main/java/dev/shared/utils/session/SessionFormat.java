@@ -0,0 +1,77 @@
+package dev.shared.utils.session;
+
+/**
+ * Layout of the session ring file and its field encoding.
+ * <p>
+ * The file starts with a header followed by fixed-size blocks. Each block
+ * starts with its sequence number (0 for unused blocks) and the number of used
+ * bytes, followed by length-prefixed tick records. Records never cross blocks,
+ * and the first record of a block is encoded against an empty frame, so a
+ * reader can start at any block after the ring wrapped.
+ * <p>
+ * Record fields are deltas against the previous record of the block, written
+ * as zigzag varints. Entities are compared with the entity at the same index in
+ * the previous record, which is usually the same entity as the game keeps its
+ * lists in order.
+ */
+public final class SessionFormat {
+
+    public static final int MAGIC = 0x53505243; // "SPRC"
+    public static final int VERSION = 2; // 2 added the PET fields
+    static final int MIN_VERSION = 1;
+
+    // File header: magic, version, block size, block count
+    public static final int HEADER_SIZE = 16;
+    // Block header: sequence, used bytes
+    public static final int BLOCK_HEADER_SIZE = 12;
+
+    // Worst-case encoded sizes, used to roll blocks before encoding
+    static final int MAX_FRAME_FIELDS_SIZE = 10 + 13 * 5 + 10; // Time, int fields, effects
+    static final int MAX_ENTITY_SIZE = 4 * 5; // Id, x, y, flags
+    static final int MAX_LENGTH_PREFIX = 5;
+
+    private SessionFormat() {
+    }
+
+    static int maxRecordSize(TickFrame frame) {
+        return MAX_LENGTH_PREFIX + MAX_FRAME_FIELDS_SIZE + frame.lists().length * 5
+                + frame.entityCount() * MAX_ENTITY_SIZE;
+    }
+
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an unsigned varint, returns the new position.
+     */
+    static int putVarint(byte[] buf, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    static int putVarlong(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.shared.utils.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Reads the tick frames of a session ring file, oldest first.
+ * See {@link SessionFormat} for the layout.
+ */
+public class SessionReader {
+
+    private final ByteBuffer buffer;
+    private final int version;
+    private final int blockSize;
+    private final int[] blocks; // Block indexes in sequence order
+
+    private final TickFrame previous = new TickFrame();
+    private int blockIndex = -1; // Position in blocks
+    private int pos;
+    private int end;
+
+    public SessionReader(Path file) throws IOException {
+        this.buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.BIG_ENDIAN);
+        if (this.buffer.capacity() < SessionFormat.HEADER_SIZE || this.buffer.getInt(0) != SessionFormat.MAGIC) {
+            throw new IOException("Not a session file: " + file);
+        }
+        this.version = this.buffer.getInt(4);
+        if (this.version < SessionFormat.MIN_VERSION || this.version > SessionFormat.VERSION) {
+            throw new IOException("Unsupported session version " + this.version + ": " + file);
+        }
+        this.blockSize = this.buffer.getInt(8);
+        int blockCount = this.buffer.getInt(12);
+
+        long[] sequences = new long[blockCount];
+        int used = 0;
+        Integer[] order = new Integer[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            sequences[i] = this.buffer.getLong(this.blockOffset(i));
+            if (sequences[i] > 0) {
+                order[used++] = i;
+            }
+        }
+        Arrays.sort(order, 0, used, Comparator.comparingLong(i -> sequences[i]));
+        this.blocks = new int[used];
+        for (int i = 0; i < used; i++) {
+            this.blocks[i] = order[i];
+        }
+    }
+
+    /**
+     * Decodes the next frame into {@code frame}, returns false at the end of
+     * the session.
+     */
+    public boolean next(TickFrame frame) {
+        while (this.pos >= this.end) {
+            if (++this.blockIndex >= this.blocks.length) {
+                return false;
+            }
+            int offset = this.blockOffset(this.blocks[this.blockIndex]);
+            this.pos = offset + SessionFormat.BLOCK_HEADER_SIZE;
+            this.end = offset + Math.min(this.blockSize, this.buffer.getInt(offset + 8));
+            this.previous.clear(); // Blocks start with a keyframe
+        }
+
+        int length = this.getVarint();
+        int recordEnd = this.pos + length;
+        this.decode(frame);
+        this.pos = recordEnd;
+        this.previous.copyFrom(frame);
+        return true;
+    }
+
+    private void decode(TickFrame frame) {
+        TickFrame prev = this.previous;
+        frame.time = prev.time + SessionFormat.unzigzag(this.getVarlong());
+        frame.mapId = this.getDelta(prev.mapId);
+        frame.heroX = this.getDelta(prev.heroX);
+        frame.heroY = this.getDelta(prev.heroY);
+        frame.hp = this.getDelta(prev.hp);
+        frame.maxHp = this.getDelta(prev.maxHp);
+        frame.shield = this.getDelta(prev.shield);
+        frame.maxShield = this.getDelta(prev.maxShield);
+        frame.targetId = this.getDelta(prev.targetId);
+        frame.effects = prev.effects ^ this.getVarlong();
+        if (this.version >= 2) {
+            frame.petFlags = prev.petFlags ^ this.getVarint();
+            frame.petX = this.getDelta(prev.petX);
+            frame.petY = this.getDelta(prev.petY);
+            frame.petHp = this.getDelta(prev.petHp);
+            frame.petGear = this.getDelta(prev.petGear);
+        }
+
+        TickFrame.EntityList[] lists = frame.lists();
+        TickFrame.EntityList[] prevLists = prev.lists();
+        for (int l = 0; l < lists.length; l++) {
+            TickFrame.EntityList list = lists[l];
+            TickFrame.EntityList old = prevLists[l];
+            int count = this.getVarint();
+            list.count = 0;
+            list.ensureCapacity(count);
+            for (int i = 0; i < count; i++) {
+                boolean known = i < old.count;
+                int id = this.getDelta(known ? old.ids[i] : 0);
+                int x = this.getDelta(known ? old.xs[i] : 0);
+                int y = this.getDelta(known ? old.ys[i] : 0);
+                int flags = this.getVarint() ^ (known ? old.flags[i] : 0);
+                list.add(id, x, y, flags);
+            }
+        }
+    }
+
+    private int getDelta(int previous) {
+        return previous + SessionFormat.unzigzag(this.getVarint());
+    }
+
+    private int getVarint() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = this.buffer.get(this.pos++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private long getVarlong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = this.buffer.get(this.pos++);
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int blockOffset(int index) {
+        return SessionFormat.HEADER_SIZE + index * this.blockSize;
+    }
+}
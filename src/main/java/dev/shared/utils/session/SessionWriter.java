@@ -0,0 +1,194 @@
+package dev.shared.utils.session;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes tick frames to a memory-mapped ring file of fixed size.
+ * <p>
+ * Frames are delta-encoded into a reused scratch array and copied to the
+ * mapping, the OS flushes the pages, so writing a frame does not allocate nor
+ * block on the disk. Once the ring is full, the oldest block is overwritten.
+ * See {@link SessionFormat} for the layout.
+ */
+public class SessionWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int blockSize;
+    private final int blockCount;
+
+    private final TickFrame previous = new TickFrame();
+    private final byte[] lengthPrefix = new byte[SessionFormat.MAX_LENGTH_PREFIX];
+    private byte[] scratch = new byte[8_192];
+
+    private long sequence;
+    private int block = -1;
+    private int blockUsed;
+
+    // Counters
+    private long records;
+    private long bytes;
+    private long dropped;
+
+    public SessionWriter(Path file, int fileSize, int blockSize) throws IOException {
+        this.blockSize = blockSize;
+        this.blockCount = (fileSize - SessionFormat.HEADER_SIZE) / blockSize;
+        if (this.blockCount < 2) {
+            throw new IllegalArgumentException("Session file too small for two blocks of " + blockSize + " bytes");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        int size = SessionFormat.HEADER_SIZE + this.blockCount * blockSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (this.channel.size() != size) {
+            // Layout changed, start over. Only done for a file not mapped by
+            // this JVM, Windows refuses to truncate a mapped file
+            this.channel.truncate(0);
+        }
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (!this.resume()) {
+            this.buffer.putInt(0, SessionFormat.MAGIC);
+            this.buffer.putInt(4, SessionFormat.VERSION);
+            this.buffer.putInt(8, blockSize);
+            this.buffer.putInt(12, this.blockCount);
+            for (int i = 0; i < this.blockCount; i++) {
+                this.buffer.putLong(this.blockOffset(i), 0L);
+            }
+        }
+    }
+
+    /**
+     * Continues after the newest block of an existing file with the same
+     * layout, returns false when the file has to be initialized.
+     */
+    private boolean resume() {
+        if (this.buffer.getInt(0) != SessionFormat.MAGIC || this.buffer.getInt(4) != SessionFormat.VERSION
+                || this.buffer.getInt(8) != this.blockSize || this.buffer.getInt(12) != this.blockCount) {
+            return false;
+        }
+        for (int i = 0; i < this.blockCount; i++) {
+            long seq = this.buffer.getLong(this.blockOffset(i));
+            if (seq > this.sequence) {
+                this.sequence = seq;
+                this.block = i;
+            }
+        }
+        this.blockUsed = this.blockSize; // Continue in a fresh block
+        return true;
+    }
+
+    /**
+     * Appends the frame, encoded against the previous frame of the block.
+     */
+    public void write(TickFrame frame) {
+        int bound = SessionFormat.maxRecordSize(frame);
+        if (bound > this.blockSize - SessionFormat.BLOCK_HEADER_SIZE) {
+            this.dropped++;
+            return; // Could never fit in a block
+        }
+        if (this.block < 0 || this.blockUsed + bound > this.blockSize) {
+            this.nextBlock();
+        }
+        if (this.scratch.length < bound) {
+            this.scratch = new byte[Math.max(bound, this.scratch.length * 2)];
+        }
+
+        int length = this.encode(frame, this.scratch);
+        int prefix = SessionFormat.putVarint(this.lengthPrefix, 0, length);
+
+        int offset = this.blockOffset(this.block);
+        this.buffer.position(offset + this.blockUsed);
+        this.buffer.put(this.lengthPrefix, 0, prefix);
+        this.buffer.put(this.scratch, 0, length);
+        this.blockUsed += prefix + length;
+        this.buffer.putInt(offset + 8, this.blockUsed); // Publish the record
+
+        this.previous.copyFrom(frame);
+        this.records++;
+        this.bytes += prefix + length;
+    }
+
+    private void nextBlock() {
+        this.block = (this.block + 1) % this.blockCount;
+        this.sequence++;
+        this.blockUsed = SessionFormat.BLOCK_HEADER_SIZE;
+
+        int offset = this.blockOffset(this.block);
+        this.buffer.putLong(offset, 0L); // Invalid while the header is rewritten
+        this.buffer.putInt(offset + 8, this.blockUsed);
+        this.buffer.putLong(offset, this.sequence);
+        this.previous.clear(); // The first record of a block is a keyframe
+    }
+
+    private int encode(TickFrame frame, byte[] buf) {
+        TickFrame prev = this.previous;
+        int pos = SessionFormat.putVarlong(buf, 0, SessionFormat.zigzag(frame.time - prev.time));
+        pos = putDelta(buf, pos, frame.mapId, prev.mapId);
+        pos = putDelta(buf, pos, frame.heroX, prev.heroX);
+        pos = putDelta(buf, pos, frame.heroY, prev.heroY);
+        pos = putDelta(buf, pos, frame.hp, prev.hp);
+        pos = putDelta(buf, pos, frame.maxHp, prev.maxHp);
+        pos = putDelta(buf, pos, frame.shield, prev.shield);
+        pos = putDelta(buf, pos, frame.maxShield, prev.maxShield);
+        pos = putDelta(buf, pos, frame.targetId, prev.targetId);
+        pos = SessionFormat.putVarlong(buf, pos, frame.effects ^ prev.effects);
+        pos = SessionFormat.putVarint(buf, pos, frame.petFlags ^ prev.petFlags);
+        pos = putDelta(buf, pos, frame.petX, prev.petX);
+        pos = putDelta(buf, pos, frame.petY, prev.petY);
+        pos = putDelta(buf, pos, frame.petHp, prev.petHp);
+        pos = putDelta(buf, pos, frame.petGear, prev.petGear);
+
+        TickFrame.EntityList[] lists = frame.lists();
+        TickFrame.EntityList[] prevLists = prev.lists();
+        for (int l = 0; l < lists.length; l++) {
+            TickFrame.EntityList list = lists[l];
+            TickFrame.EntityList old = prevLists[l];
+            pos = SessionFormat.putVarint(buf, pos, list.count);
+            for (int i = 0; i < list.count; i++) {
+                boolean known = i < old.count;
+                pos = putDelta(buf, pos, list.ids[i], known ? old.ids[i] : 0);
+                pos = putDelta(buf, pos, list.xs[i], known ? old.xs[i] : 0);
+                pos = putDelta(buf, pos, list.ys[i], known ? old.ys[i] : 0);
+                pos = SessionFormat.putVarint(buf, pos, list.flags[i] ^ (known ? old.flags[i] : 0));
+            }
+        }
+        return pos;
+    }
+
+    private static int putDelta(byte[] buf, int pos, int value, int previous) {
+        return SessionFormat.putVarint(buf, pos, SessionFormat.zigzag(value - previous));
+    }
+
+    private int blockOffset(int index) {
+        return SessionFormat.HEADER_SIZE + index * this.blockSize;
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long getDropped() {
+        return this.dropped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+}
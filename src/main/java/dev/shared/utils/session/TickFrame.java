@@ -0,0 +1,143 @@
+package dev.shared.utils.session;
+
+import java.util.Arrays;
+
+/**
+ * Game state of a single tick, as recorded in a session file.
+ * <p>
+ * Everything is kept in primitive fields and arrays that are reused from tick
+ * to tick, so filling and encoding a frame does not allocate once the arrays
+ * reached the entity count of the map.
+ */
+public class TickFrame {
+
+    // Relation flags of the entities
+    public static final int ATTACKING_HERO = 1;
+    public static final int HERO_TARGET = 1 << 1;
+    public static final int ENEMY = 1 << 2;
+
+    // PET flags
+    public static final int PET_ENABLED = 1;
+    public static final int PET_ACTIVE = 1 << 1;
+
+    public long time;
+    public int mapId;
+    public int heroX;
+    public int heroY;
+    public int hp;
+    public int maxHp;
+    public int shield;
+    public int maxShield;
+    public int targetId;
+    public long effects; // Bit per EntityEffect ordinal
+    public int petFlags;
+    public int petX;
+    public int petY;
+    public int petHp; // HP + shield
+    public int petGear; // PetGear ordinal + 1, 0 if none
+
+    public final EntityList npcs = new EntityList();
+    public final EntityList players = new EntityList();
+    public final EntityList boxes = new EntityList();
+    public final EntityList portals = new EntityList();
+
+    private final EntityList[] lists = { this.npcs, this.players, this.boxes, this.portals };
+
+    /**
+     * Entity lists in their encoding order.
+     */
+    EntityList[] lists() {
+        return this.lists;
+    }
+
+    public int entityCount() {
+        return this.npcs.count + this.players.count + this.boxes.count + this.portals.count;
+    }
+
+    /**
+     * Clears the frame, keeping the allocated arrays.
+     */
+    public void clear() {
+        this.time = 0;
+        this.mapId = 0;
+        this.heroX = 0;
+        this.heroY = 0;
+        this.hp = 0;
+        this.maxHp = 0;
+        this.shield = 0;
+        this.maxShield = 0;
+        this.targetId = 0;
+        this.effects = 0;
+        this.petFlags = 0;
+        this.petX = 0;
+        this.petY = 0;
+        this.petHp = 0;
+        this.petGear = 0;
+        for (EntityList list : this.lists) {
+            list.count = 0;
+        }
+    }
+
+    public void copyFrom(TickFrame other) {
+        this.time = other.time;
+        this.mapId = other.mapId;
+        this.heroX = other.heroX;
+        this.heroY = other.heroY;
+        this.hp = other.hp;
+        this.maxHp = other.maxHp;
+        this.shield = other.shield;
+        this.maxShield = other.maxShield;
+        this.targetId = other.targetId;
+        this.effects = other.effects;
+        this.petFlags = other.petFlags;
+        this.petX = other.petX;
+        this.petY = other.petY;
+        this.petHp = other.petHp;
+        this.petGear = other.petGear;
+        for (int i = 0; i < this.lists.length; i++) {
+            this.lists[i].copyFrom(other.lists[i]);
+        }
+    }
+
+    /**
+     * Entities of one kind, in the order the game listed them.
+     */
+    public static final class EntityList {
+        private static final int INITIAL_CAPACITY = 32;
+
+        public int count;
+        public int[] ids = new int[INITIAL_CAPACITY];
+        public int[] xs = new int[INITIAL_CAPACITY];
+        public int[] ys = new int[INITIAL_CAPACITY];
+        public int[] flags = new int[INITIAL_CAPACITY];
+
+        public void add(int id, int x, int y, int flag) {
+            this.ensureCapacity(this.count + 1);
+            this.ids[this.count] = id;
+            this.xs[this.count] = x;
+            this.ys[this.count] = y;
+            this.flags[this.count] = flag;
+            this.count++;
+        }
+
+        void copyFrom(EntityList other) {
+            this.ensureCapacity(other.count);
+            System.arraycopy(other.ids, 0, this.ids, 0, other.count);
+            System.arraycopy(other.xs, 0, this.xs, 0, other.count);
+            System.arraycopy(other.ys, 0, this.ys, 0, other.count);
+            System.arraycopy(other.flags, 0, this.flags, 0, other.count);
+            this.count = other.count;
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity <= this.ids.length) {
+                return;
+            }
+            int size = Math.max(capacity, this.ids.length * 2);
+            this.ids = Arrays.copyOf(this.ids, size);
+            this.xs = Arrays.copyOf(this.xs, size);
+            this.ys = Arrays.copyOf(this.ys, size);
+            this.flags = Arrays.copyOf(this.flags, size);
+        }
+    }
+}
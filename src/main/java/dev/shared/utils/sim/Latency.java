@@ -0,0 +1,60 @@
+package dev.shared.utils.sim;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Log-normal latency of a game reaction, given by its median and 99th
+ * percentile, with an optional chance that the reaction never happens.
+ */
+public final class Latency {
+
+    private static final double Z99 = 2.326; // Standard normal 99th percentile
+
+    private final long median;
+    private final long p99;
+    private final double sigma;
+    private final double loss;
+
+    public Latency(long median, long p99, double loss) {
+        if (median <= 0 || p99 < median || loss < 0.0 || loss >= 1.0) {
+            throw new IllegalArgumentException("Invalid latency " + median + ":" + p99 + ":" + loss);
+        }
+        this.median = median;
+        this.p99 = p99;
+        this.sigma = Math.log((double) p99 / median) / Z99;
+        this.loss = loss;
+    }
+
+    /**
+     * Parses {@code median:p99[:loss]}, e.g. {@code 600:2000:0.01}.
+     */
+    public static Latency parse(String spec) {
+        String[] parts = spec.split(":");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new IllegalArgumentException("Expected median:p99[:loss], got " + spec);
+        }
+        double loss = parts.length == 3 ? Double.parseDouble(parts[2]) : 0.0;
+        return new Latency(Long.parseLong(parts[0]), Long.parseLong(parts[1]), loss);
+    }
+
+    /**
+     * Milliseconds until the reaction, or -1 if it is lost.
+     */
+    public long sample(Random random) {
+        if (this.loss > 0.0 && random.nextDouble() < this.loss) {
+            return -1L;
+        }
+        return Math.round(this.median * Math.exp(this.sigma * random.nextGaussian()));
+    }
+
+    public long getP99() {
+        return this.p99;
+    }
+
+    @Override
+    public String toString() {
+        String text = this.median + ":" + this.p99 + "ms";
+        return this.loss > 0.0 ? text + String.format(Locale.ROOT, " lost %.1f%%", this.loss * 100) : text;
+    }
+}
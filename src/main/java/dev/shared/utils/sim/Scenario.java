@@ -0,0 +1,83 @@
+package dev.shared.utils.sim;
+
+/**
+ * Simulated trips: the feature under test, where the hero starts and the
+ * config it starts from.
+ */
+public enum Scenario {
+    // PET and drone trades run in a GG map, where no safety positioning is needed
+    ORE_PET("ore-pet", Scenario.ORE_SELLER, "GG Alpha", "1-1", "mode=PET trading"),
+    ORE_DRONE("ore-drone", Scenario.ORE_SELLER, "GG Alpha", "1-1", "mode=HM7 trade drone"),
+    ORE_BASE("ore-base", Scenario.ORE_SELLER, "1-1", "1-1", "mode=Base selling"),
+    FAST_TRAVEL("fast-travel", Scenario.FAST_TRAVEL_CLASS, "1-1", "1-8");
+
+    private static final String ORE_SELLER = "dev.shared.do_gamer.behaviour.OreSeller";
+    private static final String FAST_TRAVEL_CLASS = "dev.shared.orbithelper.behaviours.fast_travel.FastTravel";
+
+    private final String id;
+    private final String featureClass;
+    private final String startMap;
+    private final String workingMap;
+    private final String[] settings;
+
+    Scenario(String id, String featureClass, String startMap, String workingMap, String... settings) {
+        this.id = id;
+        this.featureClass = featureClass;
+        this.startMap = startMap;
+        this.workingMap = workingMap;
+        this.settings = settings;
+    }
+
+    public static Scenario byId(String id) {
+        for (Scenario scenario : values()) {
+            if (scenario.id.equals(id)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario " + id);
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getFeatureClass() {
+        return this.featureClass;
+    }
+
+    public String getStartMap() {
+        return this.startMap;
+    }
+
+    public String getWorkingMap() {
+        return this.workingMap;
+    }
+
+    /**
+     * Config of the scenario, as {@code path=value} applied before the
+     * settings of the command line.
+     */
+    public String[] getSettings() {
+        return this.settings.clone();
+    }
+
+    /**
+     * Checks if the feature is back to idle, from its status line.
+     */
+    public boolean isIdle(String status) {
+        if (this == FAST_TRAVEL) {
+            return status != null && status.endsWith("VALIDATING");
+        }
+        return status == null;
+    }
+
+    /**
+     * Checks if the finished trip did its job.
+     */
+    public boolean succeeded(SimWorld world) {
+        if (this == FAST_TRAVEL) {
+            return world.isOnWorkingMap();
+        }
+        return world.getCargo() == 0; // Every loaded ore sold
+    }
+}
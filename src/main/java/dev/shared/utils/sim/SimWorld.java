@@ -0,0 +1,501 @@
+package dev.shared.utils.sim;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.LongConsumer;
+
+import dev.shared.utils.FakeClock;
+import dev.shared.utils.replay.ReplayApi;
+import eu.darkbot.api.game.entities.Station;
+import eu.darkbot.api.game.items.Item;
+import eu.darkbot.api.game.other.Gui;
+import eu.darkbot.api.managers.OreAPI;
+
+/**
+ * Game model of the simulator, answering the fake APIs of {@link ReplayApi}.
+ * <p>
+ * Only the reactions the selling and travel features wait for are modeled:
+ * the trade window, sell acknowledgements, PET gear switches, the HMD-07 trade
+ * drone, the spacemap of the AJP-01 jump CPU and the jump itself. Each one
+ * happens after a sampled {@link Latency}, as an event on the fake clock. The
+ * hero is already at the refinery (or safe spot) and everything else answers
+ * like an empty map.
+ */
+public class SimWorld implements ReplayApi.Responder {
+
+    // Latency names
+    public static final String TRADE = "trade"; // Trade window opening
+    public static final String SELL = "sell"; // Sold ore leaving the cargo
+    public static final String PET_GEAR = "pet"; // PET gear switch
+    public static final String HMD = "hmd"; // HMD-07 trade drone arriving
+    public static final String SPACEMAP = "spacemap"; // Spacemap opening after AJP-01
+    public static final String JUMP = "jump"; // Jump to the selected map
+
+    private static final String[] MAPS = {
+            "1-1", "1-2", "1-3", "1-4", "1-5", "1-6", "1-7", "1-8",
+            "2-1", "2-2", "2-3", "2-4", "2-5", "2-6", "2-7", "2-8",
+            "3-1", "3-2", "3-3", "3-4", "3-5", "3-6", "3-7", "3-8",
+            "4-1", "4-2", "4-3", "4-4", "4-5", "5-1", "5-2", "5-3", "GG Alpha" };
+    private static final OreAPI.Ore[] ORES = OreAPI.Ore.values();
+    private static final int ORE_STACK = 400; // Of every sellable ore, loaded at the start of a trip
+    private static final String FAST_TRAVEL_CONSTANTS = "dev.shared.orbithelper.behaviours.fast_travel.Constants";
+
+    private final ReplayApi api;
+    private final FakeClock clock;
+    private final Random random;
+    private final Map<String, Latency> latencies;
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final List<Station> stations;
+    private final Gui spacemap;
+    private final Map<String, Optional<Item>> items = new HashMap<>();
+    private Map<String, String> spacemapButtons; // "x,y" to map name, loaded with the first click
+    private long eventSeq;
+
+    // Game state
+    private final int[] ores = new int[ORES.length];
+    private int mapId;
+    private int workingMapId;
+    private boolean tradeOpen;
+    private boolean tradeOpening;
+    private int tradeGen; // Invalidates pending openings when the window is closed
+    private String petGear;
+    private String pendingGear;
+    private long pendingGearSince;
+    private int gearGen;
+    private boolean petEnabled;
+    private long droneSince = -1L;
+    private boolean spacemapVisible;
+    private long spacemapSince = -1L;
+    private int spacemapGen;
+    private String selectedMap;
+    private boolean jumping;
+
+    public SimWorld(ReplayApi api, FakeClock clock, Random random, Map<String, Latency> latencies) {
+        this.api = api;
+        this.clock = clock;
+        this.random = random;
+        this.latencies = latencies;
+        this.stations = Collections.singletonList(api.stub("refinery", Station.Refinery.class));
+        this.spacemap = api.stub("spacemap", Gui.class);
+    }
+
+    /**
+     * Default latencies, overridden by the command line.
+     */
+    public static Map<String, Latency> defaultLatencies() {
+        Map<String, Latency> latencies = new LinkedHashMap<>();
+        latencies.put(TRADE, new Latency(600, 2_000, 0.0));
+        latencies.put(SELL, new Latency(250, 900, 0.01));
+        latencies.put(PET_GEAR, new Latency(800, 2_500, 0.01));
+        latencies.put(HMD, new Latency(1_500, 4_000, 0.02));
+        latencies.put(SPACEMAP, new Latency(700, 2_000, 0.01));
+        latencies.put(JUMP, new Latency(3_000, 7_000, 0.01));
+        return latencies;
+    }
+
+    /**
+     * Starts a trip: full cargo, closed windows, the hero on the start map.
+     */
+    public void reset(String startMap, String workingMap) {
+        this.events.clear();
+        Arrays.fill(this.ores, 0);
+        for (OreAPI.Ore ore : ORES) {
+            if (ore.isSellable() && ore != OreAPI.Ore.PALLADIUM) {
+                this.ores[ore.ordinal()] = ORE_STACK;
+            }
+        }
+        this.mapId = mapId(startMap);
+        this.workingMapId = mapId(workingMap);
+        this.closeTrade();
+        this.petGear = "GUARD";
+        this.pendingGear = null;
+        this.gearGen++;
+        this.petEnabled = true;
+        this.droneSince = -1L;
+        this.closeSpacemap();
+    }
+
+    /**
+     * Applies the events that happened up to the current time.
+     */
+    public void fireDue() {
+        long now = this.clock.millis();
+        while (!this.events.isEmpty() && this.events.peek().time <= now) {
+            Event event = this.events.poll();
+            event.action.accept(event.time);
+        }
+    }
+
+    public int getMapId() {
+        return this.mapId;
+    }
+
+    public boolean isOnWorkingMap() {
+        return this.mapId == this.workingMapId;
+    }
+
+    public int getCargo() {
+        int cargo = 0;
+        for (int amount : this.ores) {
+            cargo += amount;
+        }
+        return cargo;
+    }
+
+    // Schedules the action after the latency, counted from the given time
+    private boolean schedule(String latency, long from, LongConsumer action) {
+        long delay = this.latencies.get(latency).sample(this.random);
+        if (delay < 0) {
+            return false; // Lost
+        }
+        this.events.add(new Event(from + delay, this.eventSeq++, action));
+        return true;
+    }
+
+    // Requests lost by the game are retried once they are older than the p99
+    private boolean isPending(long since, String latency) {
+        return since >= 0 && this.clock.millis() - since < this.latencies.get(latency).getP99();
+    }
+
+    @Override
+    public Object respond(String api, Method method, Object[] args) {
+        String name = method.getName();
+        switch (api) {
+            case "OreAPI":
+                return this.ore(name, args);
+            case "PetAPI":
+                return this.pet(name, args, method.getReturnType());
+            case "HeroItemsAPI":
+                return this.item(name, args);
+            case "StatsAPI":
+                return this.stats(name);
+            case "ConfigAPI":
+                return "getConfigValue".equals(name) ? this.configValue((String) args[0]) : ReplayApi.PASS;
+            case "StarSystemAPI":
+                if ("getOrCreateMap".equals(name)) {
+                    return this.api.map(args[0] instanceof String ? mapId((String) args[0])
+                            : ((Number) args[0]).intValue());
+                }
+                return ReplayApi.PASS;
+            case "EntitiesAPI":
+                return "getStations".equals(name) ? this.stations : ReplayApi.PASS;
+            case "GameScreenAPI":
+                return "getGui".equals(name) && "spacemap".equals(args[0]) ? this.spacemap : ReplayApi.PASS;
+            case "spacemap":
+                return this.spacemap(name, args);
+            case "refinery":
+                return "isValid".equals(name) ? (Object) true : ReplayApi.PASS;
+            case "HeroAPI":
+                return "getFaction".equals(name) ? enumConstant(method.getReturnType(), "MMO") : ReplayApi.PASS;
+            default:
+                if (api.startsWith("map#")) {
+                    return this.map(Integer.parseInt(api.substring(4)), name);
+                }
+                if (api.startsWith("item:")) {
+                    return "getQuantity".equals(name) ? (Object) 10 : ReplayApi.PASS;
+                }
+                return ReplayApi.PASS;
+        }
+    }
+
+    private Object ore(String name, Object[] args) {
+        switch (name) {
+            case "getAmount":
+                return this.ores[((Enum<?>) args[0]).ordinal()];
+            case "canSellOres":
+                return this.tradeOpen;
+            case "showTrade":
+                if (!(Boolean) args[0]) {
+                    this.closeTrade();
+                    return true;
+                }
+                if (!this.tradeOpen && !this.tradeOpening) {
+                    this.openTrade(this.clock.millis());
+                }
+                return this.tradeOpen;
+            case "sellOre":
+                if (this.tradeOpen) {
+                    int ordinal = ((Enum<?>) args[0]).ordinal();
+                    this.schedule(SELL, this.clock.millis(), time -> this.ores[ordinal] = 0);
+                }
+                return ReplayApi.PASS;
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private void openTrade(long from) {
+        int gen = ++this.tradeGen;
+        this.tradeOpening = this.schedule(TRADE, from, time -> {
+            if (gen == this.tradeGen) {
+                this.tradeOpen = true;
+                this.tradeOpening = false;
+            }
+        });
+    }
+
+    private void closeTrade() {
+        this.tradeOpen = false;
+        this.tradeOpening = false;
+        this.tradeGen++;
+    }
+
+    private Object pet(String name, Object[] args, Class<?> returnType) {
+        switch (name) {
+            case "hasGear":
+                return true;
+            case "hasCooldown":
+                return false;
+            case "getGear":
+                return enumConstant(returnType, this.petGear);
+            case "isEnabled":
+            case "isActive":
+                return this.petEnabled;
+            case "setEnabled":
+                this.petEnabled = (Boolean) args[0];
+                return ReplayApi.PASS;
+            case "setGear":
+                this.setGear(((Enum<?>) args[0]).name());
+                return ReplayApi.PASS;
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private void setGear(String gear) {
+        if (gear.equals(this.petGear) && this.pendingGear == null) {
+            return;
+        }
+        if (gear.equals(this.pendingGear) && this.isPending(this.pendingGearSince, PET_GEAR)) {
+            return; // Already switching
+        }
+        int gen = ++this.gearGen;
+        this.pendingGear = gear;
+        this.pendingGearSince = this.clock.millis();
+        this.schedule(PET_GEAR, this.clock.millis(), time -> {
+            if (gen != this.gearGen) {
+                return;
+            }
+            boolean wasTrader = "TRADER".equals(this.petGear);
+            this.petGear = gear;
+            this.pendingGear = null;
+            if ("TRADER".equals(gear)) {
+                this.openTrade(time); // The trader gear opens the trade window
+            } else if (wasTrader) {
+                this.closeTrade();
+            }
+        });
+    }
+
+    private Object item(String name, Object[] args) {
+        String item = args != null && args.length > 0 && args[0] instanceof Enum ? ((Enum<?>) args[0]).name() : "";
+        if (!"HMD_07".equals(item) && !"AJP_01".equals(item)) {
+            return ReplayApi.PASS; // Not on the bar
+        }
+        switch (name) {
+            case "getItem":
+                return this.items.computeIfAbsent(item, key -> Optional.of(this.api.stub("item:" + key, Item.class)));
+            case "useItem":
+                if ("HMD_07".equals(item)) {
+                    this.useTradeDrone();
+                } else {
+                    this.useJumpCpu();
+                }
+                return ReplayApi.PASS; // Successful
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private void useTradeDrone() {
+        if (this.tradeOpen || this.tradeOpening || this.isPending(this.droneSince, HMD)) {
+            return;
+        }
+        this.droneSince = this.clock.millis();
+        this.schedule(HMD, this.clock.millis(), time -> {
+            this.droneSince = -1L;
+            this.openTrade(time);
+        });
+    }
+
+    private void useJumpCpu() {
+        if (this.spacemapVisible || this.isPending(this.spacemapSince, SPACEMAP)) {
+            return;
+        }
+        int gen = ++this.spacemapGen;
+        this.spacemapSince = this.clock.millis();
+        this.schedule(SPACEMAP, this.clock.millis(), time -> {
+            if (gen == this.spacemapGen) {
+                this.spacemapVisible = true;
+                this.spacemapSince = -1L;
+            }
+        });
+    }
+
+    private Object spacemap(String name, Object[] args) {
+        switch (name) {
+            case "isVisible":
+                return this.spacemapVisible;
+            case "setVisible":
+                if (!(Boolean) args[0]) {
+                    this.closeSpacemap();
+                }
+                return ReplayApi.PASS;
+            case "click":
+                this.click(((Number) args[0]).intValue() + "," + ((Number) args[1]).intValue());
+                return ReplayApi.PASS;
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private void closeSpacemap() {
+        this.spacemapVisible = false;
+        this.spacemapSince = -1L;
+        this.spacemapGen++;
+        this.selectedMap = null;
+        this.jumping = false;
+    }
+
+    private void click(String position) {
+        if (!this.spacemapVisible || this.jumping) {
+            return;
+        }
+        String button = this.spacemapButtons().get(position);
+        if (!"JUMP".equals(button)) {
+            this.selectedMap = button; // Clicking outside the maps clears the selection
+            return;
+        }
+        if (this.selectedMap == null) {
+            return;
+        }
+        int target = mapId(this.selectedMap);
+        int gen = this.spacemapGen;
+        this.jumping = this.schedule(JUMP, this.clock.millis(), time -> {
+            if (gen == this.spacemapGen) {
+                this.mapId = target;
+                this.closeSpacemap();
+            }
+        });
+    }
+
+    // Button positions of FastTravel, read from its constants
+    private Map<String, String> spacemapButtons() {
+        if (this.spacemapButtons != null) {
+            return this.spacemapButtons;
+        }
+        this.spacemapButtons = new HashMap<>();
+        try {
+            Field field = Class.forName(FAST_TRAVEL_CONSTANTS).getDeclaredField("MAP_COORDINATES");
+            field.setAccessible(true);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) field.get(null)).entrySet()) {
+                Object coordinate = entry.getValue();
+                int x = coordinate.getClass().getField("x").getInt(coordinate);
+                int y = coordinate.getClass().getField("y").getInt(coordinate);
+                this.spacemapButtons.put(x + "," + y, (String) entry.getKey());
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to read the spacemap buttons", e);
+        }
+        return this.spacemapButtons;
+    }
+
+    private Object stats(String name) {
+        switch (name) {
+            case "getCargo":
+                return this.getCargo();
+            case "getMaxCargo":
+                return ORE_STACK * this.sellableOres(); // Trips start full
+            case "getLevel":
+                return 30;
+            case "getCurrent":
+                return 10_000.0; // Jump coupons and uridium
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private int sellableOres() {
+        int count = 0;
+        for (OreAPI.Ore ore : ORES) {
+            if (ore.isSellable() && ore != OreAPI.Ore.PALLADIUM) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Object configValue(String key) {
+        switch (key) {
+            case "general.working_map":
+                return this.workingMapId;
+            case "general.current_module":
+                return "";
+            case "pet.enabled":
+                return true;
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private Object map(int id, String name) {
+        String mapName = id >= 1 && id <= MAPS.length ? MAPS[id - 1] : "?";
+        switch (name) {
+            case "getName":
+            case "getShortName":
+                return mapName;
+            case "isGG":
+                return mapName.startsWith("GG");
+            default:
+                return ReplayApi.PASS;
+        }
+    }
+
+    private static int mapId(String name) {
+        for (int i = 0; i < MAPS.length; i++) {
+            if (MAPS[i].equals(name)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object enumConstant(Class<?> type, String name) {
+        if (!type.isEnum()) {
+            return ReplayApi.PASS;
+        }
+        try {
+            return Enum.valueOf((Class<? extends Enum>) type, name);
+        } catch (IllegalArgumentException e) {
+            return ReplayApi.PASS;
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        private final long seq; // Keeps events of the same time in order
+        private final LongConsumer action;
+
+        Event(long time, long seq, LongConsumer action) {
+            this.time = time;
+            this.seq = seq;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(this.time, other.time);
+            return byTime != 0 ? byTime : Long.compare(this.seq, other.seq);
+        }
+    }
+}
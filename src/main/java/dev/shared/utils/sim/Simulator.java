@@ -0,0 +1,337 @@
+package dev.shared.utils.sim;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import dev.shared.utils.Clock;
+import dev.shared.utils.FakeClock;
+import dev.shared.utils.replay.ReplayApi;
+import dev.shared.utils.session.TickFrame;
+import eu.darkbot.api.extensions.Behavior;
+import eu.darkbot.api.extensions.Module;
+
+/**
+ * Discrete-event simulator of full selling and fast travel trips, for tuning
+ * delays and timeouts against latency distributions.
+ * <p>
+ * The real feature class ticks against the fake APIs of {@link ReplayApi} on a
+ * {@link FakeClock}, the game reactions are events of the {@link SimWorld}.
+ * Time between trips is skipped, so thousands of trips run per second. Every
+ * combination of the {@code --set} values is one configuration, simulated
+ * with the same random seed, and reported with the completion time
+ * percentiles of the successful trips and the rate of failed ones:
+ *
+ * <pre>
+ * java -cp DarkBot.jar:SharedPlugin.jar dev.shared.utils.sim.Simulator \
+ *     --scenario ore-drone --trips 5000 --latency hmd=1500:6000:0.02 \
+ *     --set drone.activationDelayMs=500,1000 --set drone.maxWaitSeconds=10,20,60
+ * </pre>
+ */
+public class Simulator {
+
+    private static final long START_TIME = 1_000_000_000L;
+    private static final long START_LIMIT_MS = 60_000L; // Trips not started by then are counted apart
+    private static final long TRIP_LIMIT_MS = 600_000L; // Trips still running by then are stuck
+    private static final long IDLE_GAP_MS = 660_000L; // Longer than the longest seller cooldown
+
+    private final Scenario scenario;
+    private final Map<String, Latency> latencies;
+    private final int trips;
+    private final long tickMs;
+    private final long seed;
+
+    public Simulator(Scenario scenario, Map<String, Latency> latencies, int trips, long tickMs, long seed) {
+        this.scenario = scenario;
+        this.latencies = latencies;
+        this.trips = trips;
+        this.tickMs = tickMs;
+        this.seed = seed;
+    }
+
+    /**
+     * Simulates the trips of one configuration, given as {@code path=value}
+     * settings of the feature config.
+     */
+    public Result run(List<String> settings) throws ReflectiveOperationException {
+        ReplayApi api = new ReplayApi((name, method, args) -> {
+            // Commands are modeled by the world
+        });
+        FakeClock clock = new FakeClock(START_TIME);
+        api.register(Clock.class, clock);
+        SimWorld world = new SimWorld(api, clock, new Random(this.seed), this.latencies);
+        api.setResponder(world);
+
+        Object feature = api.instance(Class.forName(this.scenario.getFeatureClass()));
+        Object config = api.configure(feature);
+        for (String setting : this.scenario.getSettings()) {
+            apply(config, setting);
+        }
+        for (String setting : settings) {
+            apply(config, setting);
+        }
+
+        Trip trip = new Trip(api, clock, world, feature);
+        Result result = new Result(String.join(", ", settings), this.trips);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // Feature logs
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < this.trips; i++) {
+                trip.run(result);
+            }
+        } finally {
+            System.setOut(out);
+        }
+        result.wallNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    // Sets a config field from "path.to.field=value"
+    private static void apply(Object config, String setting) throws ReflectiveOperationException {
+        int eq = setting.indexOf('=');
+        if (config == null || eq < 0) {
+            throw new IllegalArgumentException("Invalid setting " + setting);
+        }
+        String[] path = setting.substring(0, eq).split("\\.");
+        String value = setting.substring(eq + 1);
+        Object target = config;
+        for (int i = 0; i < path.length - 1; i++) {
+            target = target.getClass().getField(path[i]).get(target);
+        }
+        Field field = target.getClass().getField(path[path.length - 1]);
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            field.setInt(target, Integer.parseInt(value));
+        } else if (type == long.class) {
+            field.setLong(target, Long.parseLong(value));
+        } else if (type == double.class) {
+            field.setDouble(target, Double.parseDouble(value));
+        } else if (type == boolean.class) {
+            field.setBoolean(target, Boolean.parseBoolean(value));
+        } else if (type == String.class) {
+            field.set(target, value);
+        } else {
+            throw new IllegalArgumentException("Unsupported setting type " + type.getSimpleName() + ": " + setting);
+        }
+    }
+
+    /**
+     * Ticks the feature through trips.
+     */
+    private final class Trip {
+        private final ReplayApi api;
+        private final FakeClock clock;
+        private final SimWorld world;
+        private final Object feature;
+        private final TickFrame frame = new TickFrame();
+
+        Trip(ReplayApi api, FakeClock clock, SimWorld world, Object feature) {
+            this.api = api;
+            this.clock = clock;
+            this.world = world;
+            this.feature = feature;
+            this.frame.hp = this.frame.maxHp = 100_000;
+            this.frame.shield = this.frame.maxShield = 100_000;
+        }
+
+        void run(Result result) {
+            this.world.reset(Simulator.this.scenario.getStartMap(), Simulator.this.scenario.getWorkingMap());
+            this.api.setModule(null);
+            this.clock.advance(IDLE_GAP_MS);
+            try {
+                long deadline = this.clock.millis() + START_LIMIT_MS;
+                while (this.api.getModule() != this.feature) {
+                    if (this.clock.millis() >= deadline) {
+                        result.notStarted++;
+                        return;
+                    }
+                    this.tick(result);
+                }
+
+                long start = this.clock.millis();
+                deadline = start + TRIP_LIMIT_MS;
+                while (!Simulator.this.scenario.isIdle(((Module) this.feature).getStatus())) {
+                    if (this.clock.millis() >= deadline) {
+                        result.stuck++;
+                        return;
+                    }
+                    this.tick(result);
+                }
+
+                if (Simulator.this.scenario.succeeded(this.world)) {
+                    result.add(this.clock.millis() - start);
+                } else {
+                    result.failed++;
+                }
+            } catch (RuntimeException e) {
+                if (result.errors++ == 0) {
+                    result.firstError = e;
+                }
+            }
+        }
+
+        private void tick(Result result) {
+            this.clock.advance(Simulator.this.tickMs);
+            this.world.fireDue();
+            this.frame.time = this.clock.millis();
+            this.frame.mapId = this.world.getMapId();
+            this.api.setFrame(this.frame);
+
+            ((Behavior) this.feature).onTickBehavior();
+            if (this.api.getModule() == this.feature) {
+                ((Module) this.feature).onTickModule();
+            }
+            result.ticks++;
+        }
+    }
+
+    /**
+     * Outcome of the trips of one configuration.
+     */
+    public static final class Result {
+        private final String name;
+        private long[] durations;
+        private int completed;
+        private int failed;
+        private int stuck;
+        private int notStarted;
+        private int errors;
+        private RuntimeException firstError;
+        private long ticks;
+        private long wallNanos;
+
+        Result(String name, int trips) {
+            this.name = name.isEmpty() ? "defaults" : name;
+            this.durations = new long[trips];
+        }
+
+        void add(long duration) {
+            this.durations[this.completed++] = duration;
+        }
+
+        int total() {
+            return this.completed + this.failed + this.stuck + this.notStarted + this.errors;
+        }
+
+        public String describe() {
+            int total = Math.max(1, this.total());
+            StringBuilder sb = new StringBuilder();
+            sb.append(this.name).append(String.format(Locale.ROOT, " | ok %.1f%%, timeout %.1f%%, stuck %.1f%%",
+                    100.0 * this.completed / total, 100.0 * this.failed / total, 100.0 * this.stuck / total));
+            if (this.notStarted > 0) {
+                sb.append(String.format(Locale.ROOT, ", not started %.1f%%", 100.0 * this.notStarted / total));
+            }
+            if (this.completed > 0) {
+                long[] sorted = Arrays.copyOf(this.durations, this.completed);
+                Arrays.sort(sorted);
+                sb.append(String.format(Locale.ROOT, " | p50 %.1fs, p90 %.1fs, p99 %.1fs, max %.1fs",
+                        percentile(sorted, 0.5) / 1e3, percentile(sorted, 0.9) / 1e3,
+                        percentile(sorted, 0.99) / 1e3, sorted[sorted.length - 1] / 1e3));
+            }
+            double seconds = this.wallNanos / 1e9;
+            sb.append(String.format(Locale.ROOT, " | %.0f trips/s, %.0f ticks/s", total / seconds,
+                    this.ticks / seconds));
+            if (this.errors > 0) {
+                sb.append(" | ").append(this.errors).append(" errors, first: ").append(this.firstError);
+            }
+            return sb.toString();
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = null;
+        Map<String, Latency> latencies = SimWorld.defaultLatencies();
+        Map<String, String[]> sweeps = new LinkedHashMap<>();
+        int trips = 2_000;
+        long tickMs = 50L;
+        long seed = 1L;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                String value = i + 1 < args.length ? args[++i] : "";
+                switch (arg) {
+                    case "--scenario":
+                        scenario = Scenario.byId(value);
+                        break;
+                    case "--trips":
+                        trips = Integer.parseInt(value);
+                        break;
+                    case "--tick":
+                        tickMs = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--latency": {
+                        String[] parts = value.split("=", 2);
+                        if (parts.length != 2 || !latencies.containsKey(parts[0])) {
+                            throw new IllegalArgumentException("Unknown latency " + value + ", expected one of "
+                                    + latencies.keySet());
+                        }
+                        latencies.put(parts[0], Latency.parse(parts[1]));
+                        break;
+                    }
+                    case "--set": {
+                        String[] parts = value.split("=", 2);
+                        if (parts.length != 2) {
+                            throw new IllegalArgumentException("Expected path=value[,value...], got " + value);
+                        }
+                        sweeps.put(parts[0], parts[1].split(","));
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (scenario == null) {
+                throw new IllegalArgumentException("Missing --scenario");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Simulator --scenario <ore-pet|ore-drone|ore-base|fast-travel> [--trips n]"
+                    + " [--tick ms] [--seed n] [--latency name=median:p99[:loss]]... [--set path=v1[,v2...]]...");
+            System.exit(1);
+            return;
+        }
+
+        System.out.printf("Scenario %s, %d trips per configuration, %dms ticks, seed %d%n", scenario.getId(), trips,
+                tickMs, seed);
+        System.out.println("Latencies: " + latencies);
+        Simulator simulator = new Simulator(scenario, latencies, trips, tickMs, seed);
+        for (List<String> settings : combinations(new ArrayList<>(sweeps.entrySet()), 0)) {
+            System.out.println(simulator.run(settings).describe());
+        }
+    }
+
+    // Every combination of the swept values, the first option varying slowest
+    private static List<List<String>> combinations(List<Map.Entry<String, String[]>> sweeps, int index) {
+        List<List<String>> result = new ArrayList<>();
+        if (index == sweeps.size()) {
+            result.add(new ArrayList<>());
+            return result;
+        }
+        Map.Entry<String, String[]> sweep = sweeps.get(index);
+        List<List<String>> rest = combinations(sweeps, index + 1);
+        for (String value : sweep.getValue()) {
+            for (List<String> tail : rest) {
+                List<String> settings = new ArrayList<>();
+                settings.add(sweep.getKey() + "=" + value);
+                settings.addAll(tail);
+                result.add(settings);
+            }
+        }
+        return result;
+    }
+}